@@ -0,0 +1,54 @@
+package org.deepak.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+// java -cp target/benchmarks.jar org.deepak.bench.AllocationGate
+// Runs HotPathBenchmark and MetricsBenchmark under the GC profiler and exits non-zero if any operation allocates
+// more than MAX_BYTES_PER_OP
+public class AllocationGate {
+    // JMH's own per-iteration bookkeeping spreads a few hundredths of a byte over each operation
+    private static final double MAX_BYTES_PER_OP = 1.0;
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(HotPathBenchmark.class.getName())
+                .include(MetricsBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+        int failures = 0;
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            Double bytesPerOp = allocationPerOp(result);
+            if (bytesPerOp == null) {
+                System.err.printf("%s: no allocation figure from the GC profiler%n", benchmark);
+                failures++;
+            } else if (bytesPerOp > MAX_BYTES_PER_OP) {
+                System.err.printf("%s: %.2f B/op allocated, allowed %.2f%n", benchmark, bytesPerOp, MAX_BYTES_PER_OP);
+                failures++;
+            } else {
+                System.out.printf("%s: %.3f B/op%n", benchmark, bytesPerOp);
+            }
+        }
+        if (results.isEmpty() || failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Looked up by name: JMH's secondary results are raw Results, and naming their type here would be a raw type
+    private static Double allocationPerOp(RunResult result) {
+        for (String label : result.getSecondaryResults().keySet()) {
+            if (label.endsWith("gc.alloc.rate.norm")) {
+                return result.getSecondaryResults().get(label).getScore();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,56 @@
+package org.deepak.bench;
+
+import org.deepak.dto.ElevatorCar;
+import org.deepak.dto.ElevatorController;
+import org.deepak.dto.Request;
+import org.deepak.enums.Direction;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerQueueBenchmark {
+    @Param({"4", "50", "200"})
+    public int floors;
+
+    // Requests queued on the car before it drains them, i.e. how many calls arrive per stop decision
+    @Param({"1", "8", "64"})
+    public int requestsPerBatch;
+
+    private ElevatorController controller;
+    private Request[] requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FleetFixture fixture = new FleetFixture(1, floors, 42L);
+        ElevatorCar car = fixture.cars.get(0);
+        controller = car.getController();
+        // Keep the car MOVING on the frozen simulated clock so addRequest only queues
+        car.moveToFloor(car.getCurrentFloorNumber() == floors ? 1 : floors);
+
+        Random random = new Random(7L);
+        requests = new Request[requestsPerBatch];
+        for (int i = 0; i < requestsPerBatch; i++) {
+            requests[i] = new Request(1 + random.nextInt(floors), random.nextBoolean() ? Direction.UP : Direction.DOWN, false, 0L);
+        }
+    }
+
+    @Benchmark
+    public void addRequestThenDrain(Blackhole blackhole) {
+        for (Request request : requests) {
+            controller.addRequest(request);
+        }
+        int nextFloor;
+        while ((nextFloor = controller.getNextFloor()) >= 0) {
+            controller.completeStop(nextFloor);
+            blackhole.consume(nextFloor);
+        }
+    }
+}
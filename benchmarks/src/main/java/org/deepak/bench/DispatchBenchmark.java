@@ -0,0 +1,51 @@
+package org.deepak.bench;
+
+import org.deepak.dto.ElevatorCar;
+import org.deepak.enums.Direction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"2", "16", "64", "256"})
+    public int cars;
+
+    @Param({"4", "50", "200"})
+    public int floors;
+
+    private FleetFixture fixture;
+    private final int[] queryFloors = new int[QUERIES];
+    private final Direction[] queryDirections = new Direction[QUERIES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new FleetFixture(cars, floors, 42L);
+        Random random = new Random(7L);
+        for (int i = 0; i < QUERIES; i++) {
+            queryFloors[i] = 1 + random.nextInt(floors);
+            queryDirections[i] = random.nextBoolean() ? Direction.UP : Direction.DOWN;
+        }
+    }
+
+    @Benchmark
+    public ElevatorCar selectBestElevatorCar() {
+        int i = next++ & (QUERIES - 1);
+        return fixture.system.selectBestElevatorCar(queryFloors[i], queryDirections[i]);
+    }
+
+    @Benchmark
+    public ElevatorCar scanBestElevatorCar() {
+        int i = next++ & (QUERIES - 1);
+        return fixture.system.scanBestElevatorCar(queryFloors[i], queryDirections[i]);
+    }
+}
@@ -0,0 +1,95 @@
+package org.deepak.bench;
+
+import org.deepak.dto.ElevatorCar;
+import org.deepak.dto.ElevatorController;
+import org.deepak.enums.BackpressurePolicy;
+import org.deepak.enums.ElevatorState;
+import org.deepak.events.EventBus;
+import org.deepak.events.EventSubscription;
+import org.deepak.interfaces.ElevatorObserver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cost on the publishing thread of a floor change with asynchronous subscribers, fast or deliberately slow
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBusBenchmark {
+    @Param({"1", "16"})
+    public int subscribers;
+
+    @Param({"DROP_OLDEST", "BLOCK", "CONFLATE_BY_CAR"})
+    public BackpressurePolicy policy;
+
+    @Param({"0", "100"})
+    public long subscriberMicros;
+
+    private ElevatorController controller;
+    private ElevatorCar car;
+    private EventBus bus;
+    private final List<EventSubscription> subscriptions = new ArrayList<>();
+    private int floor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FleetFixture fixture = new FleetFixture(1, 50, 42L);
+        car = fixture.cars.get(0);
+        controller = car.getController();
+        bus = fixture.system.getEventBus();
+        for (int i = 0; i < subscribers; i++) {
+            subscriptions.add(bus.subscribe("bench-" + i, new SpinningObserver(subscriberMicros), policy));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (EventSubscription subscription : subscriptions) {
+            bus.unsubscribe(subscription);
+        }
+        subscriptions.clear();
+    }
+
+    @Benchmark
+    public void onFloorChanged() {
+        floor = floor == 50 ? 1 : floor + 1;
+        controller.onFloorChanged(car, floor);
+    }
+
+    private static final class SpinningObserver implements ElevatorObserver {
+        private final long nanos;
+        private long sink;
+
+        private SpinningObserver(long micros) {
+            this.nanos = TimeUnit.MICROSECONDS.toNanos(micros);
+        }
+
+        @Override
+        public void onElevatorStateChanged(ElevatorCar elevator, ElevatorState newState) {
+            spin();
+        }
+
+        @Override
+        public void onFloorChanged(ElevatorCar elevator, int newFloor) {
+            sink += newFloor;
+            spin();
+        }
+
+        @Override
+        public void onRequestCompleted(ElevatorCar elevator, int floor) {
+            spin();
+        }
+
+        private void spin() {
+            long until = System.nanoTime() + nanos;
+            while (nanos > 0 && System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.deepak.bench;
+
+import org.deepak.ElevatorSystem;
+import org.deepak.dto.Building;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.engine.Simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Builds a fleet on a simulated engine with idle cars parked across the shaft and roughly half of them mid-trip
+final class FleetFixture {
+    final Simulation simulation;
+    final ElevatorSystem system;
+    final Building building;
+    final List<ElevatorCar> cars = new ArrayList<>();
+
+    FleetFixture(int carCount, int floorCount, long seed) {
+        simulation = new Simulation(seed);
+        system = new ElevatorSystem("bench", simulation.getMotionEngine());
+        building = system.getBuilding();
+        for (int i = 0; i < carCount; i++) {
+            cars.add(system.createElevatorCar());
+        }
+        building.setElevators(cars);
+        building.setFloor(floorCount);
+        for (ElevatorCar car : cars) {
+            car.setFloorPanel(floorCount);
+            system.addElevator(car);
+        }
+
+        Random random = simulation.getRandom();
+        for (ElevatorCar car : cars) {
+            car.moveToFloor(1 + random.nextInt(floorCount));
+        }
+        simulation.runUntil(simulation.now() + (floorCount + 1) * simulation.getMotionEngine().getFloorTravelMillis());
+        for (ElevatorCar car : cars) {
+            if (random.nextBoolean()) {
+                car.moveToFloor(random.nextBoolean() ? floorCount : 1);
+            }
+        }
+        simulation.runUntil(simulation.now() + simulation.getMotionEngine().getFloorTravelMillis() / 2);
+    }
+}
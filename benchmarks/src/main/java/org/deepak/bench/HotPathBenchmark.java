@@ -0,0 +1,72 @@
+package org.deepak.bench;
+
+import org.deepak.dto.ElevatorCar;
+import org.deepak.dto.panels.HallPanel;
+import org.deepak.engine.Simulation;
+import org.deepak.enums.Direction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// One passenger call end to end: the press, dispatch and queuing, then every motion tick, arrival and stop until
+// the fleet is still again. Run with -prof gc; AllocationGate fails the build when gc.alloc.rate.norm exceeds its
+// MAX_BYTES_PER_OP of 1 B/op, which leaves room only for JMH's own bookkeeping.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPathBenchmark {
+    private static final int SEQUENCE = 1024;
+
+    @Param({"4"})
+    public int cars;
+
+    @Param({"20"})
+    public int floors;
+
+    private Simulation simulation;
+    private HallPanel[] hallPanels;
+    private Direction[] hallDirections;
+    private ElevatorCar car;
+    private int[] carFloors;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FleetFixture fixture = new FleetFixture(cars, floors, 42L);
+        simulation = fixture.simulation;
+        simulation.run();
+        car = fixture.cars.get(0);
+
+        // Precomputed so the benchmark itself allocates nothing per operation
+        Random random = new Random(7L);
+        hallPanels = new HallPanel[SEQUENCE];
+        hallDirections = new Direction[SEQUENCE];
+        carFloors = new int[SEQUENCE];
+        for (int i = 0; i < SEQUENCE; i++) {
+            int floor = 1 + random.nextInt(floors);
+            hallPanels[i] = fixture.building.getFloor(floor).getPanel();
+            hallDirections[i] = floor == floors || (floor > 1 && random.nextBoolean()) ? Direction.DOWN : Direction.UP;
+            carFloors[i] = 1 + random.nextInt(floors);
+        }
+    }
+
+    @Benchmark
+    public ElevatorCar hallCall() {
+        int i = next++ & (SEQUENCE - 1);
+        ElevatorCar assigned = hallPanels[i].pressButton(hallDirections[i]);
+        simulation.run();
+        return assigned;
+    }
+
+    @Benchmark
+    public ElevatorCar carCall() {
+        int i = next++ & (SEQUENCE - 1);
+        ElevatorCar pressed = car.pressFloorButton(carFloors[i]);
+        simulation.run();
+        return pressed;
+    }
+}
@@ -0,0 +1,60 @@
+package org.deepak.bench;
+
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.deepak.enums.JournalRecordType;
+import org.deepak.journal.TripJournal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Raw append rate of the memory-mapped trip journal; each iteration starts a fresh file
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+    private Path path;
+    private TripJournal journal;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        path = Files.createTempFile("trip", ".journal");
+        Files.delete(path);
+        journal = TripJournal.open(path);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        journal.close();
+        Files.deleteIfExists(path);
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+        int floor;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void appendFloorChanged(Writer writer) {
+        append(writer);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void appendFloorChangedContended(Writer writer) {
+        append(writer);
+    }
+
+    private void append(Writer writer) {
+        writer.floor = writer.floor == 50 ? 1 : writer.floor + 1;
+        journal.append(JournalRecordType.FLOOR_CHANGED, writer.floor, 1, writer.floor, 0, Direction.UP,
+                ElevatorState.MOVING);
+    }
+}
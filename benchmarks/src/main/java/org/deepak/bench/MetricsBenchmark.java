@@ -0,0 +1,49 @@
+package org.deepak.bench;
+
+import org.deepak.metrics.LatencyHistogram;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Cost of recording one latency, from one thread and from several recording into the same histogram at once
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    private static final int SEQUENCE = 1024;
+
+    private LatencyHistogram histogram;
+    private long[] values;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        histogram = new LatencyHistogram();
+        // Spread over six orders of magnitude so the records land in many buckets
+        Random random = new Random(7L);
+        values = new long[SEQUENCE];
+        for (int i = 0; i < SEQUENCE; i++) {
+            values[i] = (long) Math.pow(10, random.nextDouble() * 6);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void record(Cursor cursor) {
+        histogram.record(values[cursor.next++ & (SEQUENCE - 1)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordContended(Cursor cursor) {
+        histogram.record(values[cursor.next++ & (SEQUENCE - 1)]);
+    }
+}
@@ -0,0 +1,64 @@
+package org.deepak.bench;
+
+import org.deepak.dto.ElevatorCar;
+import org.deepak.dto.ElevatorController;
+import org.deepak.enums.ElevatorState;
+import org.deepak.interfaces.ElevatorObserver;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObserverFanOutBenchmark {
+    @Param({"1", "4", "16", "64"})
+    public int observers;
+
+    private ElevatorController controller;
+    private ElevatorCar car;
+    private int floor;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        FleetFixture fixture = new FleetFixture(1, 50, 42L);
+        car = fixture.cars.get(0);
+        controller = car.getController();
+        for (int i = 0; i < observers; i++) {
+            controller.addObserver(new ConsumingObserver(blackhole));
+        }
+    }
+
+    @Benchmark
+    public void onFloorChanged() {
+        floor = floor == 50 ? 1 : floor + 1;
+        controller.onFloorChanged(car, floor);
+    }
+
+    private static final class ConsumingObserver implements ElevatorObserver {
+        private final Blackhole blackhole;
+
+        private ConsumingObserver(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onElevatorStateChanged(ElevatorCar elevator, ElevatorState newState) {
+            blackhole.consume(newState);
+        }
+
+        @Override
+        public void onFloorChanged(ElevatorCar elevator, int newFloor) {
+            blackhole.consume(newFloor);
+        }
+
+        @Override
+        public void onRequestCompleted(ElevatorCar elevator, int floor) {
+            blackhole.consume(floor);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.deepak.bench;
+
+import org.deepak.ElevatorSystem;
+import org.deepak.dto.Building;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.engine.Simulation;
+import org.deepak.enums.Direction;
+import org.deepak.journal.JournalReader;
+import org.deepak.journal.JournalState;
+import org.deepak.journal.SystemSnapshot;
+import org.deepak.journal.TripJournal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Restart path: read the snapshot, apply the journal tail written after it and rebuild a serviceable fleet
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RecoveryBenchmark {
+    @Param({"16", "256"})
+    public int cars;
+
+    @Param({"100"})
+    public int floors;
+
+    private Path directory;
+    private Path journalPath;
+    private Path snapshotPath;
+    private ElevatorSystem restored;
+
+    @Setup(Level.Trial)
+    public void record() throws IOException {
+        directory = Files.createTempDirectory("recovery");
+        journalPath = directory.resolve("trips.journal");
+        snapshotPath = directory.resolve("fleet.snapshot");
+        FleetFixture fixture = new FleetFixture(cars, floors, 42L);
+        ElevatorSystem system = fixture.system;
+        Simulation simulation = fixture.simulation;
+        Building building = fixture.building;
+        try (TripJournal journal = TripJournal.open(journalPath)) {
+            system.setJournal(journal);
+            // A call every 10ms of simulated time: the snapshot halfway through leaves a tail of tens of thousands of records
+            Random random = new Random(7);
+            long start = simulation.now();
+            for (int i = 0; i < 12_000; i++) {
+                int origin = 1 + random.nextInt(floors);
+                int destination = 1 + random.nextInt(floors - 1);
+                int target = destination >= origin ? destination + 1 : destination;
+                simulation.schedule(start + i * 10L, () -> {
+                    ElevatorCar car = building.getFloor(origin).getPanel()
+                            .pressButton(target > origin ? Direction.UP : Direction.DOWN);
+                    simulation.scheduleAfter(3000, () -> car.pressFloorButton(target));
+                });
+            }
+            simulation.runUntil(start + 60_000);
+            SystemSnapshot.capture(system).write(snapshotPath);
+            simulation.runUntil(start + 120_000);
+            system.setJournal(null);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void restart() {
+        restored = new ElevatorSystem("restored", new Simulation(42L).getMotionEngine());
+    }
+
+    @Benchmark
+    public List<ElevatorCar> recoverAndRestore() throws IOException {
+        SystemSnapshot snapshot = SystemSnapshot.read(snapshotPath);
+        JournalState state;
+        try (JournalReader reader = JournalReader.open(journalPath)) {
+            state = snapshot.recover(reader);
+        }
+        return restored.restore(snapshot.getFloorCount(), state);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.deepak.bench;
+
+import org.deepak.ElevatorSystem;
+import org.deepak.cluster.CampusDispatcher;
+import org.deepak.cluster.CampusZone;
+import org.deepak.cluster.LoopbackTransport;
+import org.deepak.cluster.ShardAssignment;
+import org.deepak.cluster.ShardNode;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.engine.MotionEngine;
+import org.deepak.enums.Direction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// The same campus and fleet split into more and more shards over the loopback transport. Each shard dispatches
+// on its own intake thread against a fleet index of its own cars only.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ShardedDispatchBenchmark {
+    private static final int CALLS = 32;
+    private static final int FLOORS = 193;
+    private static final int CARS = 64;
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    private MotionEngine engine;
+    private CampusDispatcher campus;
+    private final List<ShardNode> nodes = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Fast cars so hall buttons clear and calls keep reaching the dispatcher rather than coalescing
+        engine = new MotionEngine(1, 2);
+        LoopbackTransport transport = new LoopbackTransport();
+        campus = new CampusDispatcher(transport);
+        int span = (FLOORS - 1) / shards;
+        for (int shard = 0; shard < shards; shard++) {
+            CampusZone zone = new CampusZone("zone-" + shard, 1 + shard * span, 1 + (shard + 1) * span);
+            ElevatorSystem system = new ElevatorSystem(zone.getZoneId(), engine);
+            List<ElevatorCar> cars = new ArrayList<>();
+            for (int i = 0; i < CARS / shards; i++) {
+                cars.add(system.createElevatorCar());
+            }
+            system.getBuilding().setElevators(cars);
+            system.getBuilding().setFloor(zone.getHighestFloor());
+            for (ElevatorCar car : cars) {
+                car.setFloorPanel(zone.getHighestFloor());
+                system.addElevator(car);
+            }
+            ShardNode node = new ShardNode("node-" + shard, zone, system);
+            node.start(transport);
+            campus.join(zone, node.getNodeId());
+            nodes.add(node);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (ShardNode node : nodes) {
+            node.stop();
+            node.getSystem().getHallCallIntake().shutdown();
+        }
+        campus.shutdown();
+        engine.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public int submitHallCalls() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        @SuppressWarnings("unchecked")
+        CompletableFuture<ShardAssignment>[] calls =
+                (CompletableFuture<ShardAssignment>[]) new CompletableFuture<?>[CALLS];
+        for (int i = 0; i < CALLS; i++) {
+            boolean up = random.nextBoolean();
+            int floor = up ? 1 + random.nextInt(FLOORS - 1) : 2 + random.nextInt(FLOORS - 1);
+            calls[i] = campus.submitHallCall(floor, up ? Direction.UP : Direction.DOWN);
+        }
+        return await(calls);
+    }
+
+    // Trips within one zone; destination dispatch weighs every car of the zone for each call
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public int submitDestinationCalls() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int span = (FLOORS - 1) / shards;
+        @SuppressWarnings("unchecked")
+        CompletableFuture<List<ShardAssignment>>[] calls =
+                (CompletableFuture<List<ShardAssignment>>[]) new CompletableFuture<?>[CALLS];
+        for (int i = 0; i < CALLS; i++) {
+            int lowest = 1 + random.nextInt(shards) * span;
+            int origin = lowest + random.nextInt(span + 1);
+            int destination = lowest + random.nextInt(span);
+            calls[i] = campus.submitDestinationCall(origin, destination >= origin ? destination + 1 : destination);
+        }
+        return await(calls);
+    }
+
+    private static int await(CompletableFuture<?>[] calls) {
+        int assigned = 0;
+        for (CompletableFuture<?> call : calls) {
+            // A call every car is too full to take fails; it still went through dispatch
+            assigned += call.handle((assignment, error) -> assignment != null ? 1 : 0).join();
+        }
+        return assigned;
+    }
+}
@@ -0,0 +1,169 @@
+package org.deepak.bench.sim;
+
+import org.deepak.ElevatorSystem;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.dto.ElevatorController;
+import org.deepak.engine.MotionEngine;
+import org.deepak.engine.SystemClock;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.deepak.interfaces.ElevatorObserver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// java -cp target/benchmarks.jar org.deepak.bench.sim.ActorScaleComparison [cars] [floors] [seconds] [callsPerSecond]
+// Real time: this thread ticks the engine every TICK_MILLIS while another presses random hall buttons, first with
+// car events handled in line on the tick thread, then with every car running as an actor
+public class ActorScaleComparison {
+    private static final long TICK_MILLIS = 10;
+    private static final long FLOOR_TRAVEL_MILLIS = 50;
+
+    public static void main(String[] args) throws InterruptedException {
+        int cars = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int floors = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int callsPerSecond = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+
+        System.out.printf("%d cars, %d floors, %d s at %d hall calls/s, %d ms ticks, %d ms per floor%n",
+                cars, floors, seconds, callsPerSecond, TICK_MILLIS, FLOOR_TRAVEL_MILLIS);
+        System.out.printf("%-8s %10s %10s %10s %10s %11s %11s %10s%n", "mode", "tick p50", "tick p99",
+                "tick p99.9", "tick max", "press p50", "press p99", "stops/s");
+        for (boolean actors : new boolean[]{false, true}) {
+            run(cars, floors, seconds, callsPerSecond, actors);
+        }
+    }
+
+    private static void run(int carCount, int floorCount, int seconds, int callsPerSecond, boolean actors)
+            throws InterruptedException {
+        MotionEngine engine = MotionEngine.simulated(new SystemClock(), FLOOR_TRAVEL_MILLIS);
+        ElevatorSystem system = new ElevatorSystem(actors ? "actors" : "inline", engine);
+        List<ElevatorCar> cars = new ArrayList<>();
+        for (int i = 0; i < carCount; i++) {
+            cars.add(system.createElevatorCar());
+        }
+        system.getBuilding().setElevators(cars);
+        system.getBuilding().setFloor(floorCount);
+        AtomicLong stops = new AtomicLong();
+        ElevatorObserver counter = new StopCounter(stops);
+        for (ElevatorCar car : cars) {
+            car.setFloorPanel(floorCount);
+            system.addElevator(car);
+            car.getController().addObserver(counter);
+        }
+        if (actors) {
+            system.startActors();
+        }
+        // Spread the fleet over the shaft before measuring
+        for (int i = 0; i < carCount; i++) {
+            cars.get(i).getController().addRequest(1 + i % floorCount, Direction.UP, true);
+        }
+        tickFor(engine, (floorCount + 2) * FLOOR_TRAVEL_MILLIS, null);
+        stops.set(0);
+
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long[] pressNanos = new long[seconds * callsPerSecond];
+        int[] presses = new int[1];
+        Thread presser = new Thread(() -> press(system, floorCount, callsPerSecond, deadline, pressNanos, presses),
+                "presser");
+        presser.start();
+        long[] tickNanos = new long[(int) (seconds * 1000 / TICK_MILLIS) + 1];
+        int ticks = tickFor(engine, seconds * 1000L, tickNanos);
+        presser.join();
+        long stopped = stops.get();
+        if (actors) {
+            system.stopActors();
+        }
+
+        long[] tickSamples = Arrays.copyOf(tickNanos, ticks);
+        long[] pressSamples = Arrays.copyOf(pressNanos, presses[0]);
+        Arrays.sort(tickSamples);
+        Arrays.sort(pressSamples);
+        System.out.printf("%-8s %8.0fus %8.0fus %8.0fus %8.0fus %9.0fus %9.0fus %10.0f%n", actors ? "actors" : "inline",
+                micros(tickSamples, 0.50), micros(tickSamples, 0.99), micros(tickSamples, 0.999),
+                micros(tickSamples, 1.0), micros(pressSamples, 0.50), micros(pressSamples, 0.99),
+                (double) stopped / seconds);
+    }
+
+    // Ticks on a fixed schedule for the given time, recording how long each tick took; returns the ticks run
+    private static int tickFor(MotionEngine engine, long millis, long[] samples) {
+        long start = System.nanoTime();
+        long end = start + millis * 1_000_000L;
+        int ticks = 0;
+        for (long next = start; next < end; next += TICK_MILLIS * 1_000_000L) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long began = System.nanoTime();
+            engine.tick();
+            if (samples != null && ticks < samples.length) {
+                samples[ticks] = System.nanoTime() - began;
+            }
+            ticks++;
+        }
+        return samples == null ? ticks : Math.min(ticks, samples.length);
+    }
+
+    // Presses in one-millisecond batches to hold the call rate without a sleep per press
+    private static void press(ElevatorSystem system, int floorCount, int callsPerSecond, long deadline,
+                              long[] samples, int[] count) {
+        Random random = new Random(42L);
+        double perMilli = callsPerSecond / 1000.0;
+        double owed = 0;
+        int pressed = 0;
+        for (long next = System.nanoTime(); next < deadline; next += 1_000_000L) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            owed += perMilli;
+            for (; owed >= 1 && pressed < samples.length; owed--) {
+                int floor = 1 + random.nextInt(floorCount);
+                Direction direction = floor == floorCount || (floor > 1 && random.nextBoolean())
+                        ? Direction.DOWN : Direction.UP;
+                long began = System.nanoTime();
+                try {
+                    system.getBuilding().getFloor(floor).getPanel().pressButton(direction);
+                } catch (RuntimeException e) {
+                    // No car free for it; still counted as a press
+                }
+                samples[pressed++] = System.nanoTime() - began;
+            }
+        }
+        count[0] = pressed;
+    }
+
+    private static double micros(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1000.0;
+    }
+
+    private static final class StopCounter implements ElevatorObserver {
+        private final AtomicLong stops;
+
+        private StopCounter(AtomicLong stops) {
+            this.stops = stops;
+        }
+
+        @Override
+        public void onElevatorStateChanged(ElevatorCar elevator, ElevatorState newState) {
+        }
+
+        @Override
+        public void onFloorChanged(ElevatorCar elevator, int newFloor) {
+        }
+
+        @Override
+        public void onRequestCompleted(ElevatorCar elevator, int floor) {
+            stops.incrementAndGet();
+        }
+    }
+}
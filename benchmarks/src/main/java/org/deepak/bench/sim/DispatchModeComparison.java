@@ -0,0 +1,31 @@
+package org.deepak.bench.sim;
+
+import org.deepak.traffic.Trip;
+
+import java.util.List;
+
+// java -cp target/benchmarks.jar org.deepak.bench.sim.DispatchModeComparison [floors] [cars] [passengersPerHour] [minutes] [seed]
+// Lobby up-peak offered above what the fleet can carry, so deliveries per five minutes is the handling capacity
+public class DispatchModeComparison {
+    public static void main(String[] args) {
+        int floors = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int cars = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        double passengersPerHour = args.length > 2 ? Double.parseDouble(args[2]) : 3000;
+        long durationMillis = (args.length > 3 ? Long.parseLong(args[3]) : 60) * 60_000L;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+
+        List<Trip> trace = TraceGenerator.upPeak(floors, passengersPerHour, durationMillis, seed);
+        System.out.printf("%d floors, %d cars, up-peak of %d passengers over %d min (seed %d)%n",
+                floors, cars, trace.size(), durationMillis / 60_000L, seed);
+        System.out.printf("%-12s %14s %12s %12s %16s %10s%n", "mode", "per 5 min", "avg wait s", "avg ride s",
+                "moves/delivery", "unserved");
+        for (boolean destinationDispatch : new boolean[]{false, true}) {
+            PassengerSimulator simulator = new PassengerSimulator(cars, floors, seed, controller -> { },
+                    destinationDispatch);
+            SimulationResult result = simulator.run(trace, durationMillis);
+            System.out.printf("%-12s %14.1f %12.1f %12.1f %16.2f %10d%n", destinationDispatch ? "destination" : "up/down",
+                    result.deliveredPerFiveMinutes(), result.averageWaitSeconds(), result.averageRideSeconds(),
+                    result.movesPerDelivery(), result.unserved);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.deepak.bench.sim;
+
+import org.deepak.dto.dispatcher.EtaDispatchStrategy;
+import org.deepak.traffic.Trip;
+
+import java.util.List;
+
+// java -cp target/benchmarks.jar org.deepak.bench.sim.DispatchStrategyComparison [floors] [cars] [passengersPerHour] [hours] [seed]
+// The same mixed and up-peak traces dispatched to the nearest car by score, and by estimated time to arrival
+// through each car's committed stops
+public class DispatchStrategyComparison {
+    public static void main(String[] args) {
+        int floors = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int cars = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        double passengersPerHour = args.length > 2 ? Double.parseDouble(args[2]) : 1500;
+        long durationMillis = (args.length > 3 ? Long.parseLong(args[3]) : 2) * 3_600_000L;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+
+        System.out.printf("%d floors, %d cars, %.0f passengers/h over %d h (seed %d)%n",
+                floors, cars, passengersPerHour, durationMillis / 3_600_000L, seed);
+        System.out.printf("%-10s %-9s %12s %12s %14s %10s%n", "traffic", "dispatch", "avg wait s", "avg ride s",
+                "reversals/h", "unserved");
+        run("mixed", TraceGenerator.mixedTraffic(floors, passengersPerHour, durationMillis, seed),
+                floors, cars, durationMillis, seed);
+        run("up-peak", TraceGenerator.upPeak(floors, passengersPerHour, durationMillis, seed),
+                floors, cars, durationMillis, seed);
+    }
+
+    private static void run(String traffic, List<Trip> trace, int floors, int cars, long durationMillis, long seed) {
+        for (int mode = 0; mode < 2; mode++) {
+            boolean eta = mode == 1;
+            PassengerSimulator simulator = new PassengerSimulator(cars, floors, seed, controller -> { }, false,
+                    system -> system.setDispatchStrategy(eta ? new EtaDispatchStrategy(system) : null));
+            SimulationResult result = simulator.run(trace, durationMillis);
+            System.out.printf("%-10s %-9s %12.1f %12.1f %14.1f %10d%n", traffic, eta ? "eta" : "nearest",
+                    result.averageWaitSeconds(), result.averageRideSeconds(), result.reversalsPerHour(),
+                    result.unserved);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.deepak.bench.sim;
+
+import org.deepak.dto.dispatcher.EtaDispatchStrategy;
+import org.deepak.enums.TrafficProfile;
+import org.deepak.traffic.OriginDestinationMatrix;
+import org.deepak.traffic.TrafficGenerator;
+import org.deepak.traffic.Trip;
+
+import java.util.List;
+
+// java -cp target/benchmarks.jar org.deepak.bench.sim.EnRouteStopComparison [floors] [cars] [passengersPerHour] [hours] [seed]
+// The same mixed and down-peak traces, under nearest-car and ETA dispatch, with cars running straight to the stop they
+// set out for and with cars stopping on the way for calls that come up ahead of them
+public class EnRouteStopComparison {
+    public static void main(String[] args) {
+        int floors = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int cars = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        double passengersPerHour = args.length > 2 ? Double.parseDouble(args[2]) : 1500;
+        long durationMillis = (args.length > 3 ? Long.parseLong(args[3]) : 2) * 3_600_000L;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+
+        System.out.printf("%d floors, %d cars, %.0f passengers/h over %d h (seed %d)%n",
+                floors, cars, passengersPerHour, durationMillis / 3_600_000L, seed);
+        System.out.printf("%-10s %-9s %-9s %16s %17s %12s %12s %10s%n", "traffic", "dispatch", "en route",
+                "moves/delivery", "floors/delivery", "avg wait s", "avg ride s", "unserved");
+        run("mixed", TraceGenerator.mixedTraffic(floors, passengersPerHour, durationMillis, seed),
+                floors, cars, durationMillis, seed);
+        run("down-peak", new TrafficGenerator(OriginDestinationMatrix.of(TrafficProfile.DOWN_PEAK, floors),
+                passengersPerHour).generate(durationMillis, seed), floors, cars, durationMillis, seed);
+    }
+
+    private static void run(String traffic, List<Trip> trace, int floors, int cars, long durationMillis, long seed) {
+        for (int mode = 0; mode < 4; mode++) {
+            boolean eta = mode >= 2;
+            boolean enRoute = mode % 2 == 1;
+            PassengerSimulator simulator = new PassengerSimulator(cars, floors, seed,
+                    controller -> controller.setEnRouteStops(enRoute), false,
+                    system -> system.setDispatchStrategy(eta ? new EtaDispatchStrategy(system) : null));
+            SimulationResult result = simulator.run(trace, durationMillis);
+            System.out.printf("%-10s %-9s %-9s %16.2f %17.2f %12.1f %12.1f %10d%n", traffic, eta ? "eta" : "nearest",
+                    enRoute ? "stop" : "through", result.movesPerDelivery(), result.floorsPerDelivery(),
+                    result.averageWaitSeconds(), result.averageRideSeconds(), result.unserved);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.deepak.bench.sim;
+
+import org.deepak.dto.dispatcher.ParkingPlanner;
+import org.deepak.traffic.Trip;
+
+import java.util.List;
+
+// java -cp target/benchmarks.jar org.deepak.bench.sim.ParkingComparison [floors] [cars] [peakPassengersPerHour] [days] [seed]
+// Replays the same office days with idle cars left where they stop and with predictive parking. The first day
+// only trains the demand model and is left out of the figures.
+public class ParkingComparison {
+    public static void main(String[] args) {
+        int floors = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int cars = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        double peakPassengersPerHour = args.length > 2 ? Double.parseDouble(args[2]) : 600;
+        int days = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+
+        List<Trip> trace = TraceGenerator.officeDays(floors, peakPassengersPerHour, days, seed);
+        long durationMillis = days * 24 * 3_600_000L;
+        System.out.printf("%d floors, %d cars, %d passengers over %d office days, peak %.0f/h (seed %d)%n",
+                floors, cars, trace.size(), days, peakPassengersPerHour, seed);
+        System.out.printf("%-11s %12s %12s %12s %12s %12s %10s%n", "idle cars", "avg wait s", "morning s",
+                "lunch s", "evening s", "off-peak s", "unserved");
+        double[] averages = new double[2];
+        for (int mode = 0; mode < 2; mode++) {
+            boolean parking = mode == 1;
+            PassengerSimulator simulator = new PassengerSimulator(cars, floors, seed, controller -> { }, false,
+                    system -> system.setParkingPlanner(parking ? new ParkingPlanner(system) : null));
+            SimulationResult result = simulator.run(trace, durationMillis, 24 * 3_600_000L);
+            averages[mode] = result.averageWaitSeconds();
+            double offPeak = (result.averageWaitSeconds(0, 7) + result.averageWaitSeconds(10, 12)
+                    + result.averageWaitSeconds(14, 16) + result.averageWaitSeconds(19, 24)) / 4;
+            System.out.printf("%-11s %12.1f %12.1f %12.1f %12.1f %12.1f %10d%n", parking ? "parked" : "stay put",
+                    result.averageWaitSeconds(), result.averageWaitSeconds(7, 10), result.averageWaitSeconds(12, 14),
+                    result.averageWaitSeconds(16, 19), offPeak, result.unserved);
+        }
+        System.out.printf("average hall-call wait %.1f%% lower with predictive parking%n",
+                100 * (averages[0] - averages[1]) / averages[0]);
+    }
+}
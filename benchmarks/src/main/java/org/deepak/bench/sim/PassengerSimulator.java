@@ -0,0 +1,214 @@
+package org.deepak.bench.sim;
+
+import org.deepak.ElevatorSystem;
+import org.deepak.dto.Building;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.dto.ElevatorController;
+import org.deepak.dto.panels.HallPanel;
+import org.deepak.engine.Simulation;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.deepak.interfaces.ElevatorObserver;
+import org.deepak.traffic.Trip;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Replays a passenger trace on a simulated fleet: passengers press the hall button on arrival,
+// board when a car answers their direction, press their destination inside, and leave on arrival.
+// In destination mode they key their destination at the hall panel and board only the car they were given.
+// Boarding follows the cars' own load tracking, so full cars leave passengers for the next car.
+final class PassengerSimulator implements ElevatorObserver {
+    private static final long DRAIN_MILLIS = 3_600_000L;
+    private static final long RETRY_MILLIS = 5_000L;
+
+    private final Simulation simulation;
+    private final Building building;
+    private final List<ElevatorCar> cars = new ArrayList<>();
+    private final ArrayDeque<Rider>[][] waiting;
+    private final Map<Integer, List<Rider>> riders = new HashMap<>();
+    private final Map<Integer, Direction> lastMoveDirection = new HashMap<>();
+    private final SimulationResult result = new SimulationResult();
+    private final boolean destinationDispatch;
+    private long windowEnd = Long.MAX_VALUE;
+    private long measureFromMillis;
+    private Rider calling; // A car standing at the floor can board the caller before pressDestination returns
+
+    PassengerSimulator(int carCount, int floorCount, long seed, Consumer<ElevatorController> configure) {
+        this(carCount, floorCount, seed, configure, false);
+    }
+
+    PassengerSimulator(int carCount, int floorCount, long seed, Consumer<ElevatorController> configure,
+                       boolean destinationDispatch) {
+        this(carCount, floorCount, seed, configure, destinationDispatch, system -> { });
+    }
+
+    // setup runs once the fleet is parked at the lobby, before the first passenger arrives
+    @SuppressWarnings("unchecked")
+    PassengerSimulator(int carCount, int floorCount, long seed, Consumer<ElevatorController> configure,
+                       boolean destinationDispatch, Consumer<ElevatorSystem> setup) {
+        this.destinationDispatch = destinationDispatch;
+        simulation = new Simulation(seed);
+        ElevatorSystem system = new ElevatorSystem("simulation", simulation.getMotionEngine());
+        building = system.getBuilding();
+        for (int i = 0; i < carCount; i++) {
+            cars.add(system.createElevatorCar());
+        }
+        building.setElevators(cars);
+        building.setFloor(floorCount);
+        for (ElevatorCar car : cars) {
+            car.setFloorPanel(floorCount);
+            system.addElevator(car);
+            configure.accept(car.getController());
+            riders.put(car.getId(), new ArrayList<>());
+            car.moveToFloor(1);
+        }
+        simulation.runUntil(simulation.getMotionEngine().getFloorTravelMillis());
+        for (ElevatorCar car : cars) {
+            car.getController().addObserver(this);
+        }
+        setup.accept(system);
+        waiting = (ArrayDeque<Rider>[][]) new ArrayDeque<?>[floorCount + 1][2];
+        for (int floor = 1; floor <= floorCount; floor++) {
+            waiting[floor][0] = new ArrayDeque<>();
+            waiting[floor][1] = new ArrayDeque<>();
+        }
+    }
+
+    // For events of the caller's own, e.g. a car taken out of service part way through
+    Simulation simulation() {
+        return simulation;
+    }
+
+    SimulationResult run(List<Trip> trace, long durationMillis) {
+        return run(trace, durationMillis, 0);
+    }
+
+    // Passengers arriving in the first measureFromMillis ride as usual but are left out of the wait and ride figures
+    SimulationResult run(List<Trip> trace, long durationMillis, long measureFromMillis) {
+        this.measureFromMillis = measureFromMillis;
+        long start = simulation.now();
+        windowEnd = start + durationMillis;
+        for (Trip trip : trace) {
+            simulation.schedule(start + trip.arrivalMillis(), () -> arrive(trip));
+        }
+        simulation.runUntil(start + durationMillis + DRAIN_MILLIS);
+        result.durationMillis = durationMillis;
+        for (int floor = 1; floor < waiting.length; floor++) {
+            result.unserved += waiting[floor][0].size() + waiting[floor][1].size();
+        }
+        for (List<Rider> onBoard : riders.values()) {
+            result.unserved += onBoard.size();
+        }
+        return result;
+    }
+
+    private void arrive(Trip trip) {
+        Rider rider = new Rider(trip, simulation.now(), trip.arrivalMillis() >= measureFromMillis);
+        waiting[trip.origin()][index(trip.direction())].add(rider);
+        result.requested++;
+        call(rider);
+    }
+
+    private void call(Rider rider) {
+        HallPanel panel = building.getFloor(rider.trip.origin()).getPanel();
+        try {
+            if (destinationDispatch) {
+                calling = rider;
+                rider.assigned = panel.pressDestination(rider.trip.destination());
+            } else {
+                panel.pressButton(rider.trip.direction());
+            }
+            calling = null;
+        } catch (RuntimeException e) {
+            calling = null;
+            // Every car refused (e.g. all fully booked): try the panel again shortly
+            result.rejected++;
+            simulation.scheduleAfter(RETRY_MILLIS, () -> call(rider));
+        }
+    }
+
+    @Override
+    public void onRequestCompleted(ElevatorCar elevator, int floor) {
+        long now = simulation.now();
+        List<Rider> onBoard = riders.get(elevator.getId());
+        Iterator<Rider> iterator = onBoard.iterator();
+        while (iterator.hasNext()) {
+            Rider rider = iterator.next();
+            if (rider.trip.destination() == floor) {
+                iterator.remove();
+                if (rider.measured) {
+                    result.recordRide(now - rider.boardedAt, now <= windowEnd);
+                }
+            }
+        }
+    }
+
+    // The car boards passengers from the hall panel count (or its bookings); the same number of riders get on here
+    @Override
+    public void onPassengersBoarded(ElevatorCar elevator, int floor, Direction direction, int count) {
+        long now = simulation.now();
+        List<Rider> onBoard = riders.get(elevator.getId());
+        Iterator<Rider> waitingRiders = waiting[floor][index(direction)].iterator();
+        while (count > 0 && waitingRiders.hasNext()) {
+            Rider rider = waitingRiders.next();
+            if (destinationDispatch && rider.assigned != elevator && rider != calling) {
+                continue;
+            }
+            // A zoned car has no button for this rider's floor; they wait for a car of the right bank
+            if (!elevator.serves(rider.trip.destination())) {
+                continue;
+            }
+            waitingRiders.remove();
+            count--;
+            rider.boardedAt = now;
+            if (rider.measured) {
+                result.recordWait(now - rider.arrivedAt, rider.trip.arrivalMillis());
+            }
+            onBoard.add(rider);
+            if (!destinationDispatch) {
+                elevator.pressFloorButton(rider.trip.destination());
+            }
+        }
+    }
+
+    @Override
+    public void onElevatorStateChanged(ElevatorCar elevator, ElevatorState newState) {
+        if (newState != ElevatorState.MOVING) {
+            return;
+        }
+        result.moves++;
+        Direction previous = lastMoveDirection.put(elevator.getId(), elevator.getDirection());
+        if (previous != null && previous != elevator.getDirection()) {
+            result.reversals++;
+        }
+    }
+
+    @Override
+    public void onFloorChanged(ElevatorCar elevator, int newFloor) {
+        result.floorsTravelled++;
+    }
+
+    private static int index(Direction direction) {
+        return direction == Direction.UP ? 0 : 1;
+    }
+
+    private static final class Rider {
+        private final Trip trip;
+        private final long arrivedAt;
+        private final boolean measured;
+        private long boardedAt;
+        private ElevatorCar assigned;
+
+        private Rider(Trip trip, long arrivedAt, boolean measured) {
+            this.trip = trip;
+            this.arrivedAt = arrivedAt;
+            this.measured = measured;
+        }
+    }
+}
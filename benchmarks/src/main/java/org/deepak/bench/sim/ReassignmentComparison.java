@@ -0,0 +1,64 @@
+package org.deepak.bench.sim;
+
+import org.deepak.ElevatorSystem;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.dto.dispatcher.EtaDispatchStrategy;
+import org.deepak.dto.dispatcher.HallCallOptimizer;
+import org.deepak.engine.Simulation;
+import org.deepak.enums.ElevatorState;
+import org.deepak.traffic.Trip;
+
+import java.util.List;
+
+// java -cp target/benchmarks.jar org.deepak.bench.sim.ReassignmentComparison [floors] [cars] [passengersPerHour] [hours] [seed]
+// One mixed-traffic trace with the first car in maintenance for the middle half of the run, dispatched once per
+// call, and with a HallCallOptimizer pass every 500 ms moving calls between cars
+public class ReassignmentComparison {
+    private static final long PERIOD_MILLIS = HallCallOptimizer.DEFAULT_PERIOD_MILLIS;
+
+    public static void main(String[] args) {
+        int floors = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int cars = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        double passengersPerHour = args.length > 2 ? Double.parseDouble(args[2]) : 1500;
+        long durationMillis = (args.length > 3 ? Long.parseLong(args[3]) : 2) * 3_600_000L;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+
+        List<Trip> trace = TraceGenerator.mixedTraffic(floors, passengersPerHour, durationMillis, seed);
+        System.out.printf("%d floors, %d cars, %.0f passengers/h over %d h (seed %d), car 1 in maintenance from %d to %d min%n",
+                floors, cars, passengersPerHour, durationMillis / 3_600_000L, seed,
+                durationMillis / 4 / 60_000L, durationMillis * 3 / 4 / 60_000L);
+        System.out.printf("%-9s %-10s %12s %12s %10s %12s%n", "dispatch", "optimizer", "avg wait s", "avg ride s",
+                "unserved", "calls moved");
+        for (int mode = 0; mode < 4; mode++) {
+            boolean eta = mode >= 2;
+            boolean optimized = mode % 2 == 1;
+            ElevatorSystem[] fleet = new ElevatorSystem[1];
+            PassengerSimulator simulator = new PassengerSimulator(cars, floors, seed, controller -> { }, false,
+                    system -> {
+                        fleet[0] = system;
+                        system.setDispatchStrategy(eta ? new EtaDispatchStrategy(system) : null);
+                    });
+            ElevatorSystem system = fleet[0];
+            Simulation simulation = simulator.simulation();
+            ElevatorCar first = system.getControllers().get(0).getElevator();
+            long start = simulation.now();
+            simulation.schedule(start + durationMillis / 4, () -> system.takeOutOfService(first, ElevatorState.MAINTENANCE));
+            simulation.schedule(start + durationMillis * 3 / 4, () -> system.returnToService(first));
+            if (optimized) {
+                repeat(simulation, new HallCallOptimizer(system)::optimize);
+            }
+            SimulationResult result = simulator.run(trace, durationMillis);
+            System.out.printf("%-9s %-10s %12.1f %12.1f %10d %12d%n", eta ? "eta" : "nearest", optimized ? "on" : "off",
+                    result.averageWaitSeconds(), result.averageRideSeconds(), result.unserved,
+                    system.getMetrics().getHallCallsMoved().sum());
+        }
+    }
+
+    // Until the simulator's run ends, which stops the clock
+    private static void repeat(Simulation simulation, Runnable pass) {
+        simulation.scheduleAfter(PERIOD_MILLIS, () -> {
+            pass.run();
+            repeat(simulation, pass);
+        });
+    }
+}
@@ -0,0 +1,40 @@
+package org.deepak.bench.sim;
+
+import org.deepak.dto.scheduler.CLookScheduler;
+import org.deepak.dto.scheduler.LookScheduler;
+import org.deepak.dto.scheduler.ScanScheduler;
+import org.deepak.interfaces.StopScheduler;
+import org.deepak.traffic.Trip;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// java -cp target/benchmarks.jar org.deepak.bench.sim.SchedulerComparison [floors] [cars] [passengersPerHour] [hours] [seed]
+public class SchedulerComparison {
+    public static void main(String[] args) {
+        int floors = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int cars = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        double passengersPerHour = args.length > 2 ? Double.parseDouble(args[2]) : 900;
+        long durationMillis = (args.length > 3 ? Long.parseLong(args[3]) : 4) * 3_600_000L;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+
+        Map<String, Supplier<StopScheduler>> schedulers = new LinkedHashMap<>();
+        schedulers.put("SCAN", ScanScheduler::new);
+        schedulers.put("LOOK", LookScheduler::new);
+        schedulers.put("C-LOOK", CLookScheduler::new);
+
+        List<Trip> trace = TraceGenerator.mixedTraffic(floors, passengersPerHour, durationMillis, seed);
+        System.out.printf("%d floors, %d cars, %d passengers over %d h (seed %d)%n",
+                floors, cars, trace.size(), durationMillis / 3_600_000L, seed);
+        System.out.printf("%-8s %12s %12s %14s %10s %10s%n", "policy", "avg wait s", "avg ride s", "reversals/h", "delivered", "unserved");
+        for (Map.Entry<String, Supplier<StopScheduler>> entry : schedulers.entrySet()) {
+            PassengerSimulator simulator = new PassengerSimulator(cars, floors, seed,
+                    controller -> controller.setScheduler(entry.getValue().get()));
+            SimulationResult result = simulator.run(trace, durationMillis);
+            System.out.printf("%-8s %12.1f %12.1f %14.1f %10d %10d%n", entry.getKey(), result.averageWaitSeconds(),
+                    result.averageRideSeconds(), result.reversalsPerHour(), result.delivered, result.unserved);
+        }
+    }
+}
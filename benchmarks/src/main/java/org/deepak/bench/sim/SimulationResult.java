@@ -0,0 +1,71 @@
+package org.deepak.bench.sim;
+
+final class SimulationResult {
+    long requested;
+    long rejected;
+    long unserved;
+    long boarded;
+    long delivered;
+    long deliveredInWindow;
+    long moves;
+    long floorsTravelled;
+    long reversals;
+    long durationMillis;
+    private long totalWaitMillis;
+    private long totalRideMillis;
+    private final long[] boardedByHour = new long[24];
+    private final long[] waitMillisByHour = new long[24];
+
+    // Also kept per hour of the day the passenger arrived, for traces that follow a daily routine
+    void recordWait(long waitMillis, long arrivalMillis) {
+        boarded++;
+        totalWaitMillis += waitMillis;
+        int hour = (int) (arrivalMillis / 3_600_000L % 24);
+        boardedByHour[hour]++;
+        waitMillisByHour[hour] += waitMillis;
+    }
+
+    void recordRide(long rideMillis, boolean inWindow) {
+        delivered++;
+        if (inWindow) {
+            deliveredInWindow++;
+        }
+        totalRideMillis += rideMillis;
+    }
+
+    double averageWaitSeconds() {
+        return boarded == 0 ? 0 : totalWaitMillis / 1000.0 / boarded;
+    }
+
+    // Hours [fromHour, toHour) of the day
+    double averageWaitSeconds(int fromHour, int toHour) {
+        long count = 0;
+        long waitMillis = 0;
+        for (int hour = fromHour; hour < toHour; hour++) {
+            count += boardedByHour[hour];
+            waitMillis += waitMillisByHour[hour];
+        }
+        return count == 0 ? 0 : waitMillis / 1000.0 / count;
+    }
+
+    double averageRideSeconds() {
+        return delivered == 0 ? 0 : totalRideMillis / 1000.0 / delivered;
+    }
+
+    // Handling capacity: passengers delivered per five minutes while the trace was still arriving
+    double deliveredPerFiveMinutes() {
+        return deliveredInWindow * 300_000.0 / durationMillis;
+    }
+
+    double reversalsPerHour() {
+        return reversals * 3_600_000.0 / durationMillis;
+    }
+
+    double movesPerDelivery() {
+        return delivered == 0 ? 0 : (double) moves / delivered;
+    }
+
+    double floorsPerDelivery() {
+        return delivered == 0 ? 0 : (double) floorsTravelled / delivered;
+    }
+}
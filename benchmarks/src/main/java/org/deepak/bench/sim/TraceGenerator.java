@@ -0,0 +1,113 @@
+package org.deepak.bench.sim;
+
+import org.deepak.traffic.Trip;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Poisson passenger arrivals. Mixed traffic: 40% lobby to upper floors, 30% upper floors to lobby,
+// 30% between upper floors. Up-peak: everyone enters at the lobby. Office days: a daily routine of a morning
+// up-peak, a lunch rush both ways and an evening down-peak over light traffic, repeated day after day.
+final class TraceGenerator {
+    private TraceGenerator() {
+    }
+
+    static List<Trip> mixedTraffic(int floors, double passengersPerHour, long durationMillis, long seed) {
+        Random random = new Random(seed);
+        List<Trip> trips = new ArrayList<>();
+        double meanGapMillis = 3_600_000.0 / passengersPerHour;
+        double time = 0;
+        while (true) {
+            time += -Math.log(1.0 - random.nextDouble()) * meanGapMillis;
+            if (time >= durationMillis) {
+                return trips;
+            }
+            double kind = random.nextDouble();
+            int origin;
+            int destination;
+            if (kind < 0.4) {
+                origin = 1;
+                destination = 2 + random.nextInt(floors - 1);
+            } else if (kind < 0.7) {
+                origin = 2 + random.nextInt(floors - 1);
+                destination = 1;
+            } else {
+                origin = 2 + random.nextInt(floors - 1);
+                do {
+                    destination = 2 + random.nextInt(floors - 1);
+                } while (destination == origin);
+            }
+            trips.add(new Trip((long) time, origin, destination));
+        }
+    }
+
+    static List<Trip> upPeak(int floors, double passengersPerHour, long durationMillis, long seed) {
+        Random random = new Random(seed);
+        List<Trip> trips = new ArrayList<>();
+        double meanGapMillis = 3_600_000.0 / passengersPerHour;
+        double time = 0;
+        while (true) {
+            time += -Math.log(1.0 - random.nextDouble()) * meanGapMillis;
+            if (time >= durationMillis) {
+                return trips;
+            }
+            trips.add(new Trip((long) time, 1, 2 + random.nextInt(floors - 1)));
+        }
+    }
+
+    // Arrival rate as a share of the peak rate, and the shares of lobby-up and down-to-lobby trips, by time of day
+    private static final double[][] OFFICE_DAY = {
+            // from hour, rate, lobby up, down to lobby
+            {0.0, 0.02, 0.3, 0.3},
+            {7.0, 0.3, 0.9, 0.05},
+            {8.0, 1.0, 0.9, 0.05},
+            {9.5, 0.15, 0.4, 0.3},
+            {12.0, 0.5, 0.2, 0.7},
+            {12.75, 0.5, 0.7, 0.2},
+            {13.5, 0.15, 0.4, 0.3},
+            {16.5, 0.8, 0.05, 0.9},
+            {18.5, 0.04, 0.3, 0.5}
+    };
+
+    static List<Trip> officeDays(int floors, double peakPassengersPerHour, int days, long seed) {
+        Random random = new Random(seed);
+        List<Trip> trips = new ArrayList<>();
+        double meanGapMillis = 3_600_000.0 / peakPassengersPerHour;
+        double time = 0;
+        long durationMillis = days * 24 * 3_600_000L;
+        while (true) {
+            time += -Math.log(1.0 - random.nextDouble()) * meanGapMillis;
+            if (time >= durationMillis) {
+                return trips;
+            }
+            double[] period = OFFICE_DAY[0];
+            double hour = time % (24 * 3_600_000.0) / 3_600_000.0;
+            for (double[] candidate : OFFICE_DAY) {
+                if (hour >= candidate[0]) {
+                    period = candidate;
+                }
+            }
+            // Thinning: arrivals at the peak rate, kept in proportion to the rate of the hour
+            if (random.nextDouble() >= period[1]) {
+                continue;
+            }
+            double kind = random.nextDouble();
+            int origin;
+            int destination;
+            if (kind < period[2]) {
+                origin = 1;
+                destination = 2 + random.nextInt(floors - 1);
+            } else if (kind < period[2] + period[3]) {
+                origin = 2 + random.nextInt(floors - 1);
+                destination = 1;
+            } else {
+                origin = 2 + random.nextInt(floors - 1);
+                do {
+                    destination = 2 + random.nextInt(floors - 1);
+                } while (destination == origin);
+            }
+            trips.add(new Trip((long) time, origin, destination));
+        }
+    }
+}
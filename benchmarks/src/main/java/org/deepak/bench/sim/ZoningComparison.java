@@ -0,0 +1,54 @@
+package org.deepak.bench.sim;
+
+import org.deepak.ElevatorSystem;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.traffic.Trip;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+// java -cp target/benchmarks.jar org.deepak.bench.sim.ZoningComparison [floors] [cars] [passengersPerHour] [minutes] [seed]
+// Destination-dispatched up-peak on a tall tower: every car serving every floor, against the fleet split into
+// low, mid and high banks that run express from the lobby to their own zone
+public class ZoningComparison {
+    private static final int BANKS = 3;
+
+    public static void main(String[] args) {
+        int floors = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        int cars = args.length > 1 ? Integer.parseInt(args[1]) : 12;
+        double passengersPerHour = args.length > 2 ? Double.parseDouble(args[2]) : 3000;
+        long durationMillis = (args.length > 3 ? Long.parseLong(args[3]) : 60) * 60_000L;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+
+        List<Trip> trace = TraceGenerator.upPeak(floors, passengersPerHour, durationMillis, seed);
+        System.out.printf("%d floors, %d cars, up-peak of %d passengers over %d min (seed %d)%n",
+                floors, cars, trace.size(), durationMillis / 60_000L, seed);
+        System.out.printf("%-10s %14s %12s %12s %16s %10s%n", "fleet", "per 5 min", "avg wait s", "avg ride s",
+                "moves/delivery", "unserved");
+        report("unzoned", new PassengerSimulator(cars, floors, seed, controller -> { }, true, system -> { })
+                .run(trace, durationMillis));
+        report("zoned", new PassengerSimulator(cars, floors, seed, controller -> { }, true, zoned(floors))
+                .run(trace, durationMillis));
+    }
+
+    // Car i joins bank i % BANKS; each bank serves the lobby and an equal run of floors above it
+    private static Consumer<ElevatorSystem> zoned(int floors) {
+        return system -> {
+            List<ElevatorCar> elevators = system.getBuilding().getElevators();
+            int zoneSize = (floors - 1 + BANKS - 1) / BANKS;
+            for (int i = 0; i < elevators.size(); i++) {
+                int bank = i % BANKS;
+                BitSet served = new BitSet(floors + 1);
+                served.set(1);
+                served.set(2 + bank * zoneSize, Math.min(floors, 1 + (bank + 1) * zoneSize) + 1);
+                system.setServedFloors(elevators.get(i), served);
+            }
+        };
+    }
+
+    private static void report(String fleet, SimulationResult result) {
+        System.out.printf("%-10s %14.1f %12.1f %12.1f %16.2f %10d%n", fleet, result.deliveredPerFiveMinutes(),
+                result.averageWaitSeconds(), result.averageRideSeconds(), result.movesPerDelivery(), result.unserved);
+    }
+}
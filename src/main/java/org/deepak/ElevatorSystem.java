@@ -1,49 +1,294 @@
 package org.deepak;
 
+import org.deepak.actor.CarActor;
 import org.deepak.dto.Building;
 import org.deepak.dto.ElevatorCar;
 import org.deepak.dto.ElevatorController;
+import org.deepak.dto.dispatcher.DemandModel;
+import org.deepak.dto.dispatcher.ElevatorScore;
+import org.deepak.dto.dispatcher.FleetIndex;
+import org.deepak.dto.dispatcher.HallCallIntake;
+import org.deepak.dto.dispatcher.ParkingPlanner;
+import org.deepak.engine.MotionEngine;
+import org.deepak.events.EventBus;
+import org.deepak.enums.JournalRecordType;
+import org.deepak.journal.JournalState;
+import org.deepak.journal.TripJournal;
 import org.deepak.enums.Direction;
 import org.deepak.enums.ElevatorState;
+import org.deepak.interfaces.Clock;
+import org.deepak.interfaces.DispatchStrategy;
+import org.deepak.metrics.ElevatorMetrics;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+// One building's fleet. Any number of systems can run side by side in a process; they can share a motion engine
+// and an event bus, and keep their own building, dispatch, intake thread and journal.
 public class ElevatorSystem {
+    private final String name;
     private final List<ElevatorController> controllers = new CopyOnWriteArrayList<>();
     private final Building building;
+    private volatile MotionEngine motionEngine;
+    private volatile HallCallIntake hallCallIntake;
+    private volatile FleetIndex fleetIndex = new FleetIndex();
+    private volatile DispatchStrategy dispatchStrategy; // Null dispatches through the fleet index
+    private final EventBus eventBus;
+    private volatile TripJournal journal;
+    private final DemandModel demandModel = new DemandModel();
+    private volatile ParkingPlanner parkingPlanner;
+    private volatile boolean actorMode;
+    private final ElevatorMetrics metrics = new ElevatorMetrics();
 
-    private ElevatorSystem() {
-        this.building = Building.getInstance();
+    public ElevatorSystem() {
+        this("default");
+    }
+
+    // On the process-wide motion engine, with an event bus of its own
+    public ElevatorSystem(String name) {
+        this(name, MotionEngine.getInstance());
+    }
+
+    // Simulated engines get an inline bus, so observers keep up with simulated time
+    public ElevatorSystem(String name, MotionEngine motionEngine) {
+        this(name, motionEngine, motionEngine.isRealtime() ? new EventBus() : EventBus.inline());
+    }
+
+    public ElevatorSystem(String name, MotionEngine motionEngine, EventBus eventBus) {
+        this.name = name;
+        this.motionEngine = motionEngine;
+        this.eventBus = eventBus;
+        this.building = new Building(this);
+        building.getDisplayBoard().setClock(motionEngine.getClock());
+        metrics.getRegistry().gauge(ElevatorMetrics.QUEUE_DEPTH, this::queueDepth);
+        metrics.getRegistry().gauge(ElevatorMetrics.INTAKE_BACKLOG,
+                () -> hallCallIntake == null ? 0 : hallCallIntake.getBacklog());
+    }
+
+    public String getName() {
+        return name;
     }
 
     public Building getBuilding() {
         return building;
     }
 
-    private static volatile ElevatorSystem system = null;
+    public MotionEngine getMotionEngine() {
+        return motionEngine;
+    }
+
+    // Switches the system onto another engine, e.g. Simulation.getMotionEngine() for accelerated replay
+    // Cars are bound to the engine they were created on, so switching engines starts an empty fleet
+    public void setMotionEngine(MotionEngine motionEngine) {
+        releaseFleet();
+        this.motionEngine = motionEngine;
+        journalFleetReset();
+        building.getDisplayBoard().setClock(motionEngine.getClock());
+    }
+
+    // Tears the site down on a shared engine: queued hall calls are still dispatched, then the actors stop and
+    // every car gives its engine slot back. The system can be given new cars afterwards.
+    public synchronized void close() {
+        HallCallIntake intake = hallCallIntake;
+        if (intake != null) {
+            hallCallIntake = null;
+            intake.shutdown();
+        }
+        actorMode = false;
+        releaseFleet();
+        journalFleetReset();
+    }
+
+    private void releaseFleet() {
+        for (ElevatorController controller : controllers) {
+            stopActor(controller);
+        }
+        List<ElevatorCar> released = building.getElevators();
+        for (ElevatorController controller : controllers) {
+            controller.getElevator().release();
+        }
+        for (ElevatorCar elevator : released) {
+            elevator.release();
+            eventBus.stopObserving(elevator);
+        }
+        controllers.clear();
+        building.setElevators(new ArrayList<>());
+        metrics.unregisterCars();
+        fleetIndex = new FleetIndex();
+        building.getDisplayBoard().clear();
+    }
+
+    public List<ElevatorController> getControllers() {
+        return controllers;
+    }
+
+    public FleetIndex getFleetIndex() {
+        return fleetIndex;
+    }
+
+    public DispatchStrategy getDispatchStrategy() {
+        DispatchStrategy strategy = dispatchStrategy;
+        return strategy != null ? strategy : fleetIndex;
+    }
+
+    // Picks the car for every hall and destination call, e.g. an EtaDispatchStrategy; null goes back to the
+    // nearest-car scoring of the fleet index
+    public void setDispatchStrategy(DispatchStrategy dispatchStrategy) {
+        this.dispatchStrategy = dispatchStrategy;
+    }
+
+    // Subscribe here to receive elevator events on a thread of your own, away from the motion path
+    public EventBus getEventBus() {
+        return eventBus;
+    }
+
+    public TripJournal getJournal() {
+        return journal;
+    }
+
+    // Starts recording every call, assignment and car movement; null stops recording
+    public void setJournal(TripJournal journal) {
+        this.journal = journal;
+        journalFleetReset();
+        for (ElevatorController controller : controllers) {
+            journalElevator(controller.getElevator());
+            controller.setJournal(journal);
+        }
+    }
+
+    // Learns from every hall call dispatched in this building, whether or not parking is switched on
+    public DemandModel getDemandModel() {
+        return demandModel;
+    }
+
+    public ParkingPlanner getParkingPlanner() {
+        return parkingPlanner;
+    }
+
+    // Idle cars are sent to the floors the demand model expects to be busiest; null leaves them where they stop
+    public void setParkingPlanner(ParkingPlanner parkingPlanner) {
+        this.parkingPlanner = parkingPlanner;
+        for (ElevatorController controller : controllers) {
+            controller.setParkingPlanner(parkingPlanner);
+            controller.processRequests();
+        }
+    }
+
+    // Wait, ride and dispatch times and fleet counters, always recorded; serve them with a MetricsExporter
+    public ElevatorMetrics getMetrics() {
+        return metrics;
+    }
+
+    private double queueDepth() {
+        int stops = 0;
+        for (ElevatorController controller : controllers) {
+            stops += controller.getPendingStops();
+        }
+        return stops;
+    }
+
+    public boolean isActorMode() {
+        return actorMode;
+    }
+
+    // Runs every car as an actor on a virtual thread of its own: motion events and the work a new call sets off
+    // are queued to the car and handled in order there, off the tick thread and off the callers' threads.
+    // Meant for real-time engines; a Simulation advances its clock without waiting for the actors.
+    public synchronized void startActors() {
+        actorMode = true;
+        for (ElevatorController controller : controllers) {
+            startActor(controller);
+        }
+    }
+
+    // Back to handling events in line; whatever the actors still had queued is handled before this returns
+    public synchronized void stopActors() {
+        actorMode = false;
+        for (ElevatorController controller : controllers) {
+            stopActor(controller);
+        }
+    }
+
+    private void startActor(ElevatorController controller) {
+        if (controller.getActor() == null) {
+            CarActor actor = new CarActor(controller.getElevator());
+            controller.setActor(actor);
+            actor.start();
+        }
+    }
 
-    public static ElevatorSystem getInstance() {
-        if (system == null) {
-            synchronized (ElevatorSystem.class) {
-                if (system == null) {
-                    system = new ElevatorSystem();
+    private void stopActor(ElevatorController controller) {
+        CarActor actor = controller.getActor();
+        if (actor != null) {
+            controller.setActor(null);
+            actor.stop();
+        }
+    }
+
+    public Clock getClock() {
+        return motionEngine.getClock();
+    }
+
+    public HallCallIntake getHallCallIntake() {
+        if (hallCallIntake == null) {
+            synchronized (this) {
+                if (hallCallIntake == null) {
+                    hallCallIntake = new HallCallIntake(this);
                 }
             }
         }
-        return system;
+        return hallCallIntake;
+    }
+
+    public ElevatorCar createElevatorCar() {
+        return new ElevatorCar(motionEngine);
     }
+
     public ElevatorCar selectBestElevatorCar(int destinationFloor, Direction direction) {
+        long start = System.nanoTime();
+        ElevatorCar bestElevator = getDispatchStrategy().select(destinationFloor, direction, -1);
+        recordDispatch(start, bestElevator);
+        if (bestElevator == null) {
+            throw new RuntimeException("No available elevator for request");
+        }
+        return bestElevator;
+    }
+
+    // Only cars serving both the call floor and the passenger's destination are considered
+    public ElevatorCar selectBestElevatorCar(int originFloor, Direction direction, int destinationFloor) {
+        long start = System.nanoTime();
+        ElevatorCar bestElevator = getDispatchStrategy().select(originFloor, direction, destinationFloor);
+        recordDispatch(start, bestElevator);
+        if (bestElevator == null) {
+            throw new RuntimeException("No available elevator for request");
+        }
+        return bestElevator;
+    }
+
+    private void recordDispatch(long start, ElevatorCar bestElevator) {
+        metrics.getDispatchLatency().record(System.nanoTime() - start);
+        if (bestElevator == null) {
+            metrics.getNoCarAvailable().increment();
+        }
+    }
+
+    // Scores every car in the building; kept as the reference the fleet index is measured against
+    public ElevatorCar scanBestElevatorCar(int destinationFloor, Direction direction) {
         ElevatorCar bestElevator = null;
         int bestScore = Integer.MAX_VALUE;
         
         for (ElevatorCar elevator : building.getElevators()) {
             if (elevator.getState() == ElevatorState.OUT_OF_SERVICE || 
                 elevator.getState() == ElevatorState.MAINTENANCE ||
-                !elevator.hasCapacity()) {
+                !elevator.servesCall(destinationFloor, direction) ||
+                !elevator.hasCapacity() ||
+                !elevator.getController().canTakeHallCall(destinationFloor, direction)) {
                 continue;
             }
             
-            int score = calculateElevatorScore(elevator, destinationFloor, direction);
+            int score = ElevatorScore.calculate(elevator.getCurrentFloorNumber(), elevator.getState(),
+                    elevator.getDirection(), elevator.getCurrentLoad(), destinationFloor, direction);
             if (score < bestScore) {
                 bestScore = score;
                 bestElevator = elevator;
@@ -56,35 +301,121 @@ public class ElevatorSystem {
         
         return bestElevator;
     }
-    
-    private int calculateElevatorScore(ElevatorCar elevator, int destinationFloor, Direction direction) {
-        int currentFloor = elevator.getCurrentFloorNumber();
-        int distance = Math.abs(destinationFloor - currentFloor);
-        int score = distance;
-        
-        // Prefer idle elevators
-        if (elevator.getState() == ElevatorState.IDLE) {
-            score -= 50;
+
+    public void addElevator(ElevatorCar elevator) {
+        ElevatorController controller = new ElevatorController(elevator);
+        controller.setBuilding(building);
+        controller.setEventBus(eventBus);
+        journalElevator(elevator);
+        controller.setJournal(journal);
+        controller.setParkingPlanner(parkingPlanner);
+        controller.setMetrics(metrics);
+        metrics.registerCar(elevator, motionEngine.getClock());
+        controllers.add(controller);
+        // setBuilding has the controller update both in line with every state and floor change
+        fleetIndex.register(elevator);
+        building.getDisplayBoard().register(elevator);
+        if (actorMode) {
+            startActor(controller);
         }
-        
-        // Prefer elevators moving in same direction and can serve the request
-        if (elevator.getDirection() == direction) {
-            if ((direction == Direction.UP && currentFloor <= destinationFloor) ||
-                (direction == Direction.DOWN && currentFloor >= destinationFloor)) {
-                score -= 30;
+    }
+
+    // The car takes no new calls from now on and hands its hall calls to the rest of the fleet; it goes to the
+    // given state (MAINTENANCE or OUT_OF_SERVICE) once its riders and bookings are served
+    public void takeOutOfService(ElevatorCar elevator, ElevatorState state) {
+        elevator.getController().takeOutOfService(state);
+    }
+
+    public void returnToService(ElevatorCar elevator) {
+        elevator.getController().returnToService();
+    }
+
+    // Rezones a car that is already running; its pending stops outside the new zone are still served
+    public void setServedFloors(ElevatorCar elevator, BitSet servedFloors) {
+        elevator.setFloorPanel(servedFloors);
+        fleetIndex.updateServedFloors(elevator);
+        journalServedFloors(elevator);
+    }
+
+    // Builds the building and one car per recovered car, in the recovered order, and resumes their pending stops.
+    // Meant for a system with no cars yet, e.g. on startup after SystemSnapshot.recover.
+    public List<ElevatorCar> restore(int floorCount, JournalState state) {
+        List<ElevatorCar> elevators = new ArrayList<>();
+        for (JournalState.CarState car : state.getCars()) {
+            ElevatorCar elevator = createElevatorCar();
+            elevator.restore(car.getFloor(), car.getDirection(), car.getState(), car.getLoad());
+            elevators.add(elevator);
+        }
+        building.setElevators(elevators);
+        building.setFloor(floorCount);
+        List<JournalState.CarState> cars = state.getCars();
+        for (int i = 0; i < elevators.size(); i++) {
+            ElevatorCar elevator = elevators.get(i);
+            // A zoned or express car comes back with its own floors; the others serve the whole building
+            BitSet served = cars.get(i).getServedFloors();
+            if (served.isEmpty()) {
+                elevator.setFloorPanel(floorCount);
+            } else {
+                elevator.setFloorPanel(served);
             }
+            addElevator(elevator);
+            restoreHallButtons(elevator, cars.get(i));
         }
-        
-        // Consider load factor
-        score += (elevator.getCurrentLoad() * 5);
-        
-        return score;
+        for (int i = 0; i < elevators.size(); i++) {
+            elevators.get(i).getController().restoreState(cars.get(i));
+        }
+        return elevators;
     }
 
-    public void addElevator(ElevatorCar elevator) {
-        ElevatorController controller = new ElevatorController(elevator);
-        controllers.add(controller);
+    // Destination bookings have no hall button; every other recovered hall call lights its button again
+    private void restoreHallButtons(ElevatorCar elevator, JournalState.CarState car) {
+        BitSet up = (BitSet) car.getUpHallCalls().clone();
+        BitSet down = (BitSet) car.getDownHallCalls().clone();
+        for (int i = 0; i < car.getBookingCount(); i++) {
+            int origin = car.getBookingOrigin(i);
+            (car.getBookingDestination(i) > origin ? up : down).clear(origin);
+        }
+        int floors = building.getFloors().size();
+        for (int floor = up.nextSetBit(1); floor >= 1 && floor <= floors; floor = up.nextSetBit(floor + 1)) {
+            building.getFloor(floor).getPanel().restoreCall(Direction.UP, elevator);
+        }
+        for (int floor = down.nextSetBit(1); floor >= 1 && floor <= floors; floor = down.nextSetBit(floor + 1)) {
+            building.getFloor(floor).getPanel().restoreCall(Direction.DOWN, elevator);
+        }
+    }
+
+    private void journalFleetReset() {
+        TripJournal current = journal;
+        if (current != null) {
+            current.append(JournalRecordType.FLEET_RESET, getClock().millis(), 0, 0, 0, null, null);
+        }
     }
 
+    private void journalElevator(ElevatorCar elevator) {
+        TripJournal current = journal;
+        if (current != null) {
+            current.append(JournalRecordType.ELEVATOR_ADDED, getClock().millis(), elevator.getId(),
+                    elevator.getCurrentFloorNumber(), elevator.getCapacity(), elevator.getDirection(), elevator.getState());
+        }
+        journalServedFloors(elevator);
+    }
 
+    // One record per 32 floors, the first starting the set over; a car without a floor panel yet writes it empty
+    private void journalServedFloors(ElevatorCar elevator) {
+        TripJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        BitSet served = elevator.getElevatorPanel().getServedFloors();
+        long now = getClock().millis();
+        int from = 0;
+        do {
+            int bits = 0;
+            for (int floor = served.nextSetBit(from); floor >= 0 && floor < from + 32; floor = served.nextSetBit(floor + 1)) {
+                bits |= 1 << (floor - from);
+            }
+            current.append(JournalRecordType.SERVED_FLOORS, now, elevator.getId(), from, bits, null, null);
+            from += 32;
+        } while (from < served.length());
+    }
 }
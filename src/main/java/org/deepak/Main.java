@@ -1,49 +1,146 @@
 package org.deepak;
 
-import org.deepak.dto.Building;
-import org.deepak.dto.ElevatorCar;
-
-import org.deepak.enums.Direction;
+import org.deepak.enums.TrafficProfile;
+import org.deepak.traffic.LoadReport;
+import org.deepak.traffic.LoadRunner;
+import org.deepak.traffic.OriginDestinationMatrix;
+import org.deepak.traffic.TrafficGenerator;
+import org.deepak.traffic.Trip;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
 
+// Load-test driver: generates a traffic profile and runs it against a fresh fleet, then prints a summary report
 public class Main {
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
-    
+    private static final String USAGE = String.join("\n",
+            "usage: Main [options]",
+            "  --profile up-peak|down-peak|lunch|interfloor   traffic pattern (default up-peak)",
+            "  --floors N          floors, lobby is floor 1 (default 20)",
+            "  --cars N            cars (default 4)",
+            "  --rate N            passengers per hour (default 1200)",
+            "  --minutes N         minutes of arrivals (default 60)",
+            "  --seed N            random seed (default 42)",
+            "  --mode simulated|threads   simulation clock, or real time from caller threads (default simulated)",
+            "  --threads N         caller threads in threads mode (default 4)",
+            "  --speedup N         how much faster than real time threads mode runs (default 20)",
+            "  --dispatch nearest|eta   nearest car by score, or least estimated time to arrival (default nearest)",
+            "  --actors            run every car on a virtual thread of its own in threads mode",
+            "  --json              write the report as JSON",
+            "  --out FILE          write the report to a file as well as standard output");
+
     public static void main(String[] args) {
-        ElevatorSystem elevatorSystem = ElevatorSystem.getInstance();
-        Building building = elevatorSystem.getBuilding();
-        ElevatorCar inputElevatorCar1 = new ElevatorCar();
-        logger.info("Created elevator with ID: {}", inputElevatorCar1.getId());
-        ElevatorCar inputElevatorCar2 = new ElevatorCar();
-        logger.info("Created elevator with ID: {}", inputElevatorCar2.getId());
-        building.setElevators(Arrays.asList(inputElevatorCar1,inputElevatorCar2));
-        building.setFloor(4);
-        
-        inputElevatorCar1.setFloorPanel(4);
-        inputElevatorCar2.setFloorPanel(4);
-        
-        // Register elevators with system
-        elevatorSystem.addElevator(inputElevatorCar1);
-        elevatorSystem.addElevator(inputElevatorCar2);
+        TrafficProfile profile = TrafficProfile.UP_PEAK;
+        int floors = 20;
+        int cars = 4;
+        double rate = 1200;
+        long minutes = 60;
+        long seed = 42L;
+        boolean threaded = false;
+        int threads = 4;
+        double speedup = 20;
+        boolean actors = false;
+        boolean eta = false;
+        boolean json = false;
+        Path out = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--profile":
+                        profile = TrafficProfile.valueOf(value(args, ++i).toUpperCase(Locale.ROOT).replace('-', '_'));
+                        break;
+                    case "--floors":
+                        floors = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--cars":
+                        cars = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--rate":
+                        rate = Double.parseDouble(value(args, ++i));
+                        break;
+                    case "--minutes":
+                        minutes = Long.parseLong(value(args, ++i));
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value(args, ++i));
+                        break;
+                    case "--mode":
+                        String mode = value(args, ++i);
+                        if (!mode.equals("simulated") && !mode.equals("threads")) {
+                            throw new IllegalArgumentException("Unknown mode: " + mode);
+                        }
+                        threaded = mode.equals("threads");
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--speedup":
+                        speedup = Double.parseDouble(value(args, ++i));
+                        break;
+                    case "--dispatch":
+                        String dispatch = value(args, ++i);
+                        if (!dispatch.equals("nearest") && !dispatch.equals("eta")) {
+                            throw new IllegalArgumentException("Unknown dispatch: " + dispatch);
+                        }
+                        eta = dispatch.equals("eta");
+                        break;
+                    case "--actors":
+                        actors = true;
+                        break;
+                    case "--json":
+                        json = true;
+                        break;
+                    case "--out":
+                        out = Path.of(value(args, ++i));
+                        break;
+                    case "--help":
+                        System.out.println(USAGE);
+                        return;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (minutes <= 0) {
+                throw new IllegalArgumentException("Minutes must be positive: " + minutes);
+            }
 
+            long durationMillis = minutes * 60_000L;
+            List<Trip> trips = new TrafficGenerator(OriginDestinationMatrix.of(profile, floors), rate)
+                    .generate(durationMillis, seed);
+            String description = String.format(Locale.ROOT, "%s, %d floors, %d cars, %.0f passengers/h for %d min (seed %d), %s dispatch, %s",
+                    profile, floors, cars, rate, minutes, seed, eta ? "eta" : "nearest",
+                    threaded ? threads + " caller threads at " + speedup + "x" + (actors ? " with car actors" : "") : "simulated");
+            logger.info("Running {} passengers: {}", trips.size(), description);
+            LoadRunner runner = new LoadRunner(floors, cars);
+            runner.setEtaDispatch(eta);
+            LoadReport report = threaded ? runner.drive(description, trips, durationMillis, threads, speedup, actors)
+                    : runner.simulate(description, trips, durationMillis);
 
-        logger.info("=== Testing Elevator System ===");
-        logger.info("1st request: Floor 2 calling UP");
-        ElevatorCar elevator1 = building.getFloor(2).getPanel().pressButton(Direction.UP);
-        if (elevator1 != null) {
-            logger.info("Inside elevator, pressing floor 4 button");
-            elevator1.pressFloorButton(4);
+            String text = json ? report.toJson() + "\n" : report.toText();
+            System.out.print(text);
+            if (out != null) {
+                Files.write(out, text.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        } catch (IOException e) {
+            logger.error("Could not write the report to {}: {}", out, e.getMessage());
+            System.exit(1);
         }
-        logger.info("2nd request: Floor 1 calling UP");
-        ElevatorCar elevator2 = building.getFloor(1).getPanel().pressButton(Direction.UP);
-        try {
-            Thread.sleep(5000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
         }
-        logger.info("=== System Test Complete ===");
+        return args[index];
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,200 @@
+package org.deepak.actor;
+
+import lombok.Getter;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.enums.ActorMessageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// One car's event loop on a virtual thread of its own. Motion events from the engine and the wake-up after a new
+// call are queued in the car's mailbox and handled strictly in order here, so stops, boarding and next-move
+// decisions never run on the tick thread or on another car's thread, and a slow car holds up only itself.
+// Posting never waits: floor crossings fold into the latest floor reached, and a message that finds the mailbox
+// full goes to a small overflow, handled in order once the mailbox has been emptied.
+public class CarActor {
+    private static final Logger logger = LoggerFactory.getLogger(CarActor.class);
+    public static final int DEFAULT_MAILBOX_CAPACITY = 256;
+
+    private final ElevatorCar elevator;
+    private final CarMailbox mailbox;
+    private final Thread thread;
+    private final AtomicBoolean processingQueued = new AtomicBoolean();
+    private final AtomicLong mailboxFull = new AtomicLong();
+    private final AtomicInteger reachedFloor = new AtomicInteger(); // Latest FLOOR_REACHED not yet handled, 0 if none
+    private final ArrayDeque<Overflowed> overflow = new ArrayDeque<>(); // Guarded by itself
+    private volatile boolean overflowing; // While set, new messages queue behind the overflow
+    private volatile boolean running = true;
+    private volatile boolean parked;
+    @Getter
+    private volatile long processed;
+
+    public CarActor(ElevatorCar elevator) {
+        this(elevator, DEFAULT_MAILBOX_CAPACITY);
+    }
+
+    public CarActor(ElevatorCar elevator, int mailboxCapacity) {
+        this.elevator = elevator;
+        this.mailbox = new CarMailbox(mailboxCapacity);
+        this.thread = Thread.ofVirtual().name("car-" + elevator.getId()).unstarted(this::run);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public boolean isActorThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Times a sender found the mailbox full and left its message in the overflow
+    public long getMailboxFull() {
+        return mailboxFull.get();
+    }
+
+    // Never waits. False once the actor has stopped; the sender then handles the event itself. An event queued
+    // just as the actor stops may have missed stop()'s drain, so the sender drains it, in order, before returning.
+    public boolean post(ActorMessageType type, int floor) {
+        if (!running) {
+            return false;
+        }
+        if (type == ActorMessageType.FLOOR_REACHED) {
+            // The car only needs the floor it is at now; a crossing it had not got to yet is superseded
+            reachedFloor.set(floor);
+        } else if (overflowing || !mailbox.offer(type, floor)) {
+            spill(type, floor);
+        }
+        if (!running) {
+            finish();
+            return true;
+        }
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    private void spill(ActorMessageType type, int floor) {
+        synchronized (overflow) {
+            if (overflowing || !mailbox.offer(type, floor)) {
+                overflow.add(new Overflowed(type, floor));
+                if (!overflowing) {
+                    overflowing = true;
+                    mailboxFull.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    // At most one wake-up is queued at a time; every call registered before it runs is picked up by it
+    public boolean requestProcessing() {
+        if (!running) {
+            return false;
+        }
+        if (!processingQueued.compareAndSet(false, true)) {
+            return true;
+        }
+        if (post(ActorMessageType.PROCESS_REQUESTS, 0)) {
+            return true;
+        }
+        processingQueued.set(false);
+        return false;
+    }
+
+    // Waits for the loop to finish, then handles whatever was still queued on the calling thread. The car's
+    // controller should already have been detached from this actor, or those messages come straight back.
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        finish();
+    }
+
+    private void finish() {
+        if (!isActorThread() && thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        drain();
+    }
+
+    private void run() {
+        while (running) {
+            if (!handleNext()) {
+                parked = true;
+                if (mailbox.isEmpty() && reachedFloor.get() == 0 && !overflowing && running) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+            }
+        }
+    }
+
+    private synchronized void drain() {
+        while (handleNext()) {
+            // Handled in order until empty
+        }
+    }
+
+    // A floor crossing comes before anything queued: the mailbox is read first, so an arrival seen there is
+    // handled only after the crossings posted ahead of it
+    private boolean handleNext() {
+        ActorMessageType type = mailbox.peekType();
+        int floor = reachedFloor.getAndSet(0);
+        if (floor != 0) {
+            type = ActorMessageType.FLOOR_REACHED;
+        } else if (type != null) {
+            floor = mailbox.peekFloor();
+            mailbox.remove();
+        } else {
+            Overflowed next = pollOverflow();
+            if (next == null) {
+                return false;
+            }
+            type = next.type();
+            floor = next.floor();
+        }
+        try {
+            switch (type) {
+                case PROCESS_REQUESTS -> {
+                    processingQueued.set(false);
+                    elevator.getController().processRequests();
+                }
+                case FLOOR_REACHED -> elevator.onFloorReached(floor);
+                case ARRIVED -> elevator.onArrived(floor);
+                case DOOR_TIMER -> elevator.onDoorTimer(floor);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Elevator #{} failed handling {}: {}", elevator.getId(), type, e.getMessage());
+        }
+        processed++;
+        return true;
+    }
+
+    private Overflowed pollOverflow() {
+        if (!overflowing) {
+            return null;
+        }
+        synchronized (overflow) {
+            Overflowed next = overflow.poll();
+            if (overflow.isEmpty()) {
+                overflowing = false;
+            }
+            return next;
+        }
+    }
+
+    private record Overflowed(ActorMessageType type, int floor) {
+    }
+}
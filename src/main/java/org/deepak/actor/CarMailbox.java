@@ -0,0 +1,73 @@
+package org.deepak.actor;
+
+import org.deepak.enums.ActorMessageType;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded multi-producer / single-consumer ring of primitive messages: a type and a floor per slot
+class CarMailbox {
+    private static final ActorMessageType[] TYPES = ActorMessageType.values();
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final int[] types;
+    private final int[] floors;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    CarMailbox(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Mailbox capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.types = new int[capacity];
+        this.floors = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(ActorMessageType type, int floor) {
+        long position;
+        while (true) {
+            position = tail.get();
+            long difference = sequences.get((int) position & mask) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+        int index = (int) position & mask;
+        types[index] = type.ordinal();
+        floors[index] = floor;
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    // Type of the next message, or null when empty; its floor is read with peekFloor before calling remove
+    ActorMessageType peekType() {
+        int index = (int) head & mask;
+        return sequences.get(index) == head + 1 ? TYPES[types[index]] : null;
+    }
+
+    int peekFloor() {
+        return floors[(int) head & mask];
+    }
+
+    void remove() {
+        int index = (int) head & mask;
+        sequences.lazySet(index, head + capacity);
+        head++;
+    }
+
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+}
@@ -0,0 +1,309 @@
+package org.deepak.cluster;
+
+import lombok.Getter;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ShardMessageType;
+import org.deepak.interfaces.ShardTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Front door of a campus split into zones, each zone's fleet owned by one shard node. A call goes to the shard
+// owning its zone; a trip between zones is booked as one leg per zone, changing cars at the shared sky lobby.
+// Membership is copy-on-write, so routing never locks; a call that reaches a shard which has just given up its
+// zone is bounced back and routed again against the current owners.
+public class CampusDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(CampusDispatcher.class);
+    public static final String DEFAULT_NODE_ID = "campus-dispatcher";
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Getter
+    private final String nodeId;
+    private final ShardTransport transport;
+    private volatile Membership membership = new Membership(new CampusZone[0], new String[0], 0);
+    private final Map<Long, PendingCall> pending = new ConcurrentHashMap<>();
+    private final AtomicLong callIds = new AtomicLong();
+    private final AtomicLong reroutes = new AtomicLong();
+
+    public CampusDispatcher(ShardTransport transport) {
+        this(DEFAULT_NODE_ID, transport);
+    }
+
+    public CampusDispatcher(String nodeId, ShardTransport transport) {
+        this.nodeId = nodeId;
+        this.transport = transport;
+        transport.bind(nodeId, this::onReply);
+    }
+
+    // Adds the zone, or hands an existing zone to another node. Zones may only share their end floors.
+    public synchronized void join(CampusZone zone, String ownerNodeId) {
+        Membership current = membership;
+        List<CampusZone> zones = new ArrayList<>(Arrays.asList(current.zones));
+        List<String> owners = new ArrayList<>(Arrays.asList(current.owners));
+        int index = current.indexOf(zone.getZoneId());
+        if (index >= 0) {
+            zones.remove(index);
+            owners.remove(index);
+        }
+        for (CampusZone other : zones) {
+            int overlap = Math.min(other.getHighestFloor(), zone.getHighestFloor())
+                    - Math.max(other.getLowestFloor(), zone.getLowestFloor());
+            if (overlap > 0) {
+                throw new IllegalArgumentException("Zone " + zone + " overlaps " + other);
+            }
+        }
+        zones.add(zone);
+        owners.add(ownerNodeId);
+        membership = sorted(zones, owners, current.epoch + 1);
+        logger.info("Zone {} owned by {}", zone, ownerNodeId);
+    }
+
+    // The node's zones stay on the campus with no owner; their calls fail until another node joins for them
+    public synchronized void leave(String ownerNodeId) {
+        Membership current = membership;
+        String[] owners = current.owners.clone();
+        boolean changed = false;
+        for (int i = 0; i < owners.length; i++) {
+            if (ownerNodeId.equals(owners[i])) {
+                owners[i] = null;
+                changed = true;
+                logger.info("Zone {} has no owner after {} left", current.zones[i], ownerNodeId);
+            }
+        }
+        if (changed) {
+            membership = new Membership(current.zones, owners, current.epoch + 1);
+        }
+    }
+
+    public synchronized void removeZone(String zoneId) {
+        Membership current = membership;
+        int index = current.indexOf(zoneId);
+        if (index < 0) {
+            return;
+        }
+        List<CampusZone> zones = new ArrayList<>(Arrays.asList(current.zones));
+        List<String> owners = new ArrayList<>(Arrays.asList(current.owners));
+        zones.remove(index);
+        owners.remove(index);
+        membership = sorted(zones, owners, current.epoch + 1);
+    }
+
+    public List<CampusZone> getZones() {
+        return Collections.unmodifiableList(Arrays.asList(membership.zones));
+    }
+
+    public String getOwner(String zoneId) {
+        Membership current = membership;
+        int index = current.indexOf(zoneId);
+        return index < 0 ? null : current.owners[index];
+    }
+
+    // Bumped by every join, leave and removal
+    public long getEpoch() {
+        return membership.epoch;
+    }
+
+    public long getReroutes() {
+        return reroutes.get();
+    }
+
+    public int getPendingCalls() {
+        return pending.size();
+    }
+
+    public CompletableFuture<ShardAssignment> submitHallCall(int floor, Direction direction) {
+        CampusZone zone = membership.zoneServing(floor, direction);
+        if (zone == null) {
+            throw new IllegalArgumentException("No zone serves floor " + floor + " going " + direction);
+        }
+        return send(ShardMessage.hallCall(callIds.incrementAndGet(), nodeId, zone.getZoneId(), floor, direction));
+    }
+
+    // One assignment per zone travelled through, in travel order. The whole route is worked out before anything
+    // is sent; then every leg is booked straight away, so the connecting car is already heading for the sky lobby
+    // when the passenger gets there. If any leg fails, the legs already booked are cancelled and the call fails.
+    public CompletableFuture<List<ShardAssignment>> submitDestinationCall(int originFloor, int destinationFloor) {
+        if (originFloor < 1 || destinationFloor < 1 || originFloor == destinationFloor) {
+            throw new IllegalArgumentException("Invalid destination call: " + originFloor + " -> " + destinationFloor);
+        }
+        Membership current = membership;
+        Direction direction = destinationFloor > originFloor ? Direction.UP : Direction.DOWN;
+        List<ShardMessage> route = new ArrayList<>();
+        int from = originFloor;
+        while (from != destinationFloor) {
+            CampusZone zone = current.zoneServing(from, direction);
+            if (zone == null) {
+                throw new IllegalArgumentException("No route from floor " + originFloor + " to " + destinationFloor);
+            }
+            int to = zone.contains(destinationFloor) ? destinationFloor
+                    : direction == Direction.UP ? zone.getHighestFloor() : zone.getLowestFloor();
+            route.add(ShardMessage.destinationCall(callIds.incrementAndGet(), nodeId, zone.getZoneId(), from, to));
+            from = to;
+        }
+        List<CompletableFuture<ShardAssignment>> legs = new ArrayList<>(route.size());
+        for (ShardMessage leg : route) {
+            legs.add(send(leg));
+        }
+        return CompletableFuture.allOf(legs.toArray(new CompletableFuture<?>[0])).handle((ignored, error) -> {
+            List<ShardAssignment> assignments = new ArrayList<>(legs.size());
+            Throwable failure = null;
+            for (CompletableFuture<ShardAssignment> leg : legs) {
+                try {
+                    assignments.add(leg.join());
+                } catch (CompletionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                }
+            }
+            if (failure == null) {
+                return assignments;
+            }
+            for (ShardAssignment booked : assignments) {
+                cancel(booked);
+            }
+            throw new CompletionException(failure);
+        });
+    }
+
+    public void shutdown() {
+        transport.unbind(nodeId);
+        for (PendingCall call : pending.values()) {
+            call.future.completeExceptionally(new IllegalStateException("Campus dispatcher is shut down"));
+        }
+        pending.clear();
+    }
+
+    // Best effort: a shard that cannot be reached keeps the booking, and its car makes an empty stop
+    private void cancel(ShardAssignment booked) {
+        ShardMessage message = ShardMessage.cancelDestinationCall(callIds.incrementAndGet(), nodeId, booked.getZoneId(),
+                booked.getFromFloor(), booked.getToFloor(), booked.getElevatorId());
+        String owner = getOwner(booked.getZoneId());
+        if (owner == null || !transport.send(owner, message)) {
+            logger.warn("Could not cancel {}: no shard serving zone {}", booked, booked.getZoneId());
+        }
+    }
+
+    private CompletableFuture<ShardAssignment> send(ShardMessage message) {
+        PendingCall call = new PendingCall(message);
+        pending.put(message.getCallId(), call);
+        route(call);
+        return call.future;
+    }
+
+    // Registered before sending: over the loopback transport the answer arrives before send returns
+    private void route(PendingCall call) {
+        ShardMessage message = call.message;
+        String owner = getOwner(message.getZoneId());
+        if (owner == null || !transport.send(owner, message)) {
+            fail(message.getCallId(), "No shard serving zone " + message.getZoneId());
+        }
+    }
+
+    private void onReply(ShardMessage reply) {
+        PendingCall call = pending.get(reply.getCallId());
+        if (call == null) {
+            return;
+        }
+        if (reply.getType() == ShardMessageType.REROUTE) {
+            reroutes.incrementAndGet();
+            if (++call.attempts >= MAX_ATTEMPTS) {
+                fail(reply.getCallId(), "Zone " + reply.getZoneId() + " kept moving between shards");
+            } else {
+                route(call);
+            }
+            return;
+        }
+        pending.remove(reply.getCallId());
+        if (reply.getType() == ShardMessageType.ASSIGNED) {
+            int toFloor = call.message.getType() == ShardMessageType.DESTINATION_CALL ? call.message.getDestinationFloor() : 0;
+            call.future.complete(new ShardAssignment(reply.getZoneId(), reply.getElevatorId(), reply.getFloor(), toFloor));
+        } else {
+            call.future.completeExceptionally(new RuntimeException(reply.getError()));
+        }
+    }
+
+    private void fail(long callId, String error) {
+        PendingCall call = pending.remove(callId);
+        if (call != null) {
+            call.future.completeExceptionally(new RuntimeException(error));
+        }
+    }
+
+    private static Membership sorted(List<CampusZone> zones, List<String> owners, long epoch) {
+        Integer[] order = new Integer[zones.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> zones.get(i).getLowestFloor()));
+        CampusZone[] sortedZones = new CampusZone[order.length];
+        String[] sortedOwners = new String[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedZones[i] = zones.get(order[i]);
+            sortedOwners[i] = owners.get(order[i]);
+        }
+        return new Membership(sortedZones, sortedOwners, epoch);
+    }
+
+    private static final class PendingCall {
+        final ShardMessage message;
+        final CompletableFuture<ShardAssignment> future = new CompletableFuture<>();
+        // Only touched by whichever thread delivers this call's replies, one at a time
+        int attempts;
+
+        PendingCall(ShardMessage message) {
+            this.message = message;
+        }
+    }
+
+    // Zones ordered by lowest floor, with the node owning each (null when unowned)
+    private static final class Membership {
+        final CampusZone[] zones;
+        final String[] owners;
+        final long epoch;
+
+        Membership(CampusZone[] zones, String[] owners, long epoch) {
+            this.zones = zones;
+            this.owners = owners;
+            this.epoch = epoch;
+        }
+
+        int indexOf(String zoneId) {
+            for (int i = 0; i < zones.length; i++) {
+                if (zones[i].getZoneId().equals(zoneId)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        CampusZone zoneServing(int floor, Direction direction) {
+            int low = 0;
+            int high = zones.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                CampusZone zone = zones[mid];
+                if (zone.serves(floor, direction)) {
+                    return zone;
+                }
+                // A sky lobby call going up belongs to the upper zone, going down to the lower one
+                if (direction == Direction.UP ? floor >= zone.getHighestFloor() : floor > zone.getHighestFloor()) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.deepak.cluster;
+
+import lombok.Getter;
+import org.deepak.enums.Direction;
+
+// A bank of cars serving a contiguous run of campus floors. Neighbouring zones share one floor, the sky lobby
+// where passengers change cars.
+@Getter
+public class CampusZone {
+    private final String zoneId;
+    private final int lowestFloor;
+    private final int highestFloor;
+
+    public CampusZone(String zoneId, int lowestFloor, int highestFloor) {
+        if (zoneId == null || zoneId.isEmpty()) {
+            throw new IllegalArgumentException("Zone id is required");
+        }
+        if (lowestFloor < 1 || highestFloor <= lowestFloor) {
+            throw new IllegalArgumentException("Invalid zone floors: " + lowestFloor + " - " + highestFloor);
+        }
+        this.zoneId = zoneId;
+        this.lowestFloor = lowestFloor;
+        this.highestFloor = highestFloor;
+    }
+
+    public boolean contains(int floor) {
+        return floor >= lowestFloor && floor <= highestFloor;
+    }
+
+    // A call here can be answered without leaving the zone
+    public boolean serves(int floor, Direction direction) {
+        return direction == Direction.UP ? floor >= lowestFloor && floor < highestFloor
+                : floor > lowestFloor && floor <= highestFloor;
+    }
+
+    @Override
+    public String toString() {
+        return zoneId + " [" + lowestFloor + "-" + highestFloor + "]";
+    }
+}
@@ -0,0 +1,49 @@
+package org.deepak.cluster;
+
+import org.deepak.interfaces.ShardTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Every node in one process: a send runs the receiver's handler on the sending thread
+public class LoopbackTransport implements ShardTransport {
+    private static final Logger logger = LoggerFactory.getLogger(LoopbackTransport.class);
+    private final Map<String, Consumer<ShardMessage>> handlers = new ConcurrentHashMap<>();
+    private final AtomicLong delivered = new AtomicLong();
+
+    @Override
+    public void bind(String nodeId, Consumer<ShardMessage> handler) {
+        if (handlers.putIfAbsent(nodeId, handler) != null) {
+            throw new IllegalArgumentException("Node already bound: " + nodeId);
+        }
+    }
+
+    @Override
+    public void unbind(String nodeId) {
+        handlers.remove(nodeId);
+    }
+
+    @Override
+    public boolean send(String nodeId, ShardMessage message) {
+        Consumer<ShardMessage> handler = handlers.get(nodeId);
+        if (handler == null) {
+            return false;
+        }
+        delivered.incrementAndGet();
+        // Delivered is delivered: a failing receiver is the receiver's problem, as it would be over a network
+        try {
+            handler.accept(message);
+        } catch (RuntimeException e) {
+            logger.error("Node {} failed handling {}", nodeId, message, e);
+        }
+        return true;
+    }
+
+    public long getDelivered() {
+        return delivered.get();
+    }
+}
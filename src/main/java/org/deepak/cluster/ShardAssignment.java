@@ -0,0 +1,25 @@
+package org.deepak.cluster;
+
+import lombok.Getter;
+
+// The car a shard gave one leg of a call to. Car ids are unique within the process the shard runs in, so the
+// zone is still needed to find the car on another node.
+@Getter
+public class ShardAssignment {
+    private final String zoneId;
+    private final int elevatorId;
+    private final int fromFloor;
+    private final int toFloor;
+
+    public ShardAssignment(String zoneId, int elevatorId, int fromFloor, int toFloor) {
+        this.zoneId = zoneId;
+        this.elevatorId = elevatorId;
+        this.fromFloor = fromFloor;
+        this.toFloor = toFloor;
+    }
+
+    @Override
+    public String toString() {
+        return zoneId + " #" + elevatorId + " " + fromFloor + (toFloor > 0 ? " -> " + toFloor : "");
+    }
+}
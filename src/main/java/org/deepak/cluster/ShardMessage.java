@@ -0,0 +1,72 @@
+package org.deepak.cluster;
+
+import lombok.Getter;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ShardMessageType;
+
+// A call routed to the shard owning its zone, or that shard's answer. Replies carry the call id and zone of the call.
+@Getter
+public class ShardMessage {
+    private final ShardMessageType type;
+    private final long callId;
+    private final String replyTo;
+    private final String zoneId;
+    private final int floor;
+    private final int destinationFloor;
+    private final Direction direction;
+    private final int elevatorId;
+    private final String error;
+
+    private ShardMessage(ShardMessageType type, long callId, String replyTo, String zoneId, int floor,
+                         int destinationFloor, Direction direction, int elevatorId, String error) {
+        this.type = type;
+        this.callId = callId;
+        this.replyTo = replyTo;
+        this.zoneId = zoneId;
+        this.floor = floor;
+        this.destinationFloor = destinationFloor;
+        this.direction = direction;
+        this.elevatorId = elevatorId;
+        this.error = error;
+    }
+
+    public static ShardMessage hallCall(long callId, String replyTo, String zoneId, int floor, Direction direction) {
+        return new ShardMessage(ShardMessageType.HALL_CALL, callId, replyTo, zoneId, floor, 0, direction, 0, null);
+    }
+
+    public static ShardMessage destinationCall(long callId, String replyTo, String zoneId, int floor, int destinationFloor) {
+        Direction direction = destinationFloor > floor ? Direction.UP : Direction.DOWN;
+        return new ShardMessage(ShardMessageType.DESTINATION_CALL, callId, replyTo, zoneId, floor, destinationFloor,
+                direction, 0, null);
+    }
+
+    public static ShardMessage cancelDestinationCall(long callId, String replyTo, String zoneId, int floor,
+                                                     int destinationFloor, int elevatorId) {
+        Direction direction = destinationFloor > floor ? Direction.UP : Direction.DOWN;
+        return new ShardMessage(ShardMessageType.CANCEL_DESTINATION_CALL, callId, replyTo, zoneId, floor,
+                destinationFloor, direction, elevatorId, null);
+    }
+
+    public ShardMessage assigned(int elevatorId) {
+        return reply(ShardMessageType.ASSIGNED, elevatorId, null);
+    }
+
+    public ShardMessage rejected(String error) {
+        return reply(ShardMessageType.REJECTED, 0, error);
+    }
+
+    // The receiving node does not own the call's zone (any more); the sender should look up the owner again
+    public ShardMessage reroute() {
+        return reply(ShardMessageType.REROUTE, 0, null);
+    }
+
+    private ShardMessage reply(ShardMessageType replyType, int elevatorId, String error) {
+        return new ShardMessage(replyType, callId, replyTo, zoneId, floor, destinationFloor, direction, elevatorId, error);
+    }
+
+    @Override
+    public String toString() {
+        return type + "#" + callId + " zone " + zoneId + " floor " + floor +
+                (destinationFloor > 0 ? " -> " + destinationFloor : " " + direction);
+    }
+}
@@ -0,0 +1,124 @@
+package org.deepak.cluster;
+
+import lombok.Getter;
+import org.deepak.ElevatorSystem;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.dto.ElevatorController;
+import org.deepak.dto.panels.HallPanel;
+import org.deepak.interfaces.ShardTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// One shard: the elevator system of a single zone, answering the calls routed to it over a transport.
+// The system's building is numbered in campus floors, so floors below the zone simply never see a call.
+public class ShardNode {
+    private static final Logger logger = LoggerFactory.getLogger(ShardNode.class);
+    @Getter
+    private final String nodeId;
+    @Getter
+    private final CampusZone zone;
+    @Getter
+    private final ElevatorSystem system;
+    private volatile ShardTransport transport;
+    private final AtomicLong handled = new AtomicLong();
+    private final AtomicLong rerouted = new AtomicLong();
+
+    public ShardNode(String nodeId, CampusZone zone, ElevatorSystem system) {
+        this.nodeId = nodeId;
+        this.zone = zone;
+        this.system = system;
+    }
+
+    public synchronized void start(ShardTransport transport) {
+        if (this.transport != null) {
+            throw new IllegalStateException("Shard " + nodeId + " already started");
+        }
+        if (system.getBuilding().getFloors().size() < zone.getHighestFloor()) {
+            throw new IllegalStateException("Shard " + nodeId + " building stops below " + zone);
+        }
+        transport.bind(nodeId, this::handle);
+        this.transport = transport;
+        logger.info("Shard {} serving {}", nodeId, zone);
+    }
+
+    // Calls already queued in the system's intake still complete and are answered
+    public synchronized void stop() {
+        ShardTransport current = transport;
+        if (current != null) {
+            transport = null;
+            current.unbind(nodeId);
+            logger.info("Shard {} stopped serving {}", nodeId, zone);
+        }
+    }
+
+    public boolean isServing() {
+        return transport != null;
+    }
+
+    public long getHandled() {
+        return handled.get();
+    }
+
+    public long getRerouted() {
+        return rerouted.get();
+    }
+
+    private void handle(ShardMessage message) {
+        ShardTransport current = transport;
+        if (current == null) {
+            return;
+        }
+        if (!zone.getZoneId().equals(message.getZoneId()) || !zone.serves(message.getFloor(), message.getDirection())) {
+            rerouted.incrementAndGet();
+            current.send(message.getReplyTo(), message.reroute());
+            return;
+        }
+        handled.incrementAndGet();
+        switch (message.getType()) {
+            case HALL_CALL:
+                HallPanel panel = system.getBuilding().getFloor(message.getFloor()).getPanel();
+                panel.pressButtonAsync(message.getDirection())
+                        .whenComplete((car, error) -> reply(current, message, car, error));
+                break;
+            case DESTINATION_CALL:
+                if (!zone.contains(message.getDestinationFloor())) {
+                    current.send(message.getReplyTo(), message.rejected("Destination outside " + zone));
+                    return;
+                }
+                ElevatorCar car = null;
+                Throwable error = null;
+                try {
+                    car = system.getBuilding().getFloor(message.getFloor()).getPanel()
+                            .pressDestination(message.getDestinationFloor());
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+                reply(current, message, car, error);
+                break;
+            case CANCEL_DESTINATION_CALL:
+                for (ElevatorController controller : system.getControllers()) {
+                    if (controller.getElevator().getId() == message.getElevatorId()) {
+                        controller.cancelBooking(message.getFloor(), message.getDestinationFloor());
+                    }
+                }
+                break;
+            default:
+                logger.warn("Shard {} ignoring {}", nodeId, message);
+        }
+    }
+
+    private void reply(ShardTransport current, ShardMessage message, ElevatorCar car, Throwable error) {
+        ShardMessage reply;
+        if (error != null) {
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            reply = message.rejected(String.valueOf(cause.getMessage()));
+        } else {
+            reply = message.assigned(car.getId());
+        }
+        if (!current.send(message.getReplyTo(), reply)) {
+            logger.warn("Shard {} could not answer {}: {} unreachable", nodeId, message, message.getReplyTo());
+        }
+    }
+}
@@ -2,10 +2,14 @@ package org.deepak.dto;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.deepak.ElevatorSystem;
 import java.util.ArrayList;
 import java.util.List;
 
 public class Building {
+    @Getter
+    private final ElevatorSystem system;
+
     @Getter
     @Setter
     private List<Floor> floors = new ArrayList<>();
@@ -14,17 +18,12 @@ public class Building {
     @Setter
     private List<ElevatorCar> elevators = new ArrayList<>();
 
-    private static volatile Building building = null;
+    // Shared by every hall display in the building
+    @Getter
+    private final DisplayBoard displayBoard = new DisplayBoard();
 
-    public static Building getInstance() {
-        if (building == null) {
-            synchronized (Building.class) {
-                if (building == null) {
-                    building = new Building();
-                }
-            }
-        }
-        return building;
+    public Building(ElevatorSystem system) {
+        this.system = system;
     }
     
     public Floor getFloor(int floorNumber) {
@@ -37,9 +36,7 @@ public class Building {
     public void setFloor(int noOfFloor) {
         this.floors = new ArrayList<>();
         for(int i=0;i<noOfFloor;i++){
-            Floor floor = new Floor(i+1);
-            floor.addDisplay(elevators.size());
-            this.floors.add(floor);
+            this.floors.add(new Floor(i+1, this));
         }
     }
 
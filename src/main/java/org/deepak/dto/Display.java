@@ -1,53 +1,49 @@
 package org.deepak.dto;
 
 import lombok.Getter;
-import lombok.Setter;
 import org.deepak.enums.Direction;
 import org.deepak.enums.ElevatorState;
-import org.deepak.interfaces.ElevatorObserver;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-@Getter
-@Setter
-public class Display implements ElevatorObserver {
-    private static final Logger logger = LoggerFactory.getLogger(Display.class);
-    private int capacity;
-    private Direction direction;
-    private int floorNumber;
+
+// One car's reading on the shared display board; holds no state of its own
+public class Display {
+    private final DisplayBoard board;
+    @Getter
     private final int elevatorId;
-    
-    public Display(int elevatorId){
-        this.capacity = 0;
-        this.floorNumber = 0;
-        this.direction = Direction.DOWN;
+
+    public Display(DisplayBoard board, int elevatorId) {
+        this.board = board;
         this.elevatorId = elevatorId;
     }
 
-    @Override
-    public void onElevatorStateChanged(ElevatorCar elevator, ElevatorState newState) {
-        if (elevator.getId() == elevatorId) {
-            logger.info("Display #{}: Elevator state changed to {}", elevatorId, newState);
-        }
+    public int getFloorNumber() {
+        return board.getFloor(elevatorId);
     }
 
-    @Override
-    public void onFloorChanged(ElevatorCar elevator, int newFloor) {
-        if (elevator.getId() == elevatorId) {
-            this.floorNumber = newFloor;
-            this.direction = elevator.getDirection();
-            showDisplay();
-        }
+    public Direction getDirection() {
+        return board.getDirection(elevatorId);
     }
 
-    @Override
-    public void onRequestCompleted(ElevatorCar elevator, int floor) {
-        if (elevator.getId() == elevatorId) {
-            logger.info("Display #{}: Request completed for floor {}", elevatorId, floor);
-        }
+    public ElevatorState getState() {
+        return board.getState(elevatorId);
     }
 
-    private void showDisplay(){
-        logger.info("Display #{}: Floor {} | Direction {}", elevatorId, floorNumber, direction);
+    public int getLoad() {
+        return board.getLoad(elevatorId);
+    }
+
+    public String render() {
+        StringBuilder text = new StringBuilder();
+        appendTo(text);
+        return text.toString();
+    }
+
+    void appendTo(StringBuilder text) {
+        ElevatorState state = getState();
+        text.append('#').append(elevatorId).append(' ').append(getFloorNumber());
+        if (state == ElevatorState.MOVING) {
+            text.append(getDirection() == Direction.UP ? " UP" : " DOWN");
+        } else if (state != null) {
+            text.append(' ').append(state);
+        }
     }
 }
@@ -0,0 +1,134 @@
+package org.deepak.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.deepak.engine.SystemClock;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.deepak.interfaces.Clock;
+import org.deepak.interfaces.ElevatorObserver;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Latest floor, direction, state and load of every car, one packed long per car id.
+// Each event overwrites the car's previous reading, so displays only ever see the newest value.
+public class DisplayBoard implements ElevatorObserver {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final ElevatorState[] STATES = ElevatorState.values();
+
+    private volatile AtomicLongArray readings = new AtomicLongArray(16);
+    private volatile int[] carIds = new int[0]; // Registration order, the order displays list cars in
+    private final AtomicLong version = new AtomicLong();
+    @Getter
+    @Setter
+    private volatile Clock clock = new SystemClock();
+
+    public synchronized void register(ElevatorCar car) {
+        int id = car.getId();
+        for (int carId : carIds) {
+            if (carId == id) {
+                return;
+            }
+        }
+        if (id >= readings.length()) {
+            AtomicLongArray grown = new AtomicLongArray(Math.max(id + 1, readings.length() * 2));
+            for (int i = 0; i < readings.length(); i++) {
+                grown.set(i, readings.get(i));
+            }
+            readings = grown;
+        }
+        int[] ids = Arrays.copyOf(carIds, carIds.length + 1);
+        ids[carIds.length] = id;
+        carIds = ids;
+        update(car, car.getCurrentFloorNumber(), car.getState());
+    }
+
+    // Forgets every car, for when the system moves onto a new fleet
+    public synchronized void clear() {
+        carIds = new int[0];
+        version.incrementAndGet();
+    }
+
+    public int[] getCarIds() {
+        return carIds;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public Display getDisplay(int elevatorId) {
+        return new Display(this, elevatorId);
+    }
+
+    public int getFloor(int elevatorId) {
+        return (int) (reading(elevatorId) >> 32);
+    }
+
+    public int getLoad(int elevatorId) {
+        return (int) (reading(elevatorId) >>> 16) & 0xFFFF;
+    }
+
+    public Direction getDirection(int elevatorId) {
+        int direction = (int) (reading(elevatorId) >>> 8) & 0xFF;
+        return direction == 0 ? null : DIRECTIONS[direction - 1];
+    }
+
+    public ElevatorState getState(int elevatorId) {
+        int state = (int) reading(elevatorId) & 0xFF;
+        return state == 0 ? null : STATES[state - 1];
+    }
+
+    @Override
+    public void onElevatorStateChanged(ElevatorCar elevator, ElevatorState newState) {
+        update(elevator, elevator.getCurrentFloorNumber(), newState);
+    }
+
+    @Override
+    public void onFloorChanged(ElevatorCar elevator, int newFloor) {
+        update(elevator, newFloor, elevator.getState());
+    }
+
+    @Override
+    public void onRequestCompleted(ElevatorCar elevator, int floor) {
+        update(elevator, floor, elevator.getState());
+    }
+
+    @Override
+    public void onPassengersBoarded(ElevatorCar elevator, int floor, Direction direction, int count) {
+        update(elevator, floor, elevator.getState());
+    }
+
+    @Override
+    public void onPassengersAlighted(ElevatorCar elevator, int floor, int count) {
+        update(elevator, floor, elevator.getState());
+    }
+
+    private void update(ElevatorCar car, int floor, ElevatorState state) {
+        Direction direction = car.getDirection();
+        long packed = ((long) floor << 32)
+                | ((long) (Math.min(car.getCurrentLoad(), 0xFFFF)) << 16)
+                | ((long) (direction == null ? 0 : direction.ordinal() + 1) << 8)
+                | (state == null ? 0 : state.ordinal() + 1);
+        AtomicLongArray current = readings;
+        if (car.getId() >= current.length()) {
+            return;
+        }
+        long previous = current.getAndSet(car.getId(), packed);
+        // A write racing with register() may have landed in the old array; repeat it in the new one
+        while (readings != current) {
+            current = readings;
+            current.set(car.getId(), packed);
+        }
+        if (previous != packed) {
+            version.incrementAndGet();
+        }
+    }
+
+    private long reading(int elevatorId) {
+        AtomicLongArray current = readings;
+        return elevatorId < current.length() ? current.get(elevatorId) : 0;
+    }
+}
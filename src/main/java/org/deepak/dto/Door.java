@@ -1,17 +1,183 @@
 package org.deepak.dto;
 
-import lombok.Setter;
+import lombok.AccessLevel;
+import lombok.Getter;
 import org.deepak.enums.DoorState;
 
-@Setter
+// Car door timings and state. The car runs the cycle: opening, open while passengers get on and off, closing,
+// and back open when the doors are obstructed or called again on the way shut. All timings at zero make every
+// stop instantaneous, as when doors were not modelled.
+@Getter
 public class Door {
-    private DoorState state;
-    
-    public Door(){
+    public static final long DEFAULT_OPENING_MILLIS = 1500;
+    public static final long DEFAULT_CLOSING_MILLIS = 2000;
+    // Held open this long with nobody getting on or off, and again after an obstruction or the open button
+    public static final long DEFAULT_MIN_DWELL_MILLIS = 2000;
+    public static final long DEFAULT_PER_PASSENGER_MILLIS = 1000;
+    public static final long DEFAULT_MAX_DWELL_MILLIS = 12000;
+
+    private volatile DoorState state;
+    private volatile long openingMillis;
+    private volatile long closingMillis;
+    private volatile long minDwellMillis;
+    private volatile long perPassengerMillis;
+    private volatile long maxDwellMillis;
+    @Getter(AccessLevel.NONE)
+    private long closeAt; // Clock time the doors start closing while open
+    @Getter(AccessLevel.NONE)
+    private long closingSince; // Clock time they started closing
+    @Getter(AccessLevel.NONE)
+    private boolean serveAgain; // A call for this floor came in while open; serve it at the next timer
+
+    public Door() {
         this.state = DoorState.CLOSE;
+        setTimings(DEFAULT_OPENING_MILLIS, DEFAULT_CLOSING_MILLIS, DEFAULT_MIN_DWELL_MILLIS,
+                DEFAULT_PER_PASSENGER_MILLIS, DEFAULT_MAX_DWELL_MILLIS);
+    }
+
+    public synchronized void setTimings(long openingMillis, long closingMillis, long minDwellMillis,
+                                        long perPassengerMillis, long maxDwellMillis) {
+        if (openingMillis < 0 || closingMillis < 0 || minDwellMillis < 0 || perPassengerMillis < 0 ||
+            maxDwellMillis < minDwellMillis) {
+            throw new IllegalArgumentException("Invalid door timings: " + openingMillis + ", " + closingMillis +
+                    ", " + minDwellMillis + ", " + perPassengerMillis + ", " + maxDwellMillis);
+        }
+        this.openingMillis = openingMillis;
+        this.closingMillis = closingMillis;
+        this.minDwellMillis = minDwellMillis;
+        this.perPassengerMillis = perPassengerMillis;
+        this.maxDwellMillis = maxDwellMillis;
+    }
+
+    // The default timings divided by the factor, for engines running faster than real time
+    public void setTimeScale(double speedup) {
+        if (speedup <= 0) {
+            throw new IllegalArgumentException("Speed-up must be positive: " + speedup);
+        }
+        setTimings(Math.round(DEFAULT_OPENING_MILLIS / speedup), Math.round(DEFAULT_CLOSING_MILLIS / speedup),
+                Math.round(DEFAULT_MIN_DWELL_MILLIS / speedup), Math.round(DEFAULT_PER_PASSENGER_MILLIS / speedup),
+                Math.round(DEFAULT_MAX_DWELL_MILLIS / speedup));
+    }
+
+    public boolean isInstant() {
+        return openingMillis == 0 && closingMillis == 0 && maxDwellMillis == 0;
     }
 
     public boolean isOpen() {
         return state == DoorState.OPEN;
     }
+
+    public boolean isClosed() {
+        return state == DoorState.CLOSE;
+    }
+
+    // Time a full stop with this many passengers getting on and off keeps the car at the floor
+    public long stopMillis(int passengers) {
+        return openingMillis + dwellMillis(passengers) + closingMillis;
+    }
+
+    public long dwellMillis(int passengers) {
+        return Math.min(maxDwellMillis, minDwellMillis + passengers * perPassengerMillis);
+    }
+
+    // Until the doors are shut again, counting the dwell still to come; 0 when closed
+    public synchronized long remainingMillis(long now) {
+        return switch (state) {
+            case CLOSE -> 0;
+            case OPENING -> openingMillis + minDwellMillis + closingMillis;
+            case OPEN -> Math.max(0, closeAt - now) + closingMillis;
+            case CLOSING -> Math.max(0, closingSince + closingMillis - now);
+        };
+    }
+
+    // The transitions below return the clock time of the next door timer, or -1 to leave the timer as it is
+
+    synchronized long open(long now) {
+        if (state != DoorState.CLOSE) {
+            return -1;
+        }
+        state = DoorState.OPENING;
+        return now + openingMillis;
+    }
+
+    // Open button, obstruction or a new call here: reverse while closing, hold a little longer while open.
+    // A call to serve is picked up straight away.
+    synchronized long reopen(long now, boolean serve) {
+        switch (state) {
+            case CLOSING -> {
+                state = DoorState.OPENING;
+                // Back out the way they came
+                long closed = Math.max(0, now - closingSince);
+                return now + (closingMillis == 0 ? 0 : closed * openingMillis / closingMillis);
+            }
+            case OPEN -> {
+                closeAt = Math.max(closeAt, now + minDwellMillis);
+                if (serve) {
+                    serveAgain = true;
+                    return now;
+                }
+                return -1;
+            }
+            default -> {
+                return -1;
+            }
+        }
+    }
+
+    // Close button: start closing now, unless still opening
+    synchronized long closeNow(long now) {
+        if (state != DoorState.OPEN) {
+            return -1;
+        }
+        closeAt = now;
+        return now;
+    }
+
+    // Opened fully: the stop is served now and the dwell set from the passengers who moved
+    synchronized boolean opened() {
+        if (state != DoorState.OPENING) {
+            return false;
+        }
+        state = DoorState.OPEN;
+        return true;
+    }
+
+    synchronized long served(long now, int passengers, boolean first) {
+        long until = now + (first ? dwellMillis(passengers) : Math.min(maxDwellMillis, passengers * perPassengerMillis));
+        closeAt = first ? until : Math.max(closeAt, until);
+        return closeAt;
+    }
+
+    // Timer while open: serve a call that came in, start closing once the dwell is over, or wait on
+    synchronized boolean takeServeAgain() {
+        boolean serve = serveAgain && state == DoorState.OPEN;
+        serveAgain = false;
+        return serve;
+    }
+
+    synchronized long closeIfDue(long now) {
+        if (state != DoorState.OPEN) {
+            return -1;
+        }
+        if (now < closeAt) {
+            return closeAt;
+        }
+        state = DoorState.CLOSING;
+        closingSince = now;
+        return now + closingMillis;
+    }
+
+    synchronized boolean closed() {
+        if (state != DoorState.CLOSING) {
+            return false;
+        }
+        state = DoorState.CLOSE;
+        return true;
+    }
+
+    // Recovered or out-of-service cars start with their doors shut
+    synchronized void reset() {
+        state = DoorState.CLOSE;
+        serveAgain = false;
+    }
 }
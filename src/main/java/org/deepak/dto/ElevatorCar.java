@@ -1,24 +1,31 @@
 package org.deepak.dto;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.deepak.actor.CarActor;
+import org.deepak.dto.buttons.DoorButton;
+import org.deepak.dto.buttons.ElevatorButton;
 import org.deepak.dto.dispatcher.InternalDispatcher;
 import org.deepak.dto.panels.ElevatorPanel;
+import org.deepak.engine.MotionEngine;
+import org.deepak.enums.ActorMessageType;
 import org.deepak.enums.Direction;
 import org.deepak.enums.ElevatorState;
+import org.deepak.interfaces.MotionListener;
+import org.deepak.metrics.ElevatorMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.*;
+import java.util.BitSet;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Getter
-public class ElevatorCar {
+public class ElevatorCar implements MotionListener {
     private static final Logger logger = LoggerFactory.getLogger(ElevatorCar.class);
     private final int id;
     private volatile int currentFloorNumber;
     private static final AtomicInteger atomicInteger = new AtomicInteger();
-    private final Display display;
     private final ElevatorPanel elevatorPanel;
     @Getter
     @Setter
@@ -27,61 +34,313 @@ public class ElevatorCar {
     private volatile ElevatorState state;
     private final InternalDispatcher internalDispatcher;
     private final int capacity;
-    private volatile int currentLoad;
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger currentLoad;
     private final Object lock = new Object();
     private ElevatorController controller;
+    private final MotionEngine motionEngine;
+    private final int motionSlot;
+    @Getter(AccessLevel.NONE)
+    private volatile long movingSince; // Clock time the current move started
+    @Getter(AccessLevel.NONE)
+    private volatile long movedMillis; // Time spent moving in finished moves
+    @Getter(AccessLevel.NONE)
+    private Direction lastMoveDirection; // The controller sets direction ahead of a move, so reversals compare to this
+    @Getter(AccessLevel.NONE)
+    private int stopPassengers; // Got on or off since the doors last opened or took another call
+    private boolean released; // The motion slot went back to the engine and may belong to another car now
 
     public ElevatorCar() {
+        this(MotionEngine.getInstance());
+    }
+
+    public ElevatorCar(MotionEngine motionEngine) {
         this.elevatorPanel = new ElevatorPanel();
         this.door = new Door();
         this.id = atomicInteger.incrementAndGet();
         this.currentFloorNumber = 0;
-        this.display = new Display(this.id);
         this.internalDispatcher = new InternalDispatcher();
         this.state = ElevatorState.IDLE;
         this.capacity = 10;
-        this.currentLoad = 0;
+        this.currentLoad = new AtomicInteger();
+        this.motionEngine = motionEngine;
+        this.motionSlot = motionEngine.register(this);
+    }
+
+    // Puts a recovered car back where it was. A car that was moving when the system went down is stopped now;
+    // its controller sends it on once the pending stops are restored.
+    public void restore(int floor, Direction direction, ElevatorState state, int load) {
+        this.currentFloorNumber = floor;
+        this.direction = direction;
+        this.state = state == ElevatorState.MOVING ? ElevatorState.IDLE : state;
+        this.currentLoad.set(Math.max(0, Math.min(load, capacity)));
+        door.reset();
+        motionEngine.cancelDoor(motionSlot);
+    }
+
+    // Gives the car's slot on its motion engine back; the car does not move or run its doors again
+    public void release() {
+        synchronized (lock) {
+            if (!released) {
+                released = true;
+                motionEngine.unregister(motionSlot);
+            }
+        }
     }
 
     public void setController(ElevatorController controller) {
         this.controller = controller;
-        controller.addObserver(display);
     }
 
+    // The car only leaves with its doors shut; once they are, the controller is asked again
     public void moveToFloor(int destinationFloor) {
         if (currentFloorNumber == destinationFloor) {
-            logger.info("Elevator #{} already at floor {}", id, destinationFloor);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Elevator #{} already at floor {}", id, destinationFloor);
+            }
             return;
         }
+        synchronized (door) {
+            if (!door.isClosed()) {
+                return;
+            }
+            startMove(destinationFloor);
+        }
+    }
 
-        state = ElevatorState.MOVING;
+    private void startMove(int destinationFloor) {
         direction = (currentFloorNumber < destinationFloor) ? Direction.UP : Direction.DOWN;
+        // A car already moving is only being sent further, not starting a new trip
+        if (state != ElevatorState.MOVING) {
+            movingSince = motionEngine.getClock().millis();
+            ElevatorMetrics metrics = controller.getMetrics();
+            if (metrics != null) {
+                if (lastMoveDirection != null && lastMoveDirection != direction) {
+                    metrics.getReversals().increment();
+                }
+                if (currentLoad.get() == 0) {
+                    metrics.getEmptyTrips().increment();
+                }
+            }
+        }
+        lastMoveDirection = direction;
+        state = ElevatorState.MOVING;
         controller.onElevatorStateChanged(this, ElevatorState.MOVING);
         
-        ScheduledExecutorService moveExecutor = new ScheduledThreadPoolExecutor(1, 
-            new ThreadPoolExecutor.AbortPolicy());
-        moveExecutor.scheduleAtFixedRate(() -> {
-            if (currentFloorNumber != destinationFloor) {
-                currentFloorNumber += (direction == Direction.UP) ? 1 : -1;
-                controller.onFloorChanged(this, currentFloorNumber);
+        motionEngine.startMove(motionSlot, currentFloorNumber, destinationFloor);
+    }
+
+    // With an actor, motion events are handed to the car's thread and come back here in order
+    @Override
+    public void onFloorReached(int floor) {
+        if (toActor(ActorMessageType.FLOOR_REACHED, floor)) {
+            return;
+        }
+        currentFloorNumber = floor;
+        controller.onFloorChanged(this, floor);
+        controller.stopEnRoute();
+    }
+
+    @Override
+    public void onArrived(int floor) {
+        if (toActor(ActorMessageType.ARRIVED, floor)) {
+            return;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Elevator #{} arrived at floor {}", id, floor);
+        }
+        if (state == ElevatorState.MOVING) {
+            movedMillis += motionEngine.getClock().millis() - movingSince;
+        }
+        state = ElevatorState.IDLE;
+        controller.onElevatorStateChanged(this, ElevatorState.IDLE);
+        // Passengers get on and off once the doors are open; a car passing through, e.g. to park, keeps them shut
+        if (!door.isInstant() && controller.hasStop(floor)) {
+            openDoors();
+            return;
+        }
+        controller.onRequestCompleted(this, floor);
+        controller.processRequests();
+    }
+
+    // Nearest floor the moving car can still stop at, or -1 when standing
+    int getStoppingFloor() {
+        return motionEngine.stoppingFloor(motionSlot);
+    }
+
+    // Stops at a floor on the way instead of running through to the destination; false if it is too late to brake
+    boolean stopOnTheWay(int floor) {
+        return motionEngine.stopAt(motionSlot, floor);
+    }
+
+    // Opening, open while passengers move (longer the more there are), closing, then on to the next stop.
+    // Each step is a timer on the motion engine. Only doors opening for a stop the car still has serve it; doors
+    // opened by the open button or reopened after an obstruction or a served stop just wait the minimum dwell.
+    @Override
+    public void onDoorTimer(int floor) {
+        if (toActor(ActorMessageType.DOOR_TIMER, floor)) {
+            return;
+        }
+        long now = motionEngine.getClock().millis();
+        if (door.opened()) {
+            if (controller.hasStop(currentFloorNumber)) {
+                serveAtDoors(now, true);
             } else {
-                logger.info("Elevator #{} arrived at floor {}", id, destinationFloor);
-                state = ElevatorState.IDLE;
-                controller.onElevatorStateChanged(this, ElevatorState.IDLE);
-                controller.onRequestCompleted(this, destinationFloor);
-                moveExecutor.shutdown();
+                scheduleDoor(door.served(now, 0, true));
             }
-        }, 0, 1, TimeUnit.SECONDS);
+        } else if (door.takeServeAgain() && controller.hasStop(currentFloorNumber)) {
+            serveAtDoors(now, false);
+        } else {
+            long next = door.closeIfDue(now);
+            if (next >= 0) {
+                scheduleDoor(next);
+            } else if (door.closed()) {
+                controller.processRequests();
+            }
+        }
     }
 
-    public boolean hasCapacity() { return currentLoad < capacity; }
+    private void serveAtDoors(long now, boolean first) {
+        stopPassengers = 0;
+        controller.onRequestCompleted(this, currentFloorNumber);
+        scheduleDoor(door.served(now, stopPassengers, first));
+    }
+
+    // The car is standing at a floor it has a stop for
+    void openDoors() {
+        synchronized (door) {
+            if (state != ElevatorState.MOVING) {
+                scheduleDoor(door.open(motionEngine.getClock().millis()));
+            }
+        }
+    }
+
+    // A hall call for this floor while the doors are open or closing: they stay open, or open again, for it
+    void reopenDoors() {
+        synchronized (door) {
+            if (state != ElevatorState.MOVING) {
+                scheduleDoor(door.reopen(motionEngine.getClock().millis(), true));
+            }
+        }
+    }
+
+    // Door open button: opens a standing car's doors, holds open doors a little longer and reverses closing ones
+    public void pressDoorOpen() {
+        DoorButton button = elevatorPanel.getOpenButton();
+        button.pressDown();
+        synchronized (door) {
+            if (state != ElevatorState.MOVING && !door.isInstant()) {
+                long now = motionEngine.getClock().millis();
+                scheduleDoor(door.isClosed() ? door.open(now) : door.reopen(now, false));
+            }
+        }
+        button.reset();
+    }
+
+    // Door close button: open doors start closing now instead of at the end of the dwell
+    public void pressDoorClose() {
+        DoorButton button = elevatorPanel.getCloseButton();
+        button.pressDown();
+        scheduleDoor(door.closeNow(motionEngine.getClock().millis()));
+        button.reset();
+    }
+
+    // Something in the doorway: closing doors reverse, open doors wait the minimum dwell again
+    public void obstructDoor() {
+        scheduleDoor(door.reopen(motionEngine.getClock().millis(), false));
+    }
+
+    private void scheduleDoor(long atMillis) {
+        if (atMillis >= 0) {
+            motionEngine.scheduleDoor(motionSlot, atMillis);
+        }
+    }
+
+    // Out of service and back; the controller only does this while the car stands idle
+    void changeState(ElevatorState newState) {
+        door.reset();
+        motionEngine.cancelDoor(motionSlot);
+        state = newState;
+        controller.onElevatorStateChanged(this, newState);
+    }
+
+    private boolean toActor(ActorMessageType type, int floor) {
+        CarActor actor = controller.getActor();
+        return actor != null && !actor.isActorThread() && actor.post(type, floor);
+    }
+
+    // Total time spent moving, including the move under way
+    public long getMovingMillis() {
+        long moved = movedMillis;
+        return state == ElevatorState.MOVING ? moved + Math.max(0, motionEngine.getClock().millis() - movingSince) : moved;
+    }
+
+    public int getCurrentLoad() {
+        return currentLoad.get();
+    }
+
+    public boolean hasCapacity() { return currentLoad.get() < capacity; }
+
+    // Boards up to the given number of passengers without going over capacity; returns how many got on
+    public int board(int passengers) {
+        while (true) {
+            int load = currentLoad.get();
+            int boarded = Math.min(passengers, capacity - load);
+            if (boarded <= 0) {
+                return 0;
+            }
+            if (currentLoad.compareAndSet(load, load + boarded)) {
+                stopPassengers += boarded;
+                return boarded;
+            }
+        }
+    }
+
+    // Returns how many actually got off, never taking the load below zero
+    public int alight(int passengers) {
+        while (true) {
+            int load = currentLoad.get();
+            int alighted = Math.min(passengers, load);
+            if (alighted <= 0) {
+                return 0;
+            }
+            if (currentLoad.compareAndSet(load, load - alighted)) {
+                stopPassengers += alighted;
+                return alighted;
+            }
+        }
+    }
     
     public void setFloorPanel(int noOfFloors) {
         this.elevatorPanel.setFloorButtons(noOfFloors);
     }
 
+    // Zoned, express or skip-stop car: it stops only at these floors and its panel shows only them.
+    // Set before the car is added to a system, or through ElevatorSystem.setServedFloors afterwards.
+    public void setFloorPanel(BitSet servedFloors) {
+        this.elevatorPanel.setFloorButtons(servedFloors);
+    }
+
+    // A car without a floor panel yet is treated as serving every floor
+    public boolean serves(int floor) {
+        return elevatorPanel.getTopFloor() == 0 || elevatorPanel.serves(floor);
+    }
+
+    // Stops at the floor and has somewhere to take the caller in that direction
+    public boolean servesCall(int floor, Direction direction) {
+        if (elevatorPanel.getTopFloor() == 0) {
+            return true;
+        }
+        return elevatorPanel.serves(floor) && (direction == Direction.UP ? elevatorPanel.servesAbove(floor)
+                : elevatorPanel.servesBelow(floor));
+    }
+
     public ElevatorCar pressFloorButton(int destination) {
-        elevatorPanel.getFloorButtons().get(destination-1).pressDown();
+        ElevatorButton button = elevatorPanel.getFloorButton(destination);
+        if (button == null) {
+            throw new IllegalArgumentException("Elevator #" + id + " does not serve floor " + destination);
+        }
+        button.pressDown();
         return internalDispatcher.submitInternalRequest(destination, this);
     }
 
@@ -1,129 +1,993 @@
 package org.deepak.dto;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.deepak.actor.CarActor;
+import org.deepak.dto.buttons.ElevatorButton;
+import org.deepak.dto.dispatcher.ParkingPlanner;
+import org.deepak.dto.dispatcher.RouteCost;
+import org.deepak.dto.panels.HallPanel;
+import org.deepak.dto.scheduler.LookScheduler;
 import org.deepak.enums.Direction;
 import org.deepak.interfaces.ElevatorObserver;
+import org.deepak.interfaces.StopScheduler;
 import org.deepak.enums.ElevatorState;
+import org.deepak.enums.EventType;
+import org.deepak.events.EventBus;
+import org.deepak.enums.JournalRecordType;
+import org.deepak.journal.JournalState;
+import org.deepak.journal.TripJournal;
+import org.deepak.metrics.ElevatorMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.PriorityQueue;
 import java.util.concurrent.*;
 
 @Getter
 @Setter
 public class ElevatorController implements ElevatorObserver {
     private static final Logger logger = LoggerFactory.getLogger(ElevatorController.class);
+    // Called in line on the motion path, so dispatch sees every move at once: only the fleet index and the display
+    // board. Every other observer is subscribed through the event bus.
+    @Getter(AccessLevel.NONE)
     private final List<ElevatorObserver> observers = new CopyOnWriteArrayList<>();
+    // Snapshot of observers the events iterate, so a notification allocates neither an iterator nor a lambda
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile ElevatorObserver[] observerArray = new ElevatorObserver[0];
     private final ElevatorCar elevator;
-    private final PriorityQueue<Integer> upRequests; // MinHeap for UP direction
-    private final PriorityQueue<Integer> downRequests; // MaxHeap for DOWN direction
+    private final StopSet upStops; // Floors to stop at on the way UP, indexed by floor number
+    private final StopSet downStops; // Floors to stop at on the way DOWN
+    private final BitSet upHallCalls; // Hall UP buttons this car has to answer
+    private final BitSet downHallCalls; // Hall DOWN buttons this car has to answer
+    private final BitSet carCalls; // Floor buttons pressed inside the car
+    private final BitSet heldUpCalls; // Hall calls a full car could not hand over; resumed once it has room
+    private final BitSet heldDownCalls;
+    // Destination-dispatch bookings, one slot per passenger, until the car picks them up at the origin
+    @Getter(AccessLevel.NONE)
+    private final int[] bookingOrigins;
+    @Getter(AccessLevel.NONE)
+    private final int[] bookingDestinations;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int bookingCount;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int[] alightingAt = new int[0]; // Riders on board heading to each floor
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long[] carCallSince = new long[0]; // Clock time each lit floor button was pressed
     private final Object lock = new Object();
+    private Building building;
+    private StopScheduler scheduler = new LookScheduler();
+    @Setter(AccessLevel.NONE)
+    private EventBus eventBus;
+    // Added before the controller had a bus; subscribed once it gets one
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final List<ElevatorObserver> pendingObservers = new ArrayList<>();
+    @Setter(AccessLevel.NONE)
+    private TripJournal journal;
+    private ParkingPlanner parkingPlanner; // Sends the car to a likely busy floor once it has nothing to do
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile int parkingFloor; // Floor of the parking trip under way, 0 when not parking
+    private volatile CarActor actor; // Runs this car's events in order on a virtual thread; null runs them in line
+    private volatile ElevatorMetrics metrics; // Where stops and ride times are recorded; null records nothing
+    // A moving car stops for calls that come up ahead of it; off, it runs through to the stop it set out for
+    private volatile boolean enRouteStops = true;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile ElevatorState retiringTo; // State to go to once riders and bookings are served; null in service
 
     public ElevatorController(ElevatorCar elevator) {
         this.elevator = elevator;
-        this.upRequests = new PriorityQueue<>(); // MinHeap - closest floor first
-        this.downRequests = new PriorityQueue<>(Collections.reverseOrder()); // MaxHeap - highest floor first
+        this.upStops = new StopSet();
+        this.downStops = new StopSet();
+        this.upHallCalls = new BitSet();
+        this.downHallCalls = new BitSet();
+        this.carCalls = new BitSet();
+        this.heldUpCalls = new BitSet();
+        this.heldDownCalls = new BitSet();
+        this.bookingOrigins = new int[elevator.getCapacity()];
+        this.bookingDestinations = new int[elevator.getCapacity()];
         elevator.setController(this);
     }
 
     public void addRequest(Request request) {
-        ElevatorState state = elevator.getState();
-        int currentFloorNumber = elevator.getCurrentFloorNumber();
+        addRequest(request.getFloor(), request.getDirection(), request.isInternal());
+    }
+
+    // The dispatchers queue calls through this form, so a press allocates no Request
+    // A hall call reaching a car that is out of service or leaving it is handed to another car, never dropped
+    public void addRequest(int floor, Direction direction, boolean internal) {
+        boolean rejected = false;
         synchronized (lock) {
-            if (state == ElevatorState.OUT_OF_SERVICE || state == ElevatorState.MAINTENANCE) {
+            ElevatorState state = elevator.getState();
+            int currentFloorNumber = elevator.getCurrentFloorNumber();
+            boolean outOfService = state == ElevatorState.OUT_OF_SERVICE || state == ElevatorState.MAINTENANCE;
+            if (outOfService && internal) {
                 return;
             }
 
-            int floor = request.getFloor();
-            if (floor > currentFloorNumber || (floor == currentFloorNumber && request.getDirection() == Direction.UP)) {
-                upRequests.offer(floor);
+            // Setting an already-set bit is a no-op, so repeated presses collapse into one stop.
+            // Hall calls are served travelling in the caller's direction; car calls in the direction of the floor.
+            if (!elevator.serves(floor)) {
+                throw new IllegalArgumentException("Elevator #" + elevator.getId() + " does not serve floor " + floor);
+            }
+            if (!internal) {
+                if (outOfService || retiringTo != null) {
+                    rejected = true;
+                } else {
+                    (direction == Direction.UP ? upStops : downStops).set(floor);
+                    (direction == Direction.UP ? upHallCalls : downHallCalls).set(floor);
+                    journal(JournalRecordType.ASSIGNED, floor, 0, direction);
+                }
+            } else if (floor > currentFloorNumber || (floor == currentFloorNumber && direction == Direction.UP)) {
+                upStops.set(floor);
+                addCarCall(floor);
+                addAlighting(floor, 1);
+                journal(JournalRecordType.CAR_CALL, floor, 1, direction);
             } else {
-                downRequests.offer(floor);
+                downStops.set(floor);
+                addCarCall(floor);
+                addAlighting(floor, 1);
+                journal(JournalRecordType.CAR_CALL, floor, 1, direction);
+            }
+        }
+        if (rejected) {
+            handOver(floor, direction);
+            return;
+        }
+        if (!internal && floor == elevator.getCurrentFloorNumber() && !elevator.getDoor().isClosed()) {
+            elevator.reopenDoors();
+        }
+        processRequests();
+    }
+
+    // Destination call booked at the hall panel: the origin becomes a hall stop now, the destination once picked up
+    public boolean addDestinationCall(int originFloor, int destinationFloor) {
+        synchronized (lock) {
+            ElevatorState state = elevator.getState();
+            if (state == ElevatorState.OUT_OF_SERVICE || state == ElevatorState.MAINTENANCE || retiringTo != null ||
+                elevator.getCurrentLoad() + bookingCount >= elevator.getCapacity()) {
+                return false;
+            }
+            boolean up = destinationFloor > originFloor;
+            (up ? upStops : downStops).set(originFloor);
+            (up ? upHallCalls : downHallCalls).set(originFloor);
+            bookingOrigins[bookingCount] = originFloor;
+            bookingDestinations[bookingCount] = destinationFloor;
+            bookingCount++;
+            journal(JournalRecordType.BOOKED, originFloor, destinationFloor, up ? Direction.UP : Direction.DOWN);
+        }
+        processRequests();
+        return true;
+    }
+
+    // A booked passenger who is not coming after all, e.g. another leg of a campus trip could not be booked.
+    // The origin stays a hall stop while another booking or a lit hall button this car answers still needs it.
+    public boolean cancelBooking(int originFloor, int destinationFloor) {
+        boolean up = destinationFloor > originFloor;
+        Direction direction = up ? Direction.UP : Direction.DOWN;
+        synchronized (lock) {
+            int found = -1;
+            boolean shared = false;
+            for (int i = 0; i < bookingCount; i++) {
+                if (bookingOrigins[i] != originFloor || (bookingDestinations[i] > originFloor) != up) {
+                    continue;
+                }
+                if (found < 0 && bookingDestinations[i] == destinationFloor) {
+                    found = i;
+                } else {
+                    shared = true;
+                }
+            }
+            if (found < 0) {
+                return false;
+            }
+            bookingCount--;
+            System.arraycopy(bookingOrigins, found + 1, bookingOrigins, found, bookingCount - found);
+            System.arraycopy(bookingDestinations, found + 1, bookingDestinations, found, bookingCount - found);
+            journal(JournalRecordType.BOOKING_CANCELLED, originFloor, destinationFloor, direction);
+            boolean hallCall = building != null && originFloor >= 1 && originFloor <= building.getFloors().size() &&
+                    building.getFloor(originFloor).getPanel().getAssignment(direction) == elevator;
+            if (!shared && !hallCall) {
+                (up ? upHallCalls : downHallCalls).clear(originFloor);
+                (up ? upStops : downStops).set(originFloor, carCalls.get(originFloor));
+                journal(JournalRecordType.RELEASED, originFloor, 0, direction);
+            }
+        }
+        processRequests();
+        return true;
+    }
+
+    // Starts journaling from this car's current calls, so the journal alone can rebuild it from here on
+    public void setJournal(TripJournal journal) {
+        synchronized (lock) {
+            this.journal = journal;
+            journalPending();
+        }
+    }
+
+    // Copies what the car still has to do into a snapshot; held hall calls count as the car's own
+    // Calls and bookings are journaled under the lock too, so the journal position read here splits the car's
+    // records cleanly into those already in the copy and those recovery still has to apply
+    public void captureState(JournalState.CarState car) {
+        synchronized (lock) {
+            TripJournal current = journal;
+            car.setJournalPosition(current != null ? current.getPosition() : 0);
+            car.setFloor(elevator.getCurrentFloorNumber());
+            car.setDirection(elevator.getDirection());
+            car.setState(elevator.getState());
+            car.setCapacity(elevator.getCapacity());
+            car.setLoad(elevator.getCurrentLoad());
+            car.getServedFloors().or(elevator.getElevatorPanel().getServedFloors());
+            car.getCarCalls().or(carCalls);
+            car.getUpHallCalls().or(upHallCalls);
+            car.getUpHallCalls().or(heldUpCalls);
+            car.getDownHallCalls().or(downHallCalls);
+            car.getDownHallCalls().or(heldDownCalls);
+            for (int i = 0; i < bookingCount; i++) {
+                car.addBooking(bookingOrigins[i], bookingDestinations[i]);
+            }
+            for (int floor = 0; floor < alightingAt.length; floor++) {
+                if (alightingAt[floor] > 0) {
+                    car.addAlighting(floor, alightingAt[floor]);
+                }
+            }
+        }
+    }
+
+    // Takes over the calls of a recovered car; the car itself is positioned by ElevatorCar.restore
+    public void restoreState(JournalState.CarState car) {
+        synchronized (lock) {
+            int currentFloor = elevator.getCurrentFloorNumber();
+            upHallCalls.or(car.getUpHallCalls());
+            downHallCalls.or(car.getDownHallCalls());
+            upStops.or(car.getUpHallCalls());
+            downStops.or(car.getDownHallCalls());
+            BitSet restoredCalls = car.getCarCalls();
+            for (int floor = restoredCalls.nextSetBit(0); floor >= 0; floor = restoredCalls.nextSetBit(floor + 1)) {
+                addCarCall(floor);
+                (floor >= currentFloor ? upStops : downStops).set(floor);
+                addAlighting(floor, Math.max(1, car.getAlighting(floor)));
+            }
+            for (int i = 0; i < car.getBookingCount() && bookingCount < bookingOrigins.length; i++) {
+                bookingOrigins[bookingCount] = car.getBookingOrigin(i);
+                bookingDestinations[bookingCount] = car.getBookingDestination(i);
+                bookingCount++;
             }
-            lock.notify();
+            journalPending();
         }
         processRequests();
     }
 
+    private void journalPending() {
+        if (journal == null) {
+            return;
+        }
+        for (int floor = carCalls.nextSetBit(0); floor >= 0; floor = carCalls.nextSetBit(floor + 1)) {
+            journal(JournalRecordType.CAR_CALL, floor, floor < alightingAt.length ? alightingAt[floor] : 0,
+                    elevator.getDirection());
+        }
+        journalHallCalls(upHallCalls, Direction.UP);
+        journalHallCalls(heldUpCalls, Direction.UP);
+        journalHallCalls(downHallCalls, Direction.DOWN);
+        journalHallCalls(heldDownCalls, Direction.DOWN);
+        for (int i = 0; i < bookingCount; i++) {
+            journal(JournalRecordType.BOOKED, bookingOrigins[i], bookingDestinations[i],
+                    bookingDestinations[i] > bookingOrigins[i] ? Direction.UP : Direction.DOWN);
+        }
+        if (elevator.getCurrentLoad() > 0) {
+            journal(JournalRecordType.PASSENGERS_BOARDED, elevator.getCurrentFloorNumber(), elevator.getCurrentLoad(),
+                    elevator.getDirection());
+        }
+    }
+
+    private void journalHallCalls(BitSet calls, Direction direction) {
+        for (int floor = calls.nextSetBit(0); floor >= 0; floor = calls.nextSetBit(floor + 1)) {
+            journal(JournalRecordType.ASSIGNED, floor, 0, direction);
+        }
+    }
+
+    // 2: already collecting at the origin for this destination, 1: already collecting at the origin,
+    // 0: no shared stop, -1: fully booked or out of service
+    public int destinationGroupFit(int originFloor, int destinationFloor) {
+        synchronized (lock) {
+            ElevatorState state = elevator.getState();
+            if (state == ElevatorState.OUT_OF_SERVICE || state == ElevatorState.MAINTENANCE || retiringTo != null ||
+                elevator.getCurrentLoad() + bookingCount >= elevator.getCapacity()) {
+                return -1;
+            }
+            boolean up = destinationFloor > originFloor;
+            if (!(up ? upHallCalls : downHallCalls).get(originFloor)) {
+                return 0;
+            }
+            for (int i = 0; i < bookingCount; i++) {
+                if (bookingOrigins[i] == originFloor && bookingDestinations[i] == destinationFloor) {
+                    return 2;
+                }
+            }
+            return 1;
+        }
+    }
+
+    public int getBookingCount() {
+        synchronized (lock) {
+            return bookingCount;
+        }
+    }
+
+    // Seats not taken by riders or by bookings still to be picked up
+    public int getAvailableRoom() {
+        synchronized (lock) {
+            return elevator.getCapacity() - elevator.getCurrentLoad() - bookingCount;
+        }
+    }
+
+    public boolean canTakeHallCall(int floor, Direction direction) {
+        return retiringTo == null && getAvailableRoom() > 0 && predictedLoadAt(floor, direction) < elevator.getCapacity();
+    }
+
+    // Load on arrival at a stop, following the car's current sweep round to it: riders leave at their floors,
+    // bookings and waiting passengers board at the hall calls this car answers on the way
+    public int predictedLoadAt(int floor, Direction direction) {
+        synchronized (lock) {
+            int load = elevator.getCurrentLoad();
+            int topFloor = Math.max(getTopFloor(), floor);
+            int position = elevator.getCurrentFloorNumber();
+            // The rest of this sweep, then the opposite sweep, then back towards the car
+            if (elevator.getDirection() != Direction.DOWN) {
+                if (direction == Direction.UP && floor >= position) {
+                    return applyStops(load, Direction.UP, position, floor - 1);
+                }
+                load = applyStops(load, Direction.UP, position, topFloor);
+                if (direction == Direction.DOWN) {
+                    return applyStops(load, Direction.DOWN, topFloor, floor + 1);
+                }
+                load = applyStops(load, Direction.DOWN, topFloor, 0);
+                return applyStops(load, Direction.UP, 0, floor - 1);
+            }
+            if (direction == Direction.DOWN && floor <= position) {
+                return applyStops(load, Direction.DOWN, position, floor + 1);
+            }
+            load = applyStops(load, Direction.DOWN, position, 0);
+            if (direction == Direction.UP) {
+                return applyStops(load, Direction.UP, 0, floor - 1);
+            }
+            load = applyStops(load, Direction.UP, 0, topFloor);
+            return applyStops(load, Direction.DOWN, topFloor, floor + 1);
+        }
+    }
+
+    // Stops of one sweep between two floors, in travel order
+    private int applyStops(int load, Direction sweep, int from, int to) {
+        if (sweep == Direction.UP) {
+            for (int stop = upStops.nextSetBit(Math.max(from, 0)); stop >= 0 && stop <= to; stop = upStops.nextSetBit(stop + 1)) {
+                load = applyStop(load, stop, sweep);
+            }
+        } else {
+            for (int stop = downStops.previousSetBit(from); stop >= 0 && stop >= to; stop = downStops.previousSetBit(stop - 1)) {
+                load = applyStop(load, stop, sweep);
+            }
+        }
+        return load;
+    }
+
+    private int applyStop(int load, int stop, Direction sweep) {
+        load = Math.max(0, load - (stop < alightingAt.length ? alightingAt[stop] : 0));
+        if ((sweep == Direction.UP ? upHallCalls : downHallCalls).get(stop)) {
+            load += expectedBoarders(stop, sweep);
+        }
+        return load;
+    }
+
+    private int expectedBoarders(int floor, Direction direction) {
+        int boarders = 0;
+        for (int i = 0; i < bookingCount; i++) {
+            if (bookingOrigins[i] == floor && (bookingDestinations[i] > floor) == (direction == Direction.UP)) {
+                boarders++;
+            }
+        }
+        if (building != null && floor >= 1 && floor <= building.getFloors().size()) {
+            boarders += building.getFloor(floor).getPanel().getWaiting(direction);
+        }
+        return boarders;
+    }
+
+    // Ride times are measured from the first press of a floor's button until the car stops there
+    private void addCarCall(int floor) {
+        if (carCalls.get(floor)) {
+            return;
+        }
+        carCalls.set(floor);
+        if (floor >= carCallSince.length) {
+            carCallSince = Arrays.copyOf(carCallSince, Math.max(floor + 1, carCallSince.length * 2));
+        }
+        carCallSince[floor] = elevator.getMotionEngine().getClock().millis();
+    }
+
+    private void addAlighting(int floor, int riders) {
+        if (floor >= alightingAt.length) {
+            alightingAt = Arrays.copyOf(alightingAt, Math.max(floor + 1, alightingAt.length * 2));
+        }
+        alightingAt[floor] += riders;
+    }
+
+    // With an actor the work runs on the car's own thread; callers elsewhere only queue a wake-up for it
     public void processRequests() {
+        CarActor current = actor;
+        if (current != null && !current.isActorThread() && current.requestProcessing()) {
+            return;
+        }
+        while (true) {
+            int nextFloor;
+            synchronized (lock) {
+                if (parkingFloor != 0 && elevator.getState() == ElevatorState.MOVING) {
+                    redirectFromParking();
+                    return;
+                }
+                if (elevator.getState() == ElevatorState.MOVING) {
+                    stopEnRoute();
+                    return;
+                }
+                if (elevator.getState() != ElevatorState.IDLE) return;
+                // The doors shutting asks again
+                if (!elevator.getDoor().isClosed()) return;
+                parkingFloor = 0;
+                if (upStops.isEmpty() && downStops.isEmpty()) break;
+
+                nextFloor = getNextFloor();
+                if (nextFloor < 0) return;
+                if (nextFloor != elevator.getCurrentFloorNumber()) {
+                    moveToFloor(nextFloor);
+                    return;
+                }
+                if (!elevator.getDoor().isInstant()) {
+                    elevator.openDoors();
+                    return;
+                }
+            }
+            // Already standing at the requested floor: serve it in place and look for the next stop
+            onRequestCompleted(elevator, nextFloor);
+        }
+        if (!retire()) {
+            park();
+        }
+    }
+
+    // A car leaving service goes out once it stands idle with nothing left to serve
+    private boolean retire() {
+        synchronized (lock) {
+            ElevatorState state = retiringTo;
+            if (state == null) {
+                return false;
+            }
+            if (elevator.getState() == ElevatorState.IDLE && upStops.isEmpty() && downStops.isEmpty()) {
+                retiringTo = null;
+                elevator.changeState(state);
+                logger.info("Elevator #{} is now {}", elevator.getId(), state);
+            }
+            return true;
+        }
+    }
+
+    // Stops taking calls now and hands its hall calls to the rest of the fleet. Riders on board and passengers
+    // booked onto it at a destination keypad are still served, then the car goes to the given state.
+    public void takeOutOfService(ElevatorState state) {
+        if (state != ElevatorState.MAINTENANCE && state != ElevatorState.OUT_OF_SERVICE) {
+            throw new IllegalArgumentException("Not an out-of-service state: " + state);
+        }
         synchronized (lock) {
-            if (elevator.getState() != ElevatorState.IDLE || (upRequests.isEmpty() && downRequests.isEmpty())) return;
+            ElevatorState current = elevator.getState();
+            if (current == ElevatorState.OUT_OF_SERVICE || current == ElevatorState.MAINTENANCE) {
+                if (current != state) {
+                    elevator.changeState(state);
+                }
+                return;
+            }
+            retiringTo = state;
+            logger.info("Elevator #{} leaving service for {}", elevator.getId(), state);
+        }
+        releaseHallCalls();
+        processRequests();
+    }
+
+    // Back in service from maintenance or a fault; a car still on its way out stays in service
+    public void returnToService() {
+        synchronized (lock) {
+            retiringTo = null;
+            ElevatorState state = elevator.getState();
+            if (state == ElevatorState.OUT_OF_SERVICE || state == ElevatorState.MAINTENANCE) {
+                elevator.changeState(ElevatorState.IDLE);
+                logger.info("Elevator #{} back in service", elevator.getId());
+            }
+            resumeHeldCalls();
+        }
+        processRequests();
+    }
+
+    // Taking new hall calls: not out of service and not on its way out
+    public boolean isInService() {
+        ElevatorState state = elevator.getState();
+        return retiringTo == null && state != ElevatorState.OUT_OF_SERVICE && state != ElevatorState.MAINTENANCE;
+    }
+
+    // Floor this car is waiting at or parking towards, or -1 while it has work
+    public int getWaitingFloor() {
+        int parking = parkingFloor;
+        if (parking != 0) {
+            return parking;
+        }
+        synchronized (lock) {
+            if (elevator.getState() != ElevatorState.IDLE || !upStops.isEmpty() || !downStops.isEmpty()) {
+                return -1;
+            }
+            return elevator.getCurrentFloorNumber();
+        }
+    }
+
+    // The planner looks at the rest of the fleet, so it is asked outside this car's lock
+    private void park() {
+        ParkingPlanner planner = parkingPlanner;
+        if (planner == null) {
+            return;
+        }
+        int floor = planner.parkingFloor(elevator);
+        synchronized (lock) {
+            if (floor < 1 || floor == elevator.getCurrentFloorNumber() || elevator.getState() != ElevatorState.IDLE ||
+                !upStops.isEmpty() || !downStops.isEmpty()) {
+                return;
+            }
+            parkingFloor = floor;
+            if (logger.isDebugEnabled()) {
+                logger.debug("Elevator #{} parking at floor {}", elevator.getId(), floor);
+            }
+            moveToFloor(floor);
+        }
+    }
 
-            Integer nextFloor = getNextFloor();
-            if (nextFloor != null) {
-                moveToFloor(nextFloor);
+    // A call came in on the way to a parking floor: go straight to it instead. A stop at the floor just passed
+    // cannot be turned back for, so that one waits for the parking trip to end.
+    private void redirectFromParking() {
+        if (upStops.isEmpty() && downStops.isEmpty()) {
+            return;
+        }
+        int nextFloor = getNextFloor();
+        if (nextFloor < 0 || nextFloor == elevator.getCurrentFloorNumber()) {
+            return;
+        }
+        parkingFloor = 0;
+        moveToFloor(nextFloor);
+    }
+    // Checked on every floor crossing and every new call while the car moves. The scheduler is asked for the next
+    // stop from the nearest floor the car can still brake for, so only a stop it would serve in its current direction
+    // ahead of the destination cuts the move short. The destination stays a stop and is picked again after this one.
+    void stopEnRoute() {
+        synchronized (lock) {
+            if (!enRouteStops || parkingFloor != 0 || elevator.getState() != ElevatorState.MOVING) {
+                return;
+            }
+            int from = elevator.getStoppingFloor();
+            if (from < 1 || (upStops.isEmpty() && downStops.isEmpty())) {
+                return;
+            }
+            int stop = scheduler.nextStop(from, elevator.getDirection(), upStops, downStops, getTopFloor());
+            if (stop >= 0 && elevator.stopOnTheWay(stop) && logger.isDebugEnabled()) {
+                logger.debug("Elevator #{} stopping on the way at floor {}", elevator.getId(), stop);
             }
         }
     }
+
     private void moveToFloor(int destinationFloor) {
         elevator.moveToFloor(destinationFloor);
     }
 
-    private Integer getNextFloor() {
-        Direction direction = elevator.getDirection();
-        // SCAN algorithm: continue in current direction, then switch
-        if (direction == Direction.UP || direction == null) {
-            if (!upRequests.isEmpty()) {
-                return upRequests.poll();
-            }
-            if (!downRequests.isEmpty()) {
+    // Next floor to travel to, or -1 when nothing is pending. Stops stay queued until completeStop serves them.
+    public int getNextFloor() {
+        synchronized (lock) {
+            int currentFloor = elevator.getCurrentFloorNumber();
+            int nextFloor = scheduler.nextStop(currentFloor, elevator.getDirection(), upStops, downStops, getTopFloor());
+            if (nextFloor > currentFloor) {
+                elevator.setDirection(Direction.UP);
+            } else if (nextFloor >= 0 && nextFloor < currentFloor) {
                 elevator.setDirection(Direction.DOWN);
-                return downRequests.poll();
             }
-        } else { // direction == Direction.DOWN
-            if (!downRequests.isEmpty()) {
-                return downRequests.poll();
+            return nextFloor;
+        }
+    }
+
+    private int getTopFloor() {
+        int floors = elevator.getElevatorPanel().getTopFloor();
+        return floors > 0 ? floors : Math.max(upStops.length(), downStops.length()) - 1;
+    }
+
+    private boolean hasStopsBeyond(int floor, boolean goingDown) {
+        if (goingDown) {
+            return upStops.previousSetBit(floor - 1) >= 0 || downStops.previousSetBit(floor - 1) >= 0;
+        }
+        return upStops.nextSetBit(floor + 1) >= 0 || downStops.nextSetBit(floor + 1) >= 0;
+    }
+
+    // Answering, or holding until it has room, this hall call
+    public boolean hasHallCall(int floor, Direction direction) {
+        synchronized (lock) {
+            return direction == Direction.UP ? upHallCalls.get(floor) || heldUpCalls.get(floor)
+                    : downHallCalls.get(floor) || heldDownCalls.get(floor);
+        }
+    }
+
+    // Waiting this car would add across its stops if given the hall call; see RouteCost
+    // A car at the floor with its doors open costs nothing more; one standing elsewhere first has to shut them
+    public long hallCallCost(int floor, Direction direction, RouteCost routeCost) {
+        synchronized (lock) {
+            int position = elevator.getCurrentFloorNumber();
+            boolean moving = elevator.getState() == ElevatorState.MOVING;
+            long cost = routeCost.insertionCost(position, elevator.getDirection(), moving, upStops, downStops,
+                    floor, direction);
+            if (moving || floor == position) {
+                return cost;
             }
-            if (!upRequests.isEmpty()) {
-                elevator.setDirection(Direction.UP);
-                return upRequests.poll();
+            return cost + elevator.getDoor().remainingMillis(elevator.getMotionEngine().getClock().millis());
+        }
+    }
+
+    // Floors and directions the car still has to stop for
+    public int getPendingStops() {
+        synchronized (lock) {
+            return upStops.cardinality() + downStops.cardinality();
+        }
+    }
+
+    public boolean hasStop(int floor) {
+        synchronized (lock) {
+            return upStops.get(floor) || downStops.get(floor);
+        }
+    }
+
+    // Every passenger riding to this floor gets off. Hall calls are served in the car's direction of travel;
+    // calls the other way are served too when the car turns around here or came here only to turn around.
+    // Waiting passengers board up to capacity; once full, the car hands its other hall calls to the rest of the fleet.
+    public void completeStop(int floor) {
+        boolean upHallCall = false;
+        boolean downHallCall = false;
+        int alighted;
+        int upBoarded;
+        int downBoarded;
+        synchronized (lock) {
+            boolean goingDown = elevator.getDirection() == Direction.DOWN;
+            BitSet aheadStops = goingDown ? downStops : upStops;
+            BitSet reverseStops = goingDown ? upStops : downStops;
+            boolean servedAhead = aheadStops.get(floor);
+            aheadStops.clear(floor);
+            boolean servedReverse = (!servedAhead || !hasStopsBeyond(floor, goingDown)) && reverseStops.get(floor);
+            if (servedReverse) {
+                reverseStops.clear(floor);
+            }
+            if (goingDown ? servedAhead : servedReverse) {
+                downHallCall = downHallCalls.get(floor);
+                downHallCalls.clear(floor);
+            }
+            if (goingDown ? servedReverse : servedAhead) {
+                upHallCall = upHallCalls.get(floor);
+                upHallCalls.clear(floor);
+            }
+            journal(JournalRecordType.STOP_COMPLETED, floor,
+                    (upHallCall ? 1 : 0) | (downHallCall ? 2 : 0), elevator.getDirection());
+            alighted = floor < alightingAt.length ? elevator.alight(alightingAt[floor]) : 0;
+            if (floor < alightingAt.length) {
+                alightingAt[floor] = 0;
+            }
+            ElevatorMetrics current = metrics;
+            if (current != null) {
+                current.getStops().increment();
+                if (alighted > 0 && carCalls.get(floor)) {
+                    current.getRideTime().record(elevator.getMotionEngine().getClock().millis() - carCallSince[floor],
+                            alighted);
+                }
+            }
+            carCalls.clear(floor);
+            if (carCalls.isEmpty()) {
+                // Nobody left on board has a floor to go to
+                alighted += elevator.alight(elevator.getCurrentLoad());
+                Arrays.fill(alightingAt, 0);
+            }
+            upBoarded = upHallCall ? boardBookings(floor, true) : 0;
+            downBoarded = downHallCall ? boardBookings(floor, false) : 0;
+            // What is left at this floor is hall calls still waiting for the other direction
+            upStops.set(floor, upHallCalls.get(floor));
+            downStops.set(floor, downHallCalls.get(floor));
+        }
+        // Buttons are reset outside the lock; HallPanel dispatches into addRequest while holding its own state
+        ElevatorButton floorButton = elevator.getElevatorPanel().getFloorButton(floor);
+        if (floorButton != null) {
+            floorButton.reset();
+        }
+        if (building != null && floor >= 1 && floor <= building.getFloors().size()) {
+            HallPanel hallPanel = building.getFloor(floor).getPanel();
+            if (upHallCall) {
+                upBoarded += boardWaiting(hallPanel, floor, Direction.UP);
+            }
+            if (downHallCall) {
+                downBoarded += boardWaiting(hallPanel, floor, Direction.DOWN);
+            }
+        }
+        if (getAvailableRoom() <= 0) {
+            releaseHallCalls();
+        } else {
+            resumeHeldCalls();
+        }
+        if (alighted > 0) {
+            onPassengersAlighted(elevator, floor, alighted);
+        }
+        if (upBoarded > 0) {
+            onPassengersBoarded(elevator, floor, Direction.UP, upBoarded);
+        }
+        if (downBoarded > 0) {
+            onPassengersBoarded(elevator, floor, Direction.DOWN, downBoarded);
+        }
+    }
+
+    // Bookings waiting here for the served direction get on; their destinations become stops
+    private int boardBookings(int floor, boolean up) {
+        int boarded = 0;
+        int kept = 0;
+        for (int i = 0; i < bookingCount; i++) {
+            int destination = bookingDestinations[i];
+            if (bookingOrigins[i] == floor && (destination > floor) == up && elevator.board(1) == 1) {
+                (up ? upStops : downStops).set(destination);
+                addCarCall(destination);
+                addAlighting(destination, 1);
+                boarded++;
+                continue;
+            }
+            bookingOrigins[kept] = bookingOrigins[i];
+            bookingDestinations[kept] = destination;
+            kept++;
+        }
+        bookingCount = kept;
+        return boarded;
+    }
+
+    private int boardWaiting(HallPanel hallPanel, int floor, Direction direction) {
+        int boarded = elevator.board(hallPanel.callServed(direction, elevator, getAvailableRoom()));
+        if (hallPanel.getWaiting(direction) > 0 && !hallPanel.reassign(direction, elevator)) {
+            holdHallCall(floor, direction);
+        }
+        return boarded;
+    }
+
+    // A full car, or one leaving service, stops only for its riders and bookings; every other hall call goes to
+    // another car now
+    private void releaseHallCalls() {
+        BitSet releasedUp;
+        BitSet releasedDown;
+        synchronized (lock) {
+            releasedUp = (BitSet) upHallCalls.clone();
+            releasedDown = (BitSet) downHallCalls.clone();
+            if (retiringTo != null) {
+                releasedUp.or(heldUpCalls);
+                releasedDown.or(heldDownCalls);
+                heldUpCalls.clear();
+                heldDownCalls.clear();
+            }
+            for (int i = 0; i < bookingCount; i++) {
+                (bookingDestinations[i] > bookingOrigins[i] ? releasedUp : releasedDown).clear(bookingOrigins[i]);
             }
+            upHallCalls.andNot(releasedUp);
+            downHallCalls.andNot(releasedDown);
+            for (int floor = releasedUp.nextSetBit(0); floor >= 0; floor = releasedUp.nextSetBit(floor + 1)) {
+                upStops.set(floor, carCalls.get(floor));
+                journal(JournalRecordType.RELEASED, floor, 0, Direction.UP);
+            }
+            for (int floor = releasedDown.nextSetBit(0); floor >= 0; floor = releasedDown.nextSetBit(floor + 1)) {
+                downStops.set(floor, carCalls.get(floor));
+                journal(JournalRecordType.RELEASED, floor, 0, Direction.DOWN);
+            }
+        }
+        handOver(releasedUp, Direction.UP);
+        handOver(releasedDown, Direction.DOWN);
+    }
+
+    private void handOver(BitSet floors, Direction direction) {
+        for (int floor = floors.nextSetBit(0); floor >= 0; floor = floors.nextSetBit(floor + 1)) {
+            handOver(floor, direction);
         }
-        return null;
     }
 
+    // Nobody else free to take it: the call is held here, for when the car has room or is back in service, and
+    // a HallCallOptimizer pass can still move it on
+    private void handOver(int floor, Direction direction) {
+        if (building == null || floor < 1 || floor > building.getFloors().size()) {
+            holdHallCall(floor, direction);
+        } else if (!building.getFloor(floor).getPanel().reassign(direction, elevator)) {
+            logger.warn("No other car can take floor {} {}; Elevator #{} keeps it until it can serve it",
+                    floor, direction, elevator.getId());
+            holdHallCall(floor, direction);
+        }
+    }
+
+    // Lets go of a hall call another car has taken over; the stop stays for riders getting off there
+    public boolean withdrawHallCall(int floor, Direction direction) {
+        synchronized (lock) {
+            boolean up = direction == Direction.UP;
+            BitSet calls = up ? upHallCalls : downHallCalls;
+            BitSet held = up ? heldUpCalls : heldDownCalls;
+            if (!calls.get(floor) && !held.get(floor)) {
+                return false;
+            }
+            held.clear(floor);
+            // A booked passenger waits at the same button; the car still has to stop for them
+            for (int i = 0; i < bookingCount; i++) {
+                if (bookingOrigins[i] == floor && bookingDestinations[i] > floor == up) {
+                    return true;
+                }
+            }
+            if (calls.get(floor)) {
+                calls.clear(floor);
+                (up ? upStops : downStops).set(floor, carCalls.get(floor));
+            }
+            journal(JournalRecordType.RELEASED, floor, 0, direction);
+            return true;
+        }
+    }
+
+    private void holdHallCall(int floor, Direction direction) {
+        synchronized (lock) {
+            (direction == Direction.UP ? heldUpCalls : heldDownCalls).set(floor);
+            journal(JournalRecordType.HELD, floor, 0, direction);
+        }
+    }
+
+    private void resumeHeldCalls() {
+        synchronized (lock) {
+            upStops.or(heldUpCalls);
+            upHallCalls.or(heldUpCalls);
+            downStops.or(heldDownCalls);
+            downHallCalls.or(heldDownCalls);
+            heldUpCalls.clear();
+            heldDownCalls.clear();
+        }
+    }
+
+    public void setBuilding(Building building) {
+        this.building = building;
+        addInlineObserver(building.getSystem().getFleetIndex());
+        addInlineObserver(building.getDisplayBoard());
+    }
+
+    public void setEventBus(EventBus eventBus) {
+        synchronized (pendingObservers) {
+            this.eventBus = eventBus;
+            for (ElevatorObserver observer : pendingObservers) {
+                eventBus.observe(elevator, observer);
+            }
+            pendingObservers.clear();
+        }
+    }
+
+    // The observer gets this car's events from the event bus, on a thread of its own, so a slow one never holds
+    // up the car
     public void addObserver(ElevatorObserver observer) {
-        observers.add(observer);
+        synchronized (pendingObservers) {
+            if (eventBus == null) {
+                pendingObservers.add(observer);
+            } else {
+                eventBus.observe(elevator, observer);
+            }
+        }
     }
 
     public void removeObserver(ElevatorObserver observer) {
-        observers.remove(observer);
+        synchronized (pendingObservers) {
+            if (eventBus == null) {
+                pendingObservers.remove(observer);
+            } else {
+                eventBus.stopObserving(elevator, observer);
+            }
+        }
+    }
+
+    void addInlineObserver(ElevatorObserver observer) {
+        synchronized (observers) {
+            observers.add(observer);
+            observerArray = observers.toArray(new ElevatorObserver[0]);
+        }
     }
 
     @Override
     public void onElevatorStateChanged(ElevatorCar elevator, ElevatorState newState) {
-        observers.forEach(obs -> {
+        for (ElevatorObserver obs : observerArray) {
             try {
                 obs.onElevatorStateChanged(elevator, newState);
             } catch (Exception e) {
                 logger.error("Error notifying observer: {}", e.getMessage());
             }
-        });
+        }
+        journal(JournalRecordType.STATE_CHANGED, elevator.getCurrentFloorNumber(), 0, elevator.getDirection(), newState);
+        publish(EventType.STATE_CHANGED, elevator, elevator.getCurrentFloorNumber(), newState, elevator.getDirection(), 0);
     }
 
     @Override
     public void onFloorChanged(ElevatorCar elevator, int newFloor) {
-        observers.forEach(obs -> {
+        for (ElevatorObserver obs : observerArray) {
             try {
                 obs.onFloorChanged(elevator, newFloor);
             } catch (Exception e) {
                 logger.error("Error notifying observer: {}", e.getMessage());
             }
-        });
+        }
+        journal(JournalRecordType.FLOOR_CHANGED, newFloor, 0, elevator.getDirection());
+        publish(EventType.FLOOR_CHANGED, elevator, newFloor, elevator.getState(), elevator.getDirection(), 0);
+    }
+
+    @Override
+    public void onPassengersBoarded(ElevatorCar elevator, int floor, Direction direction, int count) {
+        for (ElevatorObserver obs : observerArray) {
+            try {
+                obs.onPassengersBoarded(elevator, floor, direction, count);
+            } catch (Exception e) {
+                logger.error("Error notifying observer: {}", e.getMessage());
+            }
+        }
+        journal(JournalRecordType.PASSENGERS_BOARDED, floor, elevator.getCurrentLoad(), direction);
+        publish(EventType.PASSENGERS_BOARDED, elevator, floor, elevator.getState(), direction, count);
+    }
+
+    @Override
+    public void onPassengersAlighted(ElevatorCar elevator, int floor, int count) {
+        for (ElevatorObserver obs : observerArray) {
+            try {
+                obs.onPassengersAlighted(elevator, floor, count);
+            } catch (Exception e) {
+                logger.error("Error notifying observer: {}", e.getMessage());
+            }
+        }
+        journal(JournalRecordType.PASSENGERS_ALIGHTED, floor, elevator.getCurrentLoad(), elevator.getDirection());
+        publish(EventType.PASSENGERS_ALIGHTED, elevator, floor, elevator.getState(), elevator.getDirection(), count);
     }
 
     @Override
     public void onRequestCompleted(ElevatorCar elevator, int floor) {
-        observers.forEach(obs -> {
+        completeStop(floor);
+        for (ElevatorObserver obs : observerArray) {
             try {
                 obs.onRequestCompleted(elevator, floor);
             } catch (Exception e) {
                 logger.error("Error notifying observer: {}", e.getMessage());
             }
-        });
+        }
+        publish(EventType.REQUEST_COMPLETED, elevator, floor, elevator.getState(), elevator.getDirection(), 0);
+    }
+
+    private void publish(EventType type, ElevatorCar elevator, int floor, ElevatorState state, Direction direction,
+                         int count) {
+        EventBus bus = eventBus;
+        if (bus != null) {
+            bus.publish(type, elevator, floor, state, direction, count);
+        }
+    }
+
+    private void journal(JournalRecordType type, int floor, int value, Direction direction) {
+        journal(type, floor, value, direction, elevator.getState());
+    }
+
+    private void journal(JournalRecordType type, int floor, int value, Direction direction, ElevatorState state) {
+        TripJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.append(type, elevator.getMotionEngine().getClock().millis(), elevator.getId(), floor, value,
+                    direction, state);
+        } catch (RuntimeException e) {
+            logger.error("Error writing journal record {}: {}", type, e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
@@ -3,25 +3,15 @@ package org.deepak.dto;
 import lombok.Getter;
 import org.deepak.dto.panels.HallPanel;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.List;
-import java.util.Map;
-
 @Getter
 public class Floor {
     private final int floorNumber;
-    private final Map<Integer,Display> display;
+    private final HallDisplay display;
     private final HallPanel panel;
 
-    public Floor(int floorNumber){
-        this.display = new ConcurrentHashMap<>();
-        this.panel = new HallPanel(floorNumber);
+    public Floor(int floorNumber, Building building){
+        this.display = new HallDisplay(floorNumber, building.getDisplayBoard());
+        this.panel = new HallPanel(floorNumber, building.getSystem());
         this.floorNumber= floorNumber;
     }
-    
-    public void addDisplay(int noOfDisplays){
-        for(int i=0;i<noOfDisplays;i++){
-            display.put(i+1 ,new Display(i+1));
-        }
-    }
 }
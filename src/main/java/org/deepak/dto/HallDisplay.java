@@ -0,0 +1,47 @@
+package org.deepak.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.deepak.interfaces.Clock;
+
+// Floor display for every car, rebuilt from the display board at most once per refresh interval
+public class HallDisplay {
+    public static final long DEFAULT_REFRESH_MILLIS = 250;
+    @Getter
+    private final int floorNumber;
+    private final DisplayBoard board;
+    @Getter
+    @Setter
+    private volatile long refreshMillis = DEFAULT_REFRESH_MILLIS;
+    private String rendered;
+    private long renderedVersion;
+    private long renderedAt;
+
+    public HallDisplay(int floorNumber, DisplayBoard board) {
+        this.floorNumber = floorNumber;
+        this.board = board;
+    }
+
+    public Display getDisplay(int elevatorId) {
+        return board.getDisplay(elevatorId);
+    }
+
+    // Returns the last rendering when nothing changed or the refresh interval has not passed yet
+    public synchronized String render() {
+        Clock clock = board.getClock();
+        long now = clock.millis();
+        long version = board.getVersion();
+        if (rendered != null && (version == renderedVersion || now - renderedAt < refreshMillis)) {
+            return rendered;
+        }
+        StringBuilder text = new StringBuilder("Floor ").append(floorNumber).append(':');
+        for (int carId : board.getCarIds()) {
+            text.append(' ');
+            board.getDisplay(carId).appendTo(text);
+        }
+        rendered = text.toString();
+        renderedVersion = version;
+        renderedAt = now;
+        return rendered;
+    }
+}
@@ -11,9 +11,13 @@ public class Request implements Comparable<Request> {
     private final boolean isInternal;
 
     public Request(int floor, Direction direction, boolean isInternal) {
+        this(floor, direction, isInternal, System.currentTimeMillis());
+    }
+
+    public Request(int floor, Direction direction, boolean isInternal, long timestamp) {
         this.floor = floor;
         this.direction = direction;
-        this.timestamp = System.currentTimeMillis();
+        this.timestamp = timestamp;
         this.isInternal = isInternal;
     }
 
@@ -0,0 +1,174 @@
+package org.deepak.dto;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Stop floors, with a Fenwick tree of the same bits kept alongside so the stops between any two floors are counted
+// in O(log floors). Every mutator keeps the two in step; reads are the plain BitSet ones.
+public class StopSet extends BitSet {
+    private static final long serialVersionUID = 1L;
+
+    private transient int[] tree = new int[65]; // Fenwick tree over floor numbers, floor f at index f + 1
+
+    public StopSet() {
+        super();
+    }
+
+    // Stops on floors from..to inclusive, in either order; floors outside the set's range count as empty
+    public int countBetween(int from, int to) {
+        int low = Math.max(Math.min(from, to), 0);
+        int high = Math.max(from, to);
+        if (high < low) {
+            return 0;
+        }
+        return prefix(high) - prefix(low - 1);
+    }
+
+    // Stops on floors 0..floor
+    private int prefix(int floor) {
+        int sum = 0;
+        for (int i = Math.min(floor + 1, tree.length - 1); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private void add(int floor, int delta) {
+        if (floor + 1 >= tree.length) {
+            // Only a newly set floor can be out of range, and the rebuild counts it already
+            grow(floor + 1);
+            return;
+        }
+        for (int i = floor + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Rebuilt in linear time from the bits, which already hold the new floor's neighbours
+    private void grow(int index) {
+        int size = tree.length;
+        while (size <= index) {
+            size *= 2;
+        }
+        tree = new int[size];
+        for (int floor = nextSetBit(0); floor >= 0 && floor + 1 < size; floor = nextSetBit(floor + 1)) {
+            tree[floor + 1]++;
+        }
+        for (int i = 1; i < size; i++) {
+            int parent = i + (i & -i);
+            if (parent < size) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    @Override
+    public void set(int floor) {
+        if (!get(floor)) {
+            super.set(floor);
+            add(floor, 1);
+        }
+    }
+
+    @Override
+    public void clear(int floor) {
+        if (get(floor)) {
+            super.clear(floor);
+            add(floor, -1);
+        }
+    }
+
+    @Override
+    public void set(int floor, boolean value) {
+        if (value) {
+            set(floor);
+        } else {
+            clear(floor);
+        }
+    }
+
+    @Override
+    public void flip(int floor) {
+        set(floor, !get(floor));
+    }
+
+    @Override
+    public void set(int fromFloor, int toFloor) {
+        for (int floor = fromFloor; floor < toFloor; floor++) {
+            set(floor);
+        }
+    }
+
+    @Override
+    public void set(int fromFloor, int toFloor, boolean value) {
+        for (int floor = fromFloor; floor < toFloor; floor++) {
+            set(floor, value);
+        }
+    }
+
+    @Override
+    public void clear(int fromFloor, int toFloor) {
+        for (int floor = nextSetBit(fromFloor); floor >= 0 && floor < toFloor; floor = nextSetBit(floor + 1)) {
+            clear(floor);
+        }
+    }
+
+    @Override
+    public void flip(int fromFloor, int toFloor) {
+        for (int floor = fromFloor; floor < toFloor; floor++) {
+            flip(floor);
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        Arrays.fill(tree, 0);
+    }
+
+    @Override
+    public void or(BitSet other) {
+        for (int floor = other.nextSetBit(0); floor >= 0; floor = other.nextSetBit(floor + 1)) {
+            set(floor);
+        }
+    }
+
+    @Override
+    public void and(BitSet other) {
+        for (int floor = nextSetBit(0); floor >= 0; floor = nextSetBit(floor + 1)) {
+            if (!other.get(floor)) {
+                clear(floor);
+            }
+        }
+    }
+
+    @Override
+    public void andNot(BitSet other) {
+        for (int floor = other.nextSetBit(0); floor >= 0; floor = other.nextSetBit(floor + 1)) {
+            clear(floor);
+        }
+    }
+
+    @Override
+    public void xor(BitSet other) {
+        for (int floor = other.nextSetBit(0); floor >= 0; floor = other.nextSetBit(floor + 1)) {
+            flip(floor);
+        }
+    }
+
+    // Only the bits are serialized; the tree is rebuilt from them
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        tree = new int[65];
+        grow(length());
+    }
+
+    @Override
+    public Object clone() {
+        StopSet copy = (StopSet) super.clone();
+        copy.tree = tree.clone();
+        return copy;
+    }
+}
@@ -0,0 +1,122 @@
+package org.deepak.dto.dispatcher;
+
+import lombok.Getter;
+import org.deepak.dto.Request;
+import org.deepak.enums.Direction;
+
+import java.util.Arrays;
+
+// Hall calls seen per floor and direction in time-of-day buckets. A bucket's counts are decayed once for every
+// day that passed since it was last touched, so recent days weigh most and a change in the building's routine
+// takes over within a few days.
+public class DemandModel {
+    public static final long DAY_MILLIS = 24 * 3_600_000L;
+    public static final long DEFAULT_BUCKET_MILLIS = 15 * 60_000L;
+    public static final float DEFAULT_DAILY_DECAY = 0.7f;
+
+    @Getter
+    private final long bucketMillis;
+    @Getter
+    private final float dailyDecay;
+    private final int buckets;
+    private int floors; // Highest floor the rows are sized for
+    private float[] counts; // [bucket][floor][direction]
+    private final long[] bucketDays; // Day each bucket was last decayed to
+    @Getter
+    private long observed;
+
+    public DemandModel() {
+        this(DEFAULT_BUCKET_MILLIS, DEFAULT_DAILY_DECAY);
+    }
+
+    public DemandModel(long bucketMillis, float dailyDecay) {
+        if (bucketMillis <= 0 || DAY_MILLIS % bucketMillis != 0) {
+            throw new IllegalArgumentException("Bucket length must divide a day: " + bucketMillis);
+        }
+        if (dailyDecay <= 0 || dailyDecay >= 1) {
+            throw new IllegalArgumentException("Daily decay must be between 0 and 1: " + dailyDecay);
+        }
+        this.bucketMillis = bucketMillis;
+        this.dailyDecay = dailyDecay;
+        this.buckets = (int) (DAY_MILLIS / bucketMillis);
+        this.floors = 0;
+        this.counts = new float[buckets * 2];
+        this.bucketDays = new long[buckets];
+    }
+
+    // Car calls say nothing about where passengers wait, so only hall calls are counted
+    public void record(Request request) {
+        if (!request.isInternal()) {
+            record(request.getFloor(), request.getDirection(), request.getTimestamp());
+        }
+    }
+
+    public synchronized void record(int floor, Direction direction, long timestamp) {
+        if (floor < 1) {
+            return;
+        }
+        if (floor > floors) {
+            grow(floor);
+        }
+        int bucket = decayTo(timestamp);
+        counts[index(bucket, floor, direction)]++;
+        observed++;
+    }
+
+    // Calls expected from this floor and direction in the bucket holding the timestamp, on a typical recent day
+    public synchronized double expectedCalls(int floor, Direction direction, long timestamp) {
+        if (floor < 1 || floor > floors) {
+            return 0;
+        }
+        int bucket = decayTo(timestamp);
+        return counts[index(bucket, floor, direction)] * (1 - dailyDecay);
+    }
+
+    // Both directions together, indexed by floor number; slot 0 is unused
+    public synchronized double[] expectedCallsByFloor(long timestamp, int floorCount) {
+        double[] demand = new double[floorCount + 1];
+        int bucket = decayTo(timestamp);
+        for (int floor = 1; floor <= Math.min(floorCount, floors); floor++) {
+            int index = index(bucket, floor, Direction.UP);
+            demand[floor] = (counts[index] + counts[index + 1]) * (1 - dailyDecay);
+        }
+        return demand;
+    }
+
+    private int decayTo(long timestamp) {
+        long day = Math.floorDiv(timestamp, DAY_MILLIS);
+        int bucket = (int) (Math.floorMod(timestamp, DAY_MILLIS) / bucketMillis);
+        long elapsed = day - bucketDays[bucket];
+        if (elapsed > 0) {
+            float factor = (float) Math.pow(dailyDecay, Math.min(elapsed, 64));
+            int from = index(bucket, 0, Direction.UP);
+            int to = from + (floors + 1) * 2;
+            for (int i = from; i < to; i++) {
+                counts[i] *= factor;
+            }
+            bucketDays[bucket] = day;
+        }
+        return bucket;
+    }
+
+    private int index(int bucket, int floor, Direction direction) {
+        return (bucket * (floors + 1) + floor) * 2 + (direction == Direction.UP ? 0 : 1);
+    }
+
+    private void grow(int floor) {
+        int newFloors = Math.max(floor, floors * 2);
+        float[] grown = new float[buckets * (newFloors + 1) * 2];
+        int oldRow = (floors + 1) * 2;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            System.arraycopy(counts, bucket * oldRow, grown, bucket * (newFloors + 1) * 2, oldRow);
+        }
+        counts = grown;
+        floors = newFloors;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(bucketDays, 0);
+        observed = 0;
+    }
+}
@@ -0,0 +1,69 @@
+package org.deepak.dto.dispatcher;
+
+import org.deepak.ElevatorSystem;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.dto.ElevatorController;
+import org.deepak.enums.Direction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class DestinationDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(DestinationDispatcher.class);
+    private final ElevatorSystem elevatorSystem;
+
+    public DestinationDispatcher(ElevatorSystem elevatorSystem) {
+        this.elevatorSystem = elevatorSystem;
+    }
+
+    public ElevatorCar submitDestinationRequest(int originFloor, int destinationFloor) {
+        if (originFloor < 1 || destinationFloor < 1 || originFloor == destinationFloor) {
+            throw new IllegalArgumentException("Invalid destination call: " + originFloor + " -> " + destinationFloor);
+        }
+        elevatorSystem.getDemandModel().record(originFloor, destinationFloor > originFloor ? Direction.UP : Direction.DOWN,
+                elevatorSystem.getClock().millis());
+        // Group with a car already collecting at this floor, preferring one already booked to the same destination
+        ElevatorController group = null;
+        int groupFit = 0;
+        for (ElevatorController controller : elevatorSystem.getControllers()) {
+            if (!serves(controller, originFloor, destinationFloor)) {
+                continue;
+            }
+            int fit = controller.destinationGroupFit(originFloor, destinationFloor);
+            if (fit > groupFit) {
+                group = controller;
+                groupFit = fit;
+                if (fit == 2) {
+                    break;
+                }
+            }
+        }
+        if (group != null && group.addDestinationCall(originFloor, destinationFloor)) {
+            return assigned(group.getElevator(), originFloor, destinationFloor);
+        }
+
+        Direction direction = destinationFloor > originFloor ? Direction.UP : Direction.DOWN;
+        ElevatorCar elevatorCar = elevatorSystem.selectBestElevatorCar(originFloor, direction, destinationFloor);
+        if (elevatorCar.getController().addDestinationCall(originFloor, destinationFloor)) {
+            return assigned(elevatorCar, originFloor, destinationFloor);
+        }
+        // Best-scoring car is fully booked; take any car that still has room
+        for (ElevatorController controller : elevatorSystem.getControllers()) {
+            if (serves(controller, originFloor, destinationFloor) &&
+                controller.addDestinationCall(originFloor, destinationFloor)) {
+                return assigned(controller.getElevator(), originFloor, destinationFloor);
+            }
+        }
+        throw new RuntimeException("No available elevator for request");
+    }
+
+    private static boolean serves(ElevatorController controller, int originFloor, int destinationFloor) {
+        return controller.getElevator().serves(originFloor) && controller.getElevator().serves(destinationFloor);
+    }
+
+    private ElevatorCar assigned(ElevatorCar elevatorCar, int originFloor, int destinationFloor) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Destination call {} -> {} assigned to Elevator #{}", originFloor, destinationFloor, elevatorCar.getId());
+        }
+        return elevatorCar;
+    }
+}
@@ -0,0 +1,38 @@
+package org.deepak.dto.dispatcher;
+
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+
+public final class ElevatorScore {
+    public static final int IDLE_BONUS = 50;
+    public static final int DIRECTION_BONUS = 30;
+    public static final int LOAD_WEIGHT = 5;
+
+    private ElevatorScore() {
+    }
+
+    // Lower is better
+    public static int calculate(int currentFloor, ElevatorState state, Direction elevatorDirection,
+                                int currentLoad, int destinationFloor, Direction direction) {
+        int distance = Math.abs(destinationFloor - currentFloor);
+        int score = distance;
+
+        // Prefer idle elevators
+        if (state == ElevatorState.IDLE) {
+            score -= IDLE_BONUS;
+        }
+
+        // Prefer elevators moving in same direction and can serve the request
+        if (elevatorDirection == direction) {
+            if ((direction == Direction.UP && currentFloor <= destinationFloor) ||
+                (direction == Direction.DOWN && currentFloor >= destinationFloor)) {
+                score -= DIRECTION_BONUS;
+            }
+        }
+
+        // Consider load factor
+        score += (currentLoad * LOAD_WEIGHT);
+
+        return score;
+    }
+}
@@ -0,0 +1,69 @@
+package org.deepak.dto.dispatcher;
+
+import lombok.Getter;
+import org.deepak.ElevatorSystem;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.dto.ElevatorController;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.deepak.interfaces.DispatchStrategy;
+
+import java.util.BitSet;
+import java.util.List;
+
+// Gives each hall call to the car that adds the least waiting across the building: the caller's time to arrival
+// through the car's committed stops, plus the delay to everyone whose stop comes after it. Every eligible car is
+// priced, each in O(log floors) against its controller's route model.
+public class EtaDispatchStrategy implements DispatchStrategy {
+    private final ElevatorSystem elevatorSystem;
+    @Getter
+    private final RouteCost routeCost;
+
+    public EtaDispatchStrategy(ElevatorSystem elevatorSystem) {
+        this(elevatorSystem, new RouteCost(elevatorSystem.getMotionEngine().getFloorTravelMillis()));
+    }
+
+    public EtaDispatchStrategy(ElevatorSystem elevatorSystem, RouteCost routeCost) {
+        this.elevatorSystem = elevatorSystem;
+        this.routeCost = routeCost;
+    }
+
+    // A car whose predicted load leaves no room at the call is passed over for the next cheapest
+    @Override
+    public ElevatorCar select(int floor, Direction direction, int destinationFloor) {
+        List<ElevatorController> controllers = elevatorSystem.getControllers();
+        BitSet excluded = null;
+        while (true) {
+            ElevatorController best = null;
+            int bestIndex = -1;
+            long bestCost = Long.MAX_VALUE;
+            for (int i = 0; i < controllers.size(); i++) {
+                if (excluded != null && excluded.get(i)) {
+                    continue;
+                }
+                ElevatorController controller = controllers.get(i);
+                ElevatorCar car = controller.getElevator();
+                ElevatorState state = car.getState();
+                if (state == ElevatorState.OUT_OF_SERVICE || state == ElevatorState.MAINTENANCE ||
+                    !car.servesCall(floor, direction) ||
+                    (destinationFloor >= 0 && !car.serves(destinationFloor)) ||
+                    !car.hasCapacity()) {
+                    continue;
+                }
+                long cost = controller.hallCallCost(floor, direction, routeCost);
+                if (cost < bestCost) {
+                    best = controller;
+                    bestIndex = i;
+                    bestCost = cost;
+                }
+            }
+            if (best == null || best.canTakeHallCall(floor, direction)) {
+                return best == null ? null : best.getElevator();
+            }
+            if (excluded == null) {
+                excluded = new BitSet();
+            }
+            excluded.set(bestIndex);
+        }
+    }
+}
@@ -2,24 +2,42 @@ package org.deepak.dto.dispatcher;
 
 import org.deepak.dto.ElevatorCar;
 import org.deepak.ElevatorSystem;
-import org.deepak.dto.Request;
 import org.deepak.enums.Direction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletableFuture;
+
 public class ExternalDispatcher {
     private static final Logger logger = LoggerFactory.getLogger(ExternalDispatcher.class);
+    private final ElevatorSystem elevatorSystem;
+
+    public ExternalDispatcher(ElevatorSystem elevatorSystem) {
+        this.elevatorSystem = elevatorSystem;
+    }
+
     public ElevatorCar submitExternalRequest(int destinationFloor, Direction direction) {
-        ElevatorSystem elevatorSystem = ElevatorSystem.getInstance();
         ElevatorCar elevatorCar = elevatorSystem.selectBestElevatorCar(destinationFloor, direction);
+        return assign(elevatorCar, destinationFloor, direction);
+    }
+
+    // Queues the call on the system's hall call intake; assignment happens in batches on its dispatcher thread
+    public CompletableFuture<ElevatorCar> submitExternalRequestAsync(int destinationFloor, Direction direction) {
+        return elevatorSystem.getHallCallIntake().submit(destinationFloor, direction);
+    }
+
+    // Runs on every hall press: no Request is built, and the log arguments are only boxed when debug is on
+    ElevatorCar assign(ElevatorCar elevatorCar, int destinationFloor, Direction direction) {
+        elevatorSystem.getDemandModel().record(destinationFloor, direction, elevatorCar.getMotionEngine().getClock().millis());
+        elevatorSystem.getMetrics().getHallCalls().increment();
+        elevatorCar.getController().addRequest(destinationFloor, direction, false);
         
-        Request request = new Request(destinationFloor, direction, false);
-        elevatorCar.getController().addRequest(request);
-        
-        if (elevatorCar.getCurrentFloorNumber() == destinationFloor) {
-            logger.info("Elevator #{} already at floor {}, opening doors", elevatorCar.getId(), destinationFloor);
-        } else {
-            logger.info("External request assigned to Elevator #{} for floor {}", elevatorCar.getId(), destinationFloor);
+        if (logger.isDebugEnabled()) {
+            if (elevatorCar.getCurrentFloorNumber() == destinationFloor) {
+                logger.debug("Elevator #{} already at floor {}, opening doors", elevatorCar.getId(), destinationFloor);
+            } else {
+                logger.debug("External request assigned to Elevator #{} for floor {}", elevatorCar.getId(), destinationFloor);
+            }
         }
         
         return elevatorCar;
@@ -0,0 +1,286 @@
+package org.deepak.dto.dispatcher;
+
+import org.deepak.dto.ElevatorCar;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.deepak.interfaces.DispatchStrategy;
+import org.deepak.interfaces.ElevatorObserver;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Cars bucketed by floor per category (idle, moving up, moving down), kept current from controller events.
+// Best-car queries walk outwards from the call floor and stop once no remaining floor can beat the best score.
+// Zoned cars are only considered for floors in their zone, through per-floor masks of the cars able to answer there.
+// The default dispatch strategy: nearest car by ElevatorScore.
+public class FleetIndex implements ElevatorObserver, DispatchStrategy {
+    private static final int NOT_INDEXED = -1;
+    private static final int IDLE = 0;
+    private static final int MOVING_UP = 1;
+    private static final int MOVING_DOWN = 2;
+    private static final int CATEGORIES = 3;
+    private static final BitSet EMPTY = new BitSet();
+    private static final int[] MAX_BONUS = {
+            ElevatorScore.IDLE_BONUS + ElevatorScore.DIRECTION_BONUS,
+            ElevatorScore.DIRECTION_BONUS,
+            ElevatorScore.DIRECTION_BONUS
+    };
+
+    private ElevatorCar[] cars = new ElevatorCar[16];
+    private int[] categories = new int[16];
+    private int[] floors = new int[16];
+    private int[] ordinalsById = new int[16];
+    private int size;
+    private final BitSet[] occupiedFloors = new BitSet[CATEGORIES];
+    private final BitSet[][] carsAtFloor = new BitSet[CATEGORIES][];
+    private final BitSet unrestricted = new BitSet(); // Cars without a floor panel yet, serving any floor
+    private BitSet[] servedAt = new BitSet[0]; // Cars stopping at each floor
+    private BitSet[] upEligibleAt = new BitSet[0]; // Cars stopping at each floor with a floor above it to go to
+    private BitSet[] downEligibleAt = new BitSet[0];
+    private int restricted; // Cars with a served-floor set; none means every car is eligible everywhere
+
+    public FleetIndex() {
+        Arrays.fill(ordinalsById, NOT_INDEXED);
+        for (int category = 0; category < CATEGORIES; category++) {
+            occupiedFloors[category] = new BitSet();
+            carsAtFloor[category] = new BitSet[0];
+        }
+    }
+
+    // Registration order is the tie-break order, matching a scan over the building's elevator list
+    public synchronized void register(ElevatorCar car) {
+        if (car.getId() < ordinalsById.length && ordinalsById[car.getId()] != NOT_INDEXED) {
+            return;
+        }
+        if (size == cars.length) {
+            cars = Arrays.copyOf(cars, size * 2);
+            categories = Arrays.copyOf(categories, size * 2);
+            floors = Arrays.copyOf(floors, size * 2);
+        }
+        if (car.getId() >= ordinalsById.length) {
+            int previous = ordinalsById.length;
+            ordinalsById = Arrays.copyOf(ordinalsById, Math.max(car.getId() + 1, previous * 2));
+            Arrays.fill(ordinalsById, previous, ordinalsById.length, NOT_INDEXED);
+        }
+        int ordinal = size++;
+        ordinalsById[car.getId()] = ordinal;
+        cars[ordinal] = car;
+        categories[ordinal] = NOT_INDEXED;
+        place(ordinal, car);
+        indexServedFloors(ordinal, car);
+    }
+
+    // The car was rezoned after registering
+    public synchronized void updateServedFloors(ElevatorCar car) {
+        int id = car.getId();
+        if (id >= ordinalsById.length || ordinalsById[id] == NOT_INDEXED) {
+            return;
+        }
+        int ordinal = ordinalsById[id];
+        if (unrestricted.get(ordinal)) {
+            unrestricted.clear(ordinal);
+        } else {
+            restricted--;
+            for (int floor = 0; floor < servedAt.length; floor++) {
+                servedAt[floor].clear(ordinal);
+                upEligibleAt[floor].clear(ordinal);
+                downEligibleAt[floor].clear(ordinal);
+            }
+        }
+        indexServedFloors(ordinal, car);
+    }
+
+    private void indexServedFloors(int ordinal, ElevatorCar car) {
+        BitSet served = car.getElevatorPanel().getServedFloors();
+        if (served.isEmpty()) {
+            unrestricted.set(ordinal);
+            return;
+        }
+        restricted++;
+        if (served.length() > servedAt.length) {
+            int previous = servedAt.length;
+            servedAt = Arrays.copyOf(servedAt, served.length());
+            upEligibleAt = Arrays.copyOf(upEligibleAt, served.length());
+            downEligibleAt = Arrays.copyOf(downEligibleAt, served.length());
+            for (int floor = previous; floor < servedAt.length; floor++) {
+                servedAt[floor] = new BitSet();
+                upEligibleAt[floor] = new BitSet();
+                downEligibleAt[floor] = new BitSet();
+            }
+        }
+        int lowest = served.nextSetBit(0);
+        int highest = served.length() - 1;
+        for (int floor = lowest; floor >= 0; floor = served.nextSetBit(floor + 1)) {
+            servedAt[floor].set(ordinal);
+            if (floor < highest) {
+                upEligibleAt[floor].set(ordinal);
+            }
+            if (floor > lowest) {
+                downEligibleAt[floor].set(ordinal);
+            }
+        }
+    }
+
+    public synchronized void update(ElevatorCar car) {
+        int id = car.getId();
+        if (id >= ordinalsById.length || ordinalsById[id] == NOT_INDEXED) {
+            return;
+        }
+        int ordinal = ordinalsById[id];
+        remove(ordinal);
+        place(ordinal, car);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Same result as scoring every eligible car with ElevatorScore, ties going to the earliest registered car.
+    // Predicted load is checked outside the index monitor: controllers update the index while holding their own lock.
+    public ElevatorCar selectBest(int destinationFloor, Direction direction) {
+        return selectBest(destinationFloor, direction, -1);
+    }
+
+    // A destination call: the car must also stop at the passenger's destination floor
+    public ElevatorCar selectBest(int destinationFloor, Direction direction, int alightingFloor) {
+        BitSet excluded = null;
+        while (true) {
+            ElevatorCar car = selectBest(destinationFloor, direction, alightingFloor, excluded);
+            if (car == null || car.getController().canTakeHallCall(destinationFloor, direction)) {
+                return car;
+            }
+            if (excluded == null) {
+                excluded = new BitSet();
+            }
+            excluded.set(ordinalOf(car));
+        }
+    }
+
+    @Override
+    public ElevatorCar select(int floor, Direction direction, int destinationFloor) {
+        return selectBest(floor, direction, destinationFloor);
+    }
+
+    private synchronized int ordinalOf(ElevatorCar car) {
+        return ordinalsById[car.getId()];
+    }
+
+    private synchronized ElevatorCar selectBest(int destinationFloor, Direction direction, int alightingFloor,
+                                                BitSet excluded) {
+        BitSet eligible = null;
+        BitSet alsoServing = null;
+        if (restricted > 0) {
+            BitSet[] eligibleAt = direction == Direction.DOWN ? downEligibleAt : upEligibleAt;
+            eligible = destinationFloor >= 0 && destinationFloor < eligibleAt.length ? eligibleAt[destinationFloor] : EMPTY;
+            if (alightingFloor >= 0) {
+                alsoServing = alightingFloor < servedAt.length ? servedAt[alightingFloor] : EMPTY;
+            }
+            if (eligible.isEmpty() && unrestricted.isEmpty()) {
+                return null;
+            }
+        }
+        int bestScore = Integer.MAX_VALUE;
+        int bestOrdinal = Integer.MAX_VALUE;
+        for (int category = 0; category < CATEGORIES; category++) {
+            BitSet occupied = occupiedFloors[category];
+            int below = destinationFloor >= 0 ? occupied.previousSetBit(destinationFloor) : -1;
+            int above = occupied.nextSetBit(Math.max(destinationFloor + 1, 0));
+            while (below >= 0 || above >= 0) {
+                int floor;
+                if (above < 0 || (below >= 0 && destinationFloor - below <= above - destinationFloor)) {
+                    floor = below;
+                    below = occupied.previousSetBit(below - 1);
+                } else {
+                    floor = above;
+                    above = occupied.nextSetBit(above + 1);
+                }
+                if (Math.abs(destinationFloor - floor) - MAX_BONUS[category] > bestScore) {
+                    break;
+                }
+                BitSet bucket = carsAtFloor[category][floor];
+                for (int ordinal = bucket.nextSetBit(0); ordinal >= 0; ordinal = bucket.nextSetBit(ordinal + 1)) {
+                    if (excluded != null && excluded.get(ordinal)) {
+                        continue;
+                    }
+                    if (eligible != null && !unrestricted.get(ordinal) &&
+                        (!eligible.get(ordinal) || (alsoServing != null && !alsoServing.get(ordinal)))) {
+                        continue;
+                    }
+                    ElevatorCar car = cars[ordinal];
+                    ElevatorState state = car.getState();
+                    if (state == ElevatorState.OUT_OF_SERVICE ||
+                        state == ElevatorState.MAINTENANCE ||
+                        !car.hasCapacity()) {
+                        continue;
+                    }
+                    int score = ElevatorScore.calculate(car.getCurrentFloorNumber(), state, car.getDirection(),
+                            car.getCurrentLoad(), destinationFloor, direction);
+                    if (score < bestScore || (score == bestScore && ordinal < bestOrdinal)) {
+                        bestScore = score;
+                        bestOrdinal = ordinal;
+                    }
+                }
+            }
+        }
+        return bestOrdinal == Integer.MAX_VALUE ? null : cars[bestOrdinal];
+    }
+
+    @Override
+    public void onElevatorStateChanged(ElevatorCar elevator, ElevatorState newState) {
+        update(elevator);
+    }
+
+    @Override
+    public void onFloorChanged(ElevatorCar elevator, int newFloor) {
+        update(elevator);
+    }
+
+    @Override
+    public void onRequestCompleted(ElevatorCar elevator, int floor) {
+    }
+
+    private void place(int ordinal, ElevatorCar car) {
+        int category = categoryOf(car);
+        categories[ordinal] = category;
+        if (category == NOT_INDEXED) {
+            return;
+        }
+        int floor = Math.max(car.getCurrentFloorNumber(), 0);
+        floors[ordinal] = floor;
+        BitSet[] buckets = carsAtFloor[category];
+        if (floor >= buckets.length) {
+            buckets = Arrays.copyOf(buckets, Math.max(floor + 1, buckets.length * 2));
+            carsAtFloor[category] = buckets;
+        }
+        if (buckets[floor] == null) {
+            buckets[floor] = new BitSet();
+        }
+        buckets[floor].set(ordinal);
+        occupiedFloors[category].set(floor);
+    }
+
+    private void remove(int ordinal) {
+        int category = categories[ordinal];
+        if (category == NOT_INDEXED) {
+            return;
+        }
+        int floor = floors[ordinal];
+        BitSet bucket = carsAtFloor[category][floor];
+        bucket.clear(ordinal);
+        if (bucket.isEmpty()) {
+            occupiedFloors[category].clear(floor);
+        }
+        categories[ordinal] = NOT_INDEXED;
+    }
+
+    private static int categoryOf(ElevatorCar car) {
+        ElevatorState state = car.getState();
+        if (state == ElevatorState.IDLE) {
+            return IDLE;
+        }
+        if (state == ElevatorState.MOVING) {
+            return car.getDirection() == Direction.DOWN ? MOVING_DOWN : MOVING_UP;
+        }
+        return NOT_INDEXED;
+    }
+}
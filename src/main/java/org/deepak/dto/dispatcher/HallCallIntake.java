@@ -0,0 +1,168 @@
+package org.deepak.dto.dispatcher;
+
+import lombok.Getter;
+import org.deepak.ElevatorSystem;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.enums.Direction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class HallCallIntake {
+    private static final Logger logger = LoggerFactory.getLogger(HallCallIntake.class);
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final ElevatorSystem elevatorSystem;
+    private final ExternalDispatcher externalDispatcher;
+    private final HallCallRingBuffer ring;
+    @Getter
+    private final int batchSize;
+    private final Thread worker;
+    private volatile boolean running = true;
+    private volatile boolean parked;
+    private final Object drainLock = new Object(); // Once shut down, callers and the worker take turns draining
+    private boolean finished; // The worker has drained the ring for the last time
+    @Getter
+    private volatile long batchesDispatched;
+    private final AtomicLong overflows = new AtomicLong();
+
+    private final int[] batchFloors;
+    private final Direction[] batchDirections;
+    private final CompletableFuture<ElevatorCar>[] batchFutures;
+    private final ElevatorCar[] batchCars;
+
+    public HallCallIntake(ElevatorSystem elevatorSystem) {
+        this(elevatorSystem, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    @SuppressWarnings("unchecked")
+    public HallCallIntake(ElevatorSystem elevatorSystem, int capacity, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.elevatorSystem = elevatorSystem;
+        this.externalDispatcher = new ExternalDispatcher(elevatorSystem);
+        this.ring = new HallCallRingBuffer(capacity);
+        this.batchSize = batchSize;
+        this.batchFloors = new int[batchSize];
+        this.batchDirections = new Direction[batchSize];
+        this.batchFutures = (CompletableFuture<ElevatorCar>[]) new CompletableFuture<?>[batchSize];
+        this.batchCars = new ElevatorCar[batchSize];
+        this.worker = new Thread(this::run, "hall-call-dispatcher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public CompletableFuture<ElevatorCar> submit(int floor, Direction direction) {
+        CompletableFuture<ElevatorCar> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException("Hall call intake is shut down"));
+            return future;
+        }
+        if (!ring.offer(floor, direction, future)) {
+            // Ring full: serve this call on the caller thread rather than reject it
+            if (overflows.getAndIncrement() % 1000 == 0) {
+                logger.warn("Hall call intake full, dispatching synchronously ({} overflows so far)", overflows.get());
+            }
+            try {
+                future.complete(externalDispatcher.submitExternalRequest(floor, direction));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+        if (!running) {
+            // Shut down while offering: the worker may already be gone
+            drainAfterShutdown();
+        } else if (parked) {
+            LockSupport.unpark(worker);
+        }
+        return future;
+    }
+
+    // Hall calls queued for the dispatcher thread and not yet assigned
+    public int getBacklog() {
+        return ring.size();
+    }
+
+    public long getOverflows() {
+        return overflows.get();
+    }
+
+    // Calls already queued are still dispatched and their futures completed
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        while (running) {
+            int drained = ring.drain(batchFloors, batchDirections, batchFutures, batchSize);
+            if (drained == 0) {
+                parked = true;
+                if (ring.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+                continue;
+            }
+            dispatchBatch(drained);
+        }
+        synchronized (drainLock) {
+            dispatchRemaining();
+            finished = true;
+        }
+    }
+
+    // A call offered after the worker's last drain is dispatched by its caller. Before that, the worker gets it.
+    private void drainAfterShutdown() {
+        synchronized (drainLock) {
+            if (finished) {
+                dispatchRemaining();
+            }
+        }
+    }
+
+    private void dispatchRemaining() {
+        int drained;
+        while ((drained = ring.drain(batchFloors, batchDirections, batchFutures, batchSize)) > 0) {
+            dispatchBatch(drained);
+        }
+    }
+
+    private void dispatchBatch(int size) {
+        for (int i = 0; i < size; i++) {
+            int floor = batchFloors[i];
+            Direction direction = batchDirections[i];
+            ElevatorCar car = null;
+            try {
+                // Repeated presses of the same hall button within a batch go to the same car
+                for (int j = 0; j < i && car == null; j++) {
+                    if (batchCars[j] != null && batchFloors[j] == floor && batchDirections[j] == direction) {
+                        car = batchCars[j];
+                    }
+                }
+                if (car == null) {
+                    // The fleet index sees the assignments made earlier in this batch
+                    car = elevatorSystem.selectBestElevatorCar(floor, direction);
+                    externalDispatcher.assign(car, floor, direction);
+                }
+                batchCars[i] = car;
+                batchFutures[i].complete(car);
+            } catch (Exception e) {
+                batchCars[i] = null;
+                batchFutures[i].completeExceptionally(e);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            batchCars[i] = null;
+            batchDirections[i] = null;
+            batchFutures[i] = null;
+        }
+        batchesDispatched++;
+    }
+}
@@ -0,0 +1,167 @@
+package org.deepak.dto.dispatcher;
+
+import lombok.Getter;
+import org.deepak.ElevatorSystem;
+import org.deepak.dto.Building;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.dto.ElevatorController;
+import org.deepak.dto.panels.HallPanel;
+import org.deepak.enums.Direction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Looks again at every lit hall button and moves calls to cars that would now answer them sooner. The car first
+// given a call may since have picked up a run of car calls, filled up, or left service, and a call nobody could
+// take at the time may still have no car. Calls are taken oldest first and each goes to the cheapest car on the
+// route cost; costs are priced live, so a call moved earlier in the pass counts against the car that took it.
+public class HallCallOptimizer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(HallCallOptimizer.class);
+    public static final long DEFAULT_PERIOD_MILLIS = 500;
+    // A passenger may already be watching the car they were given; it is only swapped for a clear gain
+    public static final long DEFAULT_MIN_GAIN_MILLIS = 5_000;
+
+    private final ElevatorSystem elevatorSystem;
+    @Getter
+    private final RouteCost routeCost;
+    @Getter
+    private final long minGainMillis;
+    private ScheduledExecutorService executor;
+    @Getter
+    private volatile long passes;
+    @Getter
+    private volatile int unassigned; // Lit buttons no car could take in the last pass
+
+    public HallCallOptimizer(ElevatorSystem elevatorSystem) {
+        this(elevatorSystem, new RouteCost(elevatorSystem.getMotionEngine().getFloorTravelMillis()),
+                DEFAULT_MIN_GAIN_MILLIS);
+    }
+
+    public HallCallOptimizer(ElevatorSystem elevatorSystem, RouteCost routeCost, long minGainMillis) {
+        if (minGainMillis < 0) {
+            throw new IllegalArgumentException("Minimum gain must not be negative: " + minGainMillis);
+        }
+        this.elevatorSystem = elevatorSystem;
+        this.routeCost = routeCost;
+        this.minGainMillis = minGainMillis;
+    }
+
+    // Runs a pass every period on a thread of its own. On a Simulation, schedule optimize() on it instead.
+    public synchronized void start(long periodMillis) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Optimizer period must be positive: " + periodMillis);
+        }
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hall-call-optimizer-" + elevatorSystem.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::optimizeQuietly, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    // One pass over the building; returns how many calls were moved
+    public synchronized int optimize() {
+        Building building = elevatorSystem.getBuilding();
+        int floorCount = building.getFloors().size();
+        List<PendingCall> calls = new ArrayList<>();
+        for (int floor = 1; floor <= floorCount; floor++) {
+            HallPanel panel = building.getFloor(floor).getPanel();
+            for (Direction direction : Direction.values()) {
+                if (panel.isCallPending(direction)) {
+                    calls.add(new PendingCall(floor, direction, panel.getCalledAt(direction)));
+                }
+            }
+        }
+        calls.sort(Comparator.comparingLong(PendingCall::calledAt));
+
+        int moved = 0;
+        int stranded = 0;
+        for (PendingCall call : calls) {
+            HallPanel panel = building.getFloor(call.floor()).getPanel();
+            ElevatorCar owner = owner(panel, call.floor(), call.direction());
+            long ownerCost = owner != null && canTake(owner.getController(), call.floor(), call.direction())
+                    ? owner.getController().hallCallCost(call.floor(), call.direction(), routeCost) : Long.MAX_VALUE;
+            ElevatorCar best = null;
+            long bestCost = Long.MAX_VALUE;
+            for (ElevatorController controller : elevatorSystem.getControllers()) {
+                ElevatorCar car = controller.getElevator();
+                if (car == owner || !canTake(controller, call.floor(), call.direction())) {
+                    continue;
+                }
+                long cost = controller.hallCallCost(call.floor(), call.direction(), routeCost);
+                if (cost < bestCost) {
+                    best = car;
+                    bestCost = cost;
+                }
+            }
+            if (best == null) {
+                if (owner == null) {
+                    stranded++;
+                }
+                continue;
+            }
+            if (ownerCost != Long.MAX_VALUE && ownerCost - bestCost < minGainMillis) {
+                continue;
+            }
+            if (panel.moveCall(call.direction(), owner, best)) {
+                moved++;
+                elevatorSystem.getMetrics().getHallCallsMoved().increment();
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Floor {} {} moved from {} to Elevator #{}", call.floor(), call.direction(),
+                            owner == null ? "no car" : "Elevator #" + owner.getId(), best.getId());
+                }
+            }
+        }
+        unassigned = stranded;
+        passes++;
+        return moved;
+    }
+
+    // The car holding the call; the panel's record is checked against the cars, since it can lag behind them
+    private ElevatorCar owner(HallPanel panel, int floor, Direction direction) {
+        ElevatorCar assigned = panel.getAssignment(direction);
+        if (assigned != null && assigned.getController().hasHallCall(floor, direction)) {
+            return assigned;
+        }
+        for (ElevatorController controller : elevatorSystem.getControllers()) {
+            if (controller.hasHallCall(floor, direction)) {
+                return controller.getElevator();
+            }
+        }
+        return null;
+    }
+
+    private static boolean canTake(ElevatorController controller, int floor, Direction direction) {
+        ElevatorCar car = controller.getElevator();
+        return controller.isInService() && car.servesCall(floor, direction) && car.hasCapacity() &&
+               controller.canTakeHallCall(floor, direction);
+    }
+
+    private void optimizeQuietly() {
+        try {
+            optimize();
+        } catch (Exception e) {
+            logger.error("Error reassigning hall calls: {}", e.getMessage());
+        }
+    }
+
+    private record PendingCall(int floor, Direction direction, long calledAt) {
+    }
+}
@@ -0,0 +1,89 @@
+package org.deepak.dto.dispatcher;
+
+import org.deepak.dto.ElevatorCar;
+import org.deepak.enums.Direction;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded multi-producer / single-consumer ring: producers claim a slot with one CAS, the consumer never blocks them
+class HallCallRingBuffer {
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final int[] floors;
+    private final Direction[] directions;
+    private final Object[] futures;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+    private volatile long consumed; // Head as of the last drain, for readers on other threads
+
+    HallCallRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.floors = new int[capacity];
+        this.directions = new Direction[capacity];
+        this.futures = new Object[capacity];
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(int floor, Direction direction, CompletableFuture<ElevatorCar> future) {
+        long position;
+        while (true) {
+            position = tail.get();
+            long difference = sequences.get((int) position & mask) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+        int index = (int) position & mask;
+        floors[index] = floor;
+        directions[index] = direction;
+        futures[index] = future;
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    int drain(int[] outFloors, Direction[] outDirections, CompletableFuture<ElevatorCar>[] outFutures, int max) {
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            outFloors[drained] = floors[index];
+            outDirections[drained] = directions[index];
+            outFutures[drained] = (CompletableFuture<ElevatorCar>) futures[index];
+            directions[index] = null;
+            futures[index] = null;
+            sequences.lazySet(index, head + capacity);
+            head++;
+            drained++;
+        }
+        if (drained > 0) {
+            consumed = head;
+        }
+        return drained;
+    }
+
+    // Calls claimed but not yet drained; approximate while producers are adding
+    int size() {
+        return (int) Math.max(0, tail.get() - consumed);
+    }
+
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+}
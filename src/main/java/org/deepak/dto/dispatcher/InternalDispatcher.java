@@ -1,7 +1,6 @@
 package org.deepak.dto.dispatcher;
 
 import org.deepak.dto.ElevatorCar;
-import org.deepak.dto.Request;
 import org.deepak.enums.Direction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,15 +13,18 @@ public class InternalDispatcher {
         }
         
         if (elevatorCar.getCurrentFloorNumber() == destinationFloor) {
-            logger.info("Elevator #{} already at floor {}", elevatorCar.getId(), destinationFloor);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Elevator #{} already at floor {}", elevatorCar.getId(), destinationFloor);
+            }
             return elevatorCar;
         }
         
         Direction direction = (elevatorCar.getCurrentFloorNumber() < destinationFloor) ? Direction.UP : Direction.DOWN;
-        Request request = new Request(destinationFloor, direction, true);
-        elevatorCar.getController().addRequest(request);
+        elevatorCar.getController().addRequest(destinationFloor, direction, true);
         
-        logger.info("Internal request added: Floor {} for Elevator #{}", destinationFloor, elevatorCar.getId());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Internal request added: Floor {} for Elevator #{}", destinationFloor, elevatorCar.getId());
+        }
         return elevatorCar;
     }
 }
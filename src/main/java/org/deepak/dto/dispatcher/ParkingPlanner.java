@@ -0,0 +1,114 @@
+package org.deepak.dto.dispatcher;
+
+import lombok.Getter;
+import org.deepak.ElevatorSystem;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.dto.ElevatorController;
+
+import java.util.Arrays;
+
+// Picks where a car with nothing left to do should wait, from the demand model's forecast for the next few minutes
+// and the floors the other idle cars already wait at. With no forecast, or a mostly busy fleet, the car stays put.
+public class ParkingPlanner {
+    public static final long DEFAULT_LOOKAHEAD_MILLIS = 5 * 60_000L;
+    // Below this many expected calls per bucket across the building the forecast is not worth acting on
+    public static final double DEFAULT_MIN_DEMAND = 0.5;
+    // A trip must cut the expected distance to the next call by at least this share
+    private static final double MIN_GAIN = 0.1;
+
+    private final ElevatorSystem elevatorSystem;
+    @Getter
+    private final DemandModel demandModel;
+    @Getter
+    private final long lookaheadMillis;
+    @Getter
+    private final double minDemand;
+
+    public ParkingPlanner(ElevatorSystem elevatorSystem) {
+        this(elevatorSystem, elevatorSystem.getDemandModel(), DEFAULT_LOOKAHEAD_MILLIS, DEFAULT_MIN_DEMAND);
+    }
+
+    public ParkingPlanner(ElevatorSystem elevatorSystem, DemandModel demandModel, long lookaheadMillis, double minDemand) {
+        if (lookaheadMillis < 0) {
+            throw new IllegalArgumentException("Lookahead must not be negative: " + lookaheadMillis);
+        }
+        this.elevatorSystem = elevatorSystem;
+        this.demandModel = demandModel;
+        this.lookaheadMillis = lookaheadMillis;
+        this.minDemand = minDemand;
+    }
+
+    // Floor to park the car at, or its current floor to leave it where it is: the floor that brings the expected
+    // calls closest to a waiting car, given where the other waiting cars already are
+    public int parkingFloor(ElevatorCar car) {
+        int currentFloor = car.getCurrentFloorNumber();
+        int floorCount = elevatorSystem.getBuilding().getFloors().size();
+        if (floorCount == 0 || currentFloor < 1 || currentFloor > floorCount) {
+            return currentFloor;
+        }
+        double[] demand = demandModel.expectedCallsByFloor(elevatorSystem.getClock().millis() + lookaheadMillis,
+                floorCount);
+        double total = 0;
+        for (int floor = 1; floor <= floorCount; floor++) {
+            // A zoned car only parks for, and at, its own floors
+            if (!car.serves(floor)) {
+                demand[floor] = 0;
+            }
+            total += demand[floor];
+        }
+        if (total < minDemand) {
+            return currentFloor;
+        }
+        // Distance from each floor to the nearest other waiting car, found in one sweep each way
+        int[] nearest = new int[floorCount + 1];
+        Arrays.fill(nearest, floorCount);
+        int others = 0;
+        int busy = 0;
+        for (ElevatorController controller : elevatorSystem.getControllers()) {
+            if (controller.getElevator() == car) {
+                continue;
+            }
+            others++;
+            int floor = controller.getWaitingFloor();
+            if (floor >= 1 && floor <= floorCount) {
+                nearest[floor] = 0;
+            } else {
+                busy++;
+            }
+        }
+        // With most of the fleet busy a car is idle only for moments, and the next call is as likely near as far
+        if (busy * 2 > others) {
+            return currentFloor;
+        }
+        for (int floor = 2; floor <= floorCount; floor++) {
+            nearest[floor] = Math.min(nearest[floor], nearest[floor - 1] + 1);
+        }
+        for (int floor = floorCount - 1; floor >= 1; floor--) {
+            nearest[floor] = Math.min(nearest[floor], nearest[floor + 1] + 1);
+        }
+        int best = currentFloor;
+        double bestCost = cost(currentFloor, demand, nearest);
+        double stayCost = bestCost;
+        for (int floor = 1; floor <= floorCount; floor++) {
+            if (!car.serves(floor)) {
+                continue;
+            }
+            double cost = cost(floor, demand, nearest);
+            if (cost < bestCost) {
+                best = floor;
+                bestCost = cost;
+            }
+        }
+        // Not worth a trip for a small gain
+        return stayCost - bestCost >= stayCost * MIN_GAIN ? best : currentFloor;
+    }
+
+    // Expected call-weighted floors to travel to the nearest waiting car with this car parked at the floor
+    private static double cost(int parkedAt, double[] demand, int[] nearest) {
+        double cost = 0;
+        for (int floor = 1; floor < demand.length; floor++) {
+            cost += demand[floor] * Math.min(nearest[floor], Math.abs(floor - parkedAt));
+        }
+        return cost;
+    }
+}
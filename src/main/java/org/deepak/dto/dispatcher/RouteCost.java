@@ -0,0 +1,108 @@
+package org.deepak.dto.dispatcher;
+
+import lombok.Getter;
+import org.deepak.dto.Door;
+import org.deepak.dto.StopSet;
+import org.deepak.enums.Direction;
+
+// Prices a hall call against the stops a car already has, following its sweeps the way LOOK serves them: the rest
+// of the current sweep, back the other way, then round again. The price is the caller's estimated time to arrival
+// plus the delay the new stop puts on every stop after it. Stop counts along each stretch come from the StopSets'
+// Fenwick trees, so a call is priced in O(log floors) without re-simulating the route.
+@Getter
+public class RouteCost {
+    // A stop's door cycle with one passenger getting on or off, and the slow-down and restart of turning round
+    public static final long DEFAULT_DWELL_MILLIS = Door.DEFAULT_OPENING_MILLIS + Door.DEFAULT_MIN_DWELL_MILLIS +
+            Door.DEFAULT_PER_PASSENGER_MILLIS + Door.DEFAULT_CLOSING_MILLIS;
+    public static final long DEFAULT_REVERSAL_MILLIS = 2_000;
+
+    private final long floorTravelMillis;
+    private final long dwellMillis;
+    private final long reversalMillis;
+
+    public RouteCost(long floorTravelMillis) {
+        this(floorTravelMillis, DEFAULT_DWELL_MILLIS, DEFAULT_REVERSAL_MILLIS);
+    }
+
+    public RouteCost(long floorTravelMillis, long dwellMillis, long reversalMillis) {
+        if (floorTravelMillis <= 0 || dwellMillis < 0 || reversalMillis < 0) {
+            throw new IllegalArgumentException("Floor travel must be positive and stop times not negative");
+        }
+        this.floorTravelMillis = floorTravelMillis;
+        this.dwellMillis = dwellMillis;
+        this.reversalMillis = reversalMillis;
+    }
+
+    // Milliseconds of waiting added across the car's stops, the new call included. A moving car is already past
+    // its current floor.
+    public long insertionCost(int position, Direction carDirection, boolean moving, StopSet upStops,
+                              StopSet downStops, int floor, Direction direction) {
+        if (upStops.isEmpty() && downStops.isEmpty()) {
+            return Math.abs(floor - position) * floorTravelMillis;
+        }
+        int step = carDirection == Direction.DOWN ? -1 : 1;
+        StopSet ahead = step > 0 ? upStops : downStops; // Served on the rest of this sweep
+        StopSet behind = step > 0 ? downStops : upStops; // Served on the way back
+        int turn = turningFloor(position, step, upStops, downStops);
+        int far = turningFloor(turn, -step, upStops, downStops);
+        boolean merged = (direction == Direction.UP ? upStops : downStops).get(floor);
+        int travelled;
+        int stopsBefore;
+        int reversals;
+        int stopsAfter;
+        int extension; // Floors the sweep now runs past its old turning point, there and back
+        if ((direction == Direction.UP) == (step > 0)) {
+            int offset = step * (floor - position);
+            if (offset > 0 || (offset == 0 && !moving)) {
+                // On the rest of this sweep
+                travelled = Math.abs(floor - position);
+                stopsBefore = count(ahead, position, floor - step, step);
+                reversals = 0;
+                extension = Math.max(0, step * (floor - turn));
+                stopsAfter = count(ahead, floor + step, turn, step) + count(behind, turn, far, -step)
+                        + count(ahead, far, position - step, step);
+            } else {
+                // Round again, after the sweep back
+                int lowest = step > 0 ? Math.min(far, floor) : Math.max(far, floor);
+                travelled = Math.abs(turn - position) + Math.abs(turn - lowest) + Math.abs(floor - lowest);
+                stopsBefore = count(ahead, position, turn, step) + count(behind, turn, lowest, -step)
+                        + count(ahead, lowest, floor - step, step);
+                reversals = 2;
+                extension = Math.abs(lowest - far);
+                stopsAfter = count(ahead, floor + step, position - step, step);
+            }
+        } else {
+            // On the sweep back, which now turns at the call if it lies beyond the old turning point
+            int top = step * (floor - turn) > 0 ? floor : turn;
+            travelled = Math.abs(top - position) + Math.abs(top - floor);
+            stopsBefore = count(ahead, position, top, step) + count(behind, top, floor + step, -step);
+            reversals = top != floor ? 1 : 0;
+            extension = Math.abs(top - turn);
+            stopsAfter = count(behind, floor - step, far, -step) + count(ahead, far, position - step, step);
+        }
+        long arrival = travelled * floorTravelMillis + stopsBefore * dwellMillis + reversals * reversalMillis;
+        long delay = (merged ? 0 : dwellMillis) + 2L * extension * floorTravelMillis;
+        return arrival + stopsAfter * delay;
+    }
+
+    // Furthest stop from the floor in the direction of travel, or the floor itself when there is none that way
+    private static int turningFloor(int from, int step, StopSet upStops, StopSet downStops) {
+        if (step > 0) {
+            int highest = Math.max(upStops.length(), downStops.length()) - 1;
+            return Math.max(highest, from);
+        }
+        int lowest = lowest(upStops, downStops);
+        return lowest >= 0 ? Math.min(lowest, from) : from;
+    }
+
+    private static int lowest(StopSet upStops, StopSet downStops) {
+        int up = upStops.nextSetBit(0);
+        int down = downStops.nextSetBit(0);
+        return up < 0 ? down : down < 0 ? up : Math.min(up, down);
+    }
+
+    // Stops passed travelling from one floor to another, both included; none when the second lies behind the first
+    private static int count(StopSet stops, int from, int to, int step) {
+        return step * (to - from) < 0 ? 0 : stops.countBetween(from, to);
+    }
+}
@@ -9,16 +9,22 @@ import org.deepak.enums.Direction;
 import org.deepak.enums.DoorState;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 
+// Only the floors the car serves get a button; a zoned or express car shows just its own floors
 public class ElevatorPanel {
-    private final List<ElevatorButton> floorButtons;
+    private volatile List<ElevatorButton> floorButtons;
+    private volatile ElevatorButton[] buttonsByFloor;
+    private volatile BitSet servedFloors;
     private final DoorButton openButton;
     private final DoorButton closeButton;
 
     public ElevatorPanel(){
         floorButtons = new ArrayList<>();
+        buttonsByFloor = new ElevatorButton[0];
+        servedFloors = new BitSet();
         this.openButton = new DoorButton(DoorState.OPEN);
         this.closeButton = new DoorButton(DoorState.CLOSE);
     }
@@ -27,10 +33,63 @@ public class ElevatorPanel {
         if (noOfFloors <= 0) {
             throw new IllegalArgumentException("Number of floors must be positive: " + noOfFloors);
         }
-        for(int i=0;i<noOfFloors;i++)this.floorButtons.add(new ElevatorButton(i+1));
+        BitSet floors = new BitSet();
+        floors.set(1, noOfFloors + 1);
+        setFloorButtons(floors);
+    }
+
+    public void setFloorButtons(BitSet floors){
+        if (floors.isEmpty() || floors.get(0)) {
+            throw new IllegalArgumentException("Served floors must be numbered from 1: " + floors);
+        }
+        List<ElevatorButton> buttons = new ArrayList<>();
+        ElevatorButton[] byFloor = new ElevatorButton[floors.length()];
+        for (int floor = floors.nextSetBit(1); floor >= 0; floor = floors.nextSetBit(floor + 1)) {
+            ElevatorButton button = new ElevatorButton(floor);
+            buttons.add(button);
+            byFloor[floor] = button;
+        }
+        this.servedFloors = (BitSet) floors.clone();
+        this.buttonsByFloor = byFloor;
+        this.floorButtons = buttons;
     }
 
     public List<ElevatorButton> getFloorButtons() {
         return Collections.unmodifiableList(floorButtons);
     }
+
+    // Null when the car does not serve the floor
+    public ElevatorButton getFloorButton(int floor) {
+        ElevatorButton[] byFloor = buttonsByFloor;
+        return floor >= 0 && floor < byFloor.length ? byFloor[floor] : null;
+    }
+
+    public boolean serves(int floor) {
+        return floor >= 0 && servedFloors.get(floor);
+    }
+
+    public boolean servesAbove(int floor) {
+        return servedFloors.nextSetBit(floor + 1) >= 0;
+    }
+
+    public boolean servesBelow(int floor) {
+        return floor > 1 && servedFloors.previousSetBit(floor - 1) >= 1;
+    }
+
+    public BitSet getServedFloors() {
+        return (BitSet) servedFloors.clone();
+    }
+
+    public DoorButton getOpenButton() {
+        return openButton;
+    }
+
+    public DoorButton getCloseButton() {
+        return closeButton;
+    }
+
+    // Highest floor served, 0 before any buttons are set
+    public int getTopFloor() {
+        return Math.max(buttonsByFloor.length - 1, 0);
+    }
 }
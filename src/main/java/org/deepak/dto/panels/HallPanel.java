@@ -3,31 +3,297 @@ package org.deepak.dto.panels;
 import org.deepak.dto.ElevatorCar;
 import org.deepak.ElevatorSystem;
 import org.deepak.dto.buttons.HallButton;
+import org.deepak.dto.dispatcher.DestinationDispatcher;
 import org.deepak.dto.dispatcher.ExternalDispatcher;
 import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.deepak.enums.JournalRecordType;
+import org.deepak.journal.TripJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class HallPanel {
+    private static final Logger logger = LoggerFactory.getLogger(HallPanel.class);
     private final HallButton up;
     private final HallButton down;
     private final ElevatorSystem elevatorSystem;
     private final int floorNumber;
     private final ExternalDispatcher externalDispatcher;
+    private final DestinationDispatcher destinationDispatcher;
+    private volatile ElevatorCar upAssignment;
+    private volatile ElevatorCar downAssignment;
+    // Serialize changes to each button's call and assignment; never held while taking a controller's lock first
+    private final Object upLock = new Object();
+    private final Object downLock = new Object();
+    // Every press is one passenger waiting to board in that direction
+    private final AtomicInteger upWaiting = new AtomicInteger();
+    private final AtomicInteger downWaiting = new AtomicInteger();
+    // Clock time each button lit, for the hall call wait
+    private volatile long upCalledAt;
+    private volatile long downCalledAt;
 
-    public HallPanel(int floorNumber) {
+    public HallPanel(int floorNumber, ElevatorSystem elevatorSystem) {
         up = new HallButton(Direction.UP);
         down = new HallButton(Direction.DOWN);
         this.floorNumber = floorNumber;
-        elevatorSystem = ElevatorSystem.getInstance();
-        this.externalDispatcher = new ExternalDispatcher();
+        this.elevatorSystem = elevatorSystem;
+        this.externalDispatcher = new ExternalDispatcher(elevatorSystem);
+        this.destinationDispatcher = new DestinationDispatcher(elevatorSystem);
     }
     public ElevatorCar pressButton(Direction direction){
+        AtomicInteger waiting = direction == Direction.UP ? upWaiting : downWaiting;
+        waiting.incrementAndGet();
+        journal(JournalRecordType.HALL_CALL, 0, direction);
+        try {
+            return dispatch(direction);
+        } catch (RuntimeException e) {
+            waiting.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private ElevatorCar dispatch(Direction direction){
         if(direction == Direction.UP){
-            this.up.pressDown();
-            return externalDispatcher.submitExternalRequest(floorNumber, Direction.UP);
+            synchronized (upLock) {
+                ElevatorCar assigned = pendingAssignment(this.up, upAssignment);
+                if (assigned != null) {
+                    return assigned;
+                }
+                upAssignment = null;
+                light(Direction.UP);
+            }
+            ElevatorCar elevatorCar = externalDispatcher.submitExternalRequest(floorNumber, Direction.UP);
+            return recordAssignment(Direction.UP, elevatorCar);
         }
         else{
-            this.down.pressDown();
-            return externalDispatcher.submitExternalRequest(floorNumber, Direction.DOWN);
+            synchronized (downLock) {
+                ElevatorCar assigned = pendingAssignment(this.down, downAssignment);
+                if (assigned != null) {
+                    return assigned;
+                }
+                downAssignment = null;
+                light(Direction.DOWN);
+            }
+            ElevatorCar elevatorCar = externalDispatcher.submitExternalRequest(floorNumber, Direction.DOWN);
+            return recordAssignment(Direction.DOWN, elevatorCar);
+        }
+    }
+
+    public CompletableFuture<ElevatorCar> pressButtonAsync(Direction direction){
+        AtomicInteger waiting = direction == Direction.UP ? upWaiting : downWaiting;
+        waiting.incrementAndGet();
+        journal(JournalRecordType.HALL_CALL, 0, direction);
+        return dispatchAsync(direction).whenComplete((elevatorCar, error) -> {
+            if (error != null) {
+                waiting.decrementAndGet();
+            }
+        });
+    }
+
+    private CompletableFuture<ElevatorCar> dispatchAsync(Direction direction){
+        if(direction == Direction.UP){
+            synchronized (upLock) {
+                ElevatorCar assigned = pendingAssignment(this.up, upAssignment);
+                if (assigned != null) {
+                    return CompletableFuture.completedFuture(assigned);
+                }
+                upAssignment = null;
+                light(Direction.UP);
+            }
+            return externalDispatcher.submitExternalRequestAsync(floorNumber, Direction.UP)
+                    .thenApply(elevatorCar -> recordAssignment(Direction.UP, elevatorCar));
+        }
+        else{
+            synchronized (downLock) {
+                ElevatorCar assigned = pendingAssignment(this.down, downAssignment);
+                if (assigned != null) {
+                    return CompletableFuture.completedFuture(assigned);
+                }
+                downAssignment = null;
+                light(Direction.DOWN);
+            }
+            return externalDispatcher.submitExternalRequestAsync(floorNumber, Direction.DOWN)
+                    .thenApply(elevatorCar -> recordAssignment(Direction.DOWN, elevatorCar));
+        }
+    }
+
+    // Destination-dispatch keypad: the car is assigned here and the passenger does not press a floor button inside
+    public ElevatorCar pressDestination(int destinationFloor) {
+        journal(JournalRecordType.DESTINATION_CALL, destinationFloor,
+                destinationFloor > floorNumber ? Direction.UP : Direction.DOWN);
+        return destinationDispatcher.submitDestinationRequest(floorNumber, destinationFloor);
+    }
+
+    public boolean isCallPending(Direction direction) {
+        return direction == Direction.UP ? this.up.isPressed() : this.down.isPressed();
+    }
+
+    public int getWaiting(Direction direction) {
+        return direction == Direction.UP ? upWaiting.get() : downWaiting.get();
+    }
+
+    // A car standing at this floor may have served the call during dispatch, and handed what it could not take to
+    // another car; the assignment is only kept by a car still holding the call
+    private ElevatorCar recordAssignment(Direction direction, ElevatorCar elevatorCar) {
+        HallButton button = direction == Direction.UP ? this.up : this.down;
+        synchronized (lock(direction)) {
+            if (button.isPressed() && elevatorCar.getController().hasHallCall(floorNumber, direction)) {
+                setAssignment(direction, elevatorCar);
+            }
+        }
+        return elevatorCar;
+    }
+
+    // Called by the serving car's controller once it has stopped here. Up to room waiting passengers board;
+    // the call is reset once nobody is left. Returns how many boarded.
+    public int callServed(Direction direction, ElevatorCar elevator, int room) {
+        AtomicInteger waiting = direction == Direction.UP ? upWaiting : downWaiting;
+        int boarded;
+        while (true) {
+            int current = waiting.get();
+            boarded = Math.max(0, Math.min(current, room));
+            if (waiting.compareAndSet(current, current - boarded)) {
+                break;
+            }
+        }
+        HallButton button = direction == Direction.UP ? this.up : this.down;
+        if (button.isPressed()) {
+            long now = elevatorSystem.getClock().millis();
+            elevatorSystem.getMetrics().getHallCallWait().record(now - (direction == Direction.UP ? upCalledAt : downCalledAt));
+            // Whoever could not board is waiting on the call afresh
+            setCalledAt(direction, now);
+        }
+        if (waiting.get() > 0) {
+            return boarded;
+        }
+        synchronized (lock(direction)) {
+            ElevatorCar assigned = direction == Direction.UP ? upAssignment : downAssignment;
+            if (assigned == null || assigned == elevator) {
+                setAssignment(direction, null);
+                button.reset();
+            }
+        }
+        return boarded;
+    }
+
+    // The car answering this call is full: hand it to another car at once.
+    // Returns false when no other car can take it, leaving the full car assigned.
+    public boolean reassign(Direction direction, ElevatorCar from) {
+        HallButton button = direction == Direction.UP ? this.up : this.down;
+        synchronized (lock(direction)) {
+            ElevatorCar assigned = direction == Direction.UP ? upAssignment : downAssignment;
+            if (!button.isPressed() || (assigned != null && assigned != from)) {
+                return true;
+            }
+            setAssignment(direction, null);
+        }
+        try {
+            ElevatorCar elevatorCar = externalDispatcher.submitExternalRequest(floorNumber, direction);
+            recordAssignment(direction, elevatorCar);
+            return true;
+        } catch (RuntimeException e) {
+            recordAssignment(direction, from);
+            return false;
+        }
+    }
+
+    // Moves the call from the car answering it, or from nobody, to another car. The new car has the call before
+    // the old one lets go, so there is never a moment with no car coming. Returns false if the call has been
+    // served or reassigned meanwhile, or the new car cannot take it. The checks and the hand-over happen under
+    // the button's lock, so a car serving the call or another move cannot slip in between.
+    public boolean moveCall(Direction direction, ElevatorCar from, ElevatorCar to) {
+        HallButton button = direction == Direction.UP ? this.up : this.down;
+        synchronized (lock(direction)) {
+            ElevatorCar assigned = direction == Direction.UP ? upAssignment : downAssignment;
+            if (!button.isPressed() || (assigned != null && assigned != from) ||
+                !to.getController().canTakeHallCall(floorNumber, direction)) {
+                return false;
+            }
+            setAssignment(direction, to);
+            to.getController().addRequest(floorNumber, direction, false);
+        }
+        if (from != null) {
+            from.getController().withdrawHallCall(floorNumber, direction);
+        }
+        return true;
+    }
+
+    // Car answering a lit button, or null when it has none
+    public ElevatorCar getAssignment(Direction direction) {
+        return direction == Direction.UP ? upAssignment : downAssignment;
+    }
+
+    // Clock time the button lit, or the last car left passengers behind
+    public long getCalledAt(Direction direction) {
+        return direction == Direction.UP ? upCalledAt : downCalledAt;
+    }
+
+    // A hall call recovered after a restart: the button is lit again for the car that had it, with at least one
+    // passenger taken to be waiting since the real count was not recorded
+    public void restoreCall(Direction direction, ElevatorCar elevatorCar) {
+        HallButton button = direction == Direction.UP ? this.up : this.down;
+        AtomicInteger waiting = direction == Direction.UP ? upWaiting : downWaiting;
+        button.pressDown();
+        setAssignment(direction, elevatorCar);
+        waiting.compareAndSet(0, 1);
+        setCalledAt(direction, elevatorSystem.getClock().millis());
+    }
+
+    // Lights the button; a button already lit keeps the time it was first pressed
+    private void light(Direction direction) {
+        HallButton button = direction == Direction.UP ? this.up : this.down;
+        if (!button.isPressed()) {
+            setCalledAt(direction, elevatorSystem.getClock().millis());
+        }
+        button.pressDown();
+    }
+
+    private void setCalledAt(Direction direction, long millis) {
+        if (direction == Direction.UP) {
+            upCalledAt = millis;
+        } else {
+            downCalledAt = millis;
+        }
+    }
+
+    private Object lock(Direction direction) {
+        return direction == Direction.UP ? upLock : downLock;
+    }
+
+    private void setAssignment(Direction direction, ElevatorCar elevatorCar) {
+        if (direction == Direction.UP) {
+            upAssignment = elevatorCar;
+        } else {
+            downAssignment = elevatorCar;
+        }
+    }
+
+    // A lit button already has a car on its way; further presses coalesce onto it
+    private ElevatorCar pendingAssignment(HallButton button, ElevatorCar assigned) {
+        if (!button.isPressed() || assigned == null) {
+            return null;
+        }
+        ElevatorState state = assigned.getState();
+        if (state == ElevatorState.OUT_OF_SERVICE || state == ElevatorState.MAINTENANCE ||
+            !assigned.getController().hasHallCall(floorNumber, button.getButtonSign())) {
+            return null;
+        }
+        return assigned;
+    }
+
+    // A press is never lost to the journal: a failed write is logged and the call goes ahead
+    private void journal(JournalRecordType type, int value, Direction direction) {
+        TripJournal journal = elevatorSystem.getJournal();
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.append(type, elevatorSystem.getClock().millis(), 0, floorNumber, value, direction, null);
+        } catch (RuntimeException e) {
+            logger.error("Error writing journal record {} at floor {}: {}", type, floorNumber, e.getMessage());
         }
     }
 }
@@ -0,0 +1,28 @@
+package org.deepak.dto.scheduler;
+
+import org.deepak.enums.Direction;
+import org.deepak.interfaces.StopScheduler;
+
+import java.util.BitSet;
+
+// Circular LOOK: serves every stop on upward sweeps only, then returns express to the lowest pending stop
+public class CLookScheduler implements StopScheduler {
+    @Override
+    public int nextStop(int currentFloor, Direction direction, BitSet upStops, BitSet downStops, int topFloor) {
+        int stop = lowest(upStops.nextSetBit(currentFloor), downStops.nextSetBit(currentFloor));
+        if (stop >= 0) {
+            return stop;
+        }
+        return lowest(upStops.nextSetBit(0), downStops.nextSetBit(0));
+    }
+
+    private static int lowest(int first, int second) {
+        if (first < 0) {
+            return second;
+        }
+        if (second < 0) {
+            return first;
+        }
+        return Math.min(first, second);
+    }
+}
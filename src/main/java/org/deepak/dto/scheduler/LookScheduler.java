@@ -0,0 +1,49 @@
+package org.deepak.dto.scheduler;
+
+import org.deepak.enums.Direction;
+import org.deepak.interfaces.StopScheduler;
+
+import java.util.BitSet;
+
+// Directional collective: serve stops ahead, turn around at the last call in the current direction
+public class LookScheduler implements StopScheduler {
+    @Override
+    public int nextStop(int currentFloor, Direction direction, BitSet upStops, BitSet downStops, int topFloor) {
+        if (direction == Direction.DOWN) {
+            return nextStopGoingDown(currentFloor, upStops, downStops);
+        }
+        return nextStopGoingUp(currentFloor, upStops, downStops);
+    }
+
+    static int nextStopGoingUp(int currentFloor, BitSet upStops, BitSet downStops) {
+        int stop = upStops.nextSetBit(currentFloor);
+        if (stop >= 0) {
+            return stop;
+        }
+        stop = downStops.length() - 1; // highest DOWN call above us is where the sweep turns
+        if (stop >= currentFloor) {
+            return stop;
+        }
+        stop = downStops.previousSetBit(currentFloor);
+        if (stop >= 0) {
+            return stop;
+        }
+        return upStops.nextSetBit(0);
+    }
+
+    static int nextStopGoingDown(int currentFloor, BitSet upStops, BitSet downStops) {
+        int stop = downStops.previousSetBit(currentFloor);
+        if (stop >= 0) {
+            return stop;
+        }
+        stop = upStops.nextSetBit(0); // lowest UP call below us is where the sweep turns
+        if (stop >= 0 && stop <= currentFloor) {
+            return stop;
+        }
+        stop = upStops.nextSetBit(currentFloor);
+        if (stop >= 0) {
+            return stop;
+        }
+        return downStops.length() - 1;
+    }
+}
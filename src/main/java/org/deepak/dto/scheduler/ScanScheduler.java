@@ -0,0 +1,37 @@
+package org.deepak.dto.scheduler;
+
+import org.deepak.enums.Direction;
+import org.deepak.interfaces.StopScheduler;
+
+import java.util.BitSet;
+
+// Like LOOK, but always runs out to the terminal floor before reversing while any stop is pending
+public class ScanScheduler implements StopScheduler {
+    private static final int BOTTOM_FLOOR = 1;
+
+    @Override
+    public int nextStop(int currentFloor, Direction direction, BitSet upStops, BitSet downStops, int topFloor) {
+        if (upStops.isEmpty() && downStops.isEmpty()) {
+            return -1;
+        }
+        if (direction == Direction.DOWN) {
+            int stop = downStops.previousSetBit(currentFloor);
+            if (stop >= 0) {
+                return stop;
+            }
+            if (currentFloor > BOTTOM_FLOOR) {
+                return BOTTOM_FLOOR;
+            }
+            return LookScheduler.nextStopGoingUp(currentFloor, upStops, downStops);
+        }
+        int stop = upStops.nextSetBit(currentFloor);
+        if (stop >= 0) {
+            return stop;
+        }
+        int top = Math.max(topFloor, Math.max(upStops.length(), downStops.length()) - 1);
+        if (currentFloor < top) {
+            return top;
+        }
+        return LookScheduler.nextStopGoingDown(currentFloor, upStops, downStops);
+    }
+}
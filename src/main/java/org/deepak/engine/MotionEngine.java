@@ -0,0 +1,318 @@
+package org.deepak.engine;
+
+import lombok.Getter;
+import org.deepak.interfaces.Clock;
+import org.deepak.interfaces.MotionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class MotionEngine {
+    private static final Logger logger = LoggerFactory.getLogger(MotionEngine.class);
+    public static final long DEFAULT_TICK_MILLIS = 100;
+    public static final long DEFAULT_FLOOR_TRAVEL_MILLIS = 1000;
+    private static final int INITIAL_SLOTS = 16;
+    private static final long NO_TIMER = Long.MAX_VALUE;
+    private static final byte FLOOR_REACHED = 0;
+    private static final byte ARRIVED = 1;
+    private static final byte DOOR_TIMER = 2;
+
+    @Getter
+    private final long tickMillis;
+    @Getter
+    private final long floorTravelMillis;
+    @Getter
+    private final Clock clock;
+    @Getter
+    private volatile long brakingMillis; // A car decides to stop at the next floor at least this long before reaching it
+    @Getter
+    private final boolean realtime; // False for a simulated engine, advanced by its owner
+    private final Object lock = new Object();
+    private ScheduledExecutorService ticker;
+
+    // Motion state table, one slot per registered car
+    private MotionListener[] listeners = new MotionListener[INITIAL_SLOTS];
+    private int[] floors = new int[INITIAL_SLOTS];
+    private int[] destinations = new int[INITIAL_SLOTS];
+    private int[] steps = new int[INITIAL_SLOTS]; // +1 UP, -1 DOWN, 0 stopped
+    private long[] nextCrossingAt = new long[INITIAL_SLOTS];
+    private long[] doorTimerAt = newTimers(INITIAL_SLOTS); // Next door transition, one per car
+    private int size;
+    private int[] freeSlots = new int[INITIAL_SLOTS]; // Given back by unregister, reused before the table grows
+    private int freeCount;
+
+    // Floor crossings and door timers collected under the lock and delivered after releasing it
+    private int[] eventSlots = new int[INITIAL_SLOTS];
+    private int[] eventFloors = new int[INITIAL_SLOTS];
+    private byte[] eventKinds = new byte[INITIAL_SLOTS];
+
+    private static volatile MotionEngine engine = null;
+
+    public static MotionEngine getInstance() {
+        if (engine == null) {
+            synchronized (MotionEngine.class) {
+                if (engine == null) {
+                    engine = new MotionEngine(DEFAULT_TICK_MILLIS, DEFAULT_FLOOR_TRAVEL_MILLIS);
+                }
+            }
+        }
+        return engine;
+    }
+
+    public MotionEngine(long tickMillis, long floorTravelMillis) {
+        this(new SystemClock(), tickMillis, floorTravelMillis, true);
+    }
+
+    private MotionEngine(Clock clock, long tickMillis, long floorTravelMillis, boolean realtime) {
+        if (tickMillis <= 0 || floorTravelMillis <= 0) {
+            throw new IllegalArgumentException("Tick and floor travel time must be positive");
+        }
+        this.clock = clock;
+        this.tickMillis = tickMillis;
+        this.floorTravelMillis = floorTravelMillis;
+        this.brakingMillis = floorTravelMillis / 2;
+        this.realtime = realtime;
+    }
+
+    // Event-driven engine: no tick thread, the owner advances it to each event time
+    public static MotionEngine simulated(Clock clock, long floorTravelMillis) {
+        return new MotionEngine(clock, floorTravelMillis, floorTravelMillis, false);
+    }
+
+    public int register(MotionListener listener) {
+        synchronized (lock) {
+            while (freeCount > 0) {
+                int slot = freeSlots[--freeCount];
+                // Slots past the end were dropped when the table was trimmed
+                if (slot < size) {
+                    listeners[slot] = listener;
+                    return slot;
+                }
+            }
+            if (size == listeners.length) {
+                grow();
+            }
+            listeners[size] = listener;
+            return size++;
+        }
+    }
+
+    // The car is gone: its motion and door timer are dropped and the slot is free for the next car registered.
+    // Trailing free slots are trimmed so ticks stop visiting them.
+    public void unregister(int slot) {
+        synchronized (lock) {
+            if (slot < 0 || slot >= size || listeners[slot] == null) {
+                return;
+            }
+            listeners[slot] = null;
+            steps[slot] = 0;
+            doorTimerAt[slot] = NO_TIMER;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+            while (size > 0 && listeners[size - 1] == null) {
+                size--;
+            }
+        }
+    }
+
+    public void startMove(int slot, int fromFloor, int destinationFloor) {
+        synchronized (lock) {
+            floors[slot] = fromFloor;
+            destinations[slot] = destinationFloor;
+            steps[slot] = Integer.signum(destinationFloor - fromFloor);
+            nextCrossingAt[slot] = clock.millis() + floorTravelMillis;
+            if (realtime) {
+                ensureTicking();
+            }
+        }
+    }
+
+    public void setBrakingMillis(long brakingMillis) {
+        if (brakingMillis < 0 || brakingMillis > floorTravelMillis) {
+            throw new IllegalArgumentException("Braking time must be between 0 and the floor travel time: " +
+                    brakingMillis);
+        }
+        this.brakingMillis = brakingMillis;
+    }
+
+    // Nearest floor a moving car can still brake for, or -1 when it is standing
+    public int stoppingFloor(int slot) {
+        synchronized (lock) {
+            return nearestStop(slot);
+        }
+    }
+
+    // Ends the move under way early, at a floor short of its destination that the car can still brake for.
+    // Returns false, leaving the move as it was, for any other floor.
+    public boolean stopAt(int slot, int floor) {
+        synchronized (lock) {
+            int step = steps[slot];
+            if (step == 0 || (destinations[slot] - floor) * step <= 0 || (floor - nearestStop(slot)) * step < 0) {
+                return false;
+            }
+            destinations[slot] = floor;
+            return true;
+        }
+    }
+
+    private int nearestStop(int slot) {
+        int step = steps[slot];
+        if (step == 0) {
+            return -1;
+        }
+        int next = floors[slot] + step;
+        return nextCrossingAt[slot] - clock.millis() >= brakingMillis ? next : next + step;
+    }
+
+    // One pending door timer per car: a new one replaces the old
+    public void scheduleDoor(int slot, long atMillis) {
+        synchronized (lock) {
+            doorTimerAt[slot] = atMillis;
+            if (realtime) {
+                ensureTicking();
+            }
+        }
+    }
+
+    public void cancelDoor(int slot) {
+        synchronized (lock) {
+            doorTimerAt[slot] = NO_TIMER;
+        }
+    }
+
+    public boolean isMoving(int slot) {
+        synchronized (lock) {
+            return steps[slot] != 0;
+        }
+    }
+
+    public int getRegisteredCount() {
+        synchronized (lock) {
+            int registered = 0;
+            for (int slot = 0; slot < size; slot++) {
+                if (listeners[slot] != null) {
+                    registered++;
+                }
+            }
+            return registered;
+        }
+    }
+
+    public long nextEventTime() {
+        synchronized (lock) {
+            long next = Long.MAX_VALUE;
+            for (int slot = 0; slot < size; slot++) {
+                if (steps[slot] != 0 && nextCrossingAt[slot] < next) {
+                    next = nextCrossingAt[slot];
+                }
+                if (doorTimerAt[slot] < next) {
+                    next = doorTimerAt[slot];
+                }
+            }
+            return next;
+        }
+    }
+
+    public void shutdown() {
+        synchronized (lock) {
+            if (ticker != null) {
+                ticker.shutdownNow();
+                ticker = null;
+            }
+        }
+    }
+
+    public void tick() {
+        long now = clock.millis();
+        int events = 0;
+        synchronized (lock) {
+            for (int slot = 0; slot < size; slot++) {
+                while (steps[slot] != 0 && nextCrossingAt[slot] <= now) {
+                    floors[slot] += steps[slot];
+                    boolean arrived = floors[slot] == destinations[slot];
+                    if (arrived) {
+                        steps[slot] = 0;
+                    } else {
+                        nextCrossingAt[slot] += floorTravelMillis;
+                    }
+                    events = addEvent(events, slot, arrived ? ARRIVED : FLOOR_REACHED);
+                }
+                if (doorTimerAt[slot] <= now) {
+                    doorTimerAt[slot] = NO_TIMER;
+                    events = addEvent(events, slot, DOOR_TIMER);
+                }
+            }
+        }
+        for (int i = 0; i < events; i++) {
+            deliver(eventSlots[i], eventFloors[i], eventKinds[i]);
+        }
+    }
+
+    private int addEvent(int events, int slot, byte kind) {
+        if (events == eventSlots.length) {
+            growEvents();
+        }
+        eventSlots[events] = slot;
+        eventFloors[events] = floors[slot];
+        eventKinds[events] = kind;
+        return events + 1;
+    }
+
+    private void deliver(int slot, int floor, byte kind) {
+        MotionListener listener = listeners[slot];
+        try {
+            if (kind == DOOR_TIMER) {
+                listener.onDoorTimer(floor);
+                return;
+            }
+            listener.onFloorReached(floor);
+            if (kind == ARRIVED) {
+                listener.onArrived(floor);
+            }
+        } catch (Exception e) {
+            logger.error("Error advancing motion slot {}: {}", slot, e.getMessage());
+        }
+    }
+
+    private void ensureTicking() {
+        if (ticker == null) {
+            ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "motion-engine");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void grow() {
+        int capacity = listeners.length * 2;
+        listeners = Arrays.copyOf(listeners, capacity);
+        floors = Arrays.copyOf(floors, capacity);
+        destinations = Arrays.copyOf(destinations, capacity);
+        steps = Arrays.copyOf(steps, capacity);
+        nextCrossingAt = Arrays.copyOf(nextCrossingAt, capacity);
+        int registered = doorTimerAt.length;
+        doorTimerAt = Arrays.copyOf(doorTimerAt, capacity);
+        Arrays.fill(doorTimerAt, registered, capacity, NO_TIMER);
+    }
+
+    private static long[] newTimers(int capacity) {
+        long[] timers = new long[capacity];
+        Arrays.fill(timers, NO_TIMER);
+        return timers;
+    }
+
+    private void growEvents() {
+        int capacity = eventSlots.length * 2;
+        eventSlots = Arrays.copyOf(eventSlots, capacity);
+        eventFloors = Arrays.copyOf(eventFloors, capacity);
+        eventKinds = Arrays.copyOf(eventKinds, capacity);
+    }
+}
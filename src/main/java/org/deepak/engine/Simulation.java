@@ -0,0 +1,98 @@
+package org.deepak.engine;
+
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+public class Simulation {
+    private static final Logger logger = LoggerFactory.getLogger(Simulation.class);
+    @Getter
+    private final SimulationClock clock;
+    @Getter
+    private final MotionEngine motionEngine;
+    @Getter
+    private final Random random;
+    private final PriorityQueue<ScheduledEvent> events = new PriorityQueue<>();
+    private long sequence;
+    @Getter
+    private long processedEvents;
+
+    public Simulation(long seed) {
+        this(seed, MotionEngine.DEFAULT_FLOOR_TRAVEL_MILLIS);
+    }
+
+    public Simulation(long seed, long floorTravelMillis) {
+        this.clock = new SimulationClock(0);
+        this.motionEngine = MotionEngine.simulated(clock, floorTravelMillis);
+        this.random = new Random(seed);
+    }
+
+    public long now() {
+        return clock.millis();
+    }
+
+    public void schedule(long atMillis, Runnable action) {
+        if (atMillis < clock.millis()) {
+            throw new IllegalArgumentException("Cannot schedule event in the past: " + atMillis);
+        }
+        events.offer(new ScheduledEvent(atMillis, sequence++, action));
+    }
+
+    public void scheduleAfter(long delayMillis, Runnable action) {
+        schedule(clock.millis() + delayMillis, action);
+    }
+
+    public void run() {
+        runUntil(Long.MAX_VALUE);
+    }
+
+    // Jumps straight from one event to the next; motion events fire before actions due at the same instant
+    public void runUntil(long endMillis) {
+        while (true) {
+            long nextMotion = motionEngine.nextEventTime();
+            long nextAction = events.isEmpty() ? Long.MAX_VALUE : events.peek().time;
+            long next = Math.min(nextMotion, nextAction);
+            if (next == Long.MAX_VALUE || next > endMillis) {
+                break;
+            }
+            clock.advanceTo(next);
+            if (nextMotion == next) {
+                motionEngine.tick();
+                processedEvents++;
+            }
+            while (!events.isEmpty() && events.peek().time <= next) {
+                ScheduledEvent event = events.poll();
+                processedEvents++;
+                try {
+                    event.action.run();
+                } catch (Exception e) {
+                    logger.error("Error running simulation event at {}: {}", event.time, e.getMessage());
+                }
+            }
+        }
+        if (endMillis != Long.MAX_VALUE && endMillis > clock.millis()) {
+            clock.advanceTo(endMillis);
+        }
+    }
+
+    private static final class ScheduledEvent implements Comparable<ScheduledEvent> {
+        private final long time;
+        private final long sequence;
+        private final Runnable action;
+
+        private ScheduledEvent(long time, long sequence, Runnable action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(ScheduledEvent other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
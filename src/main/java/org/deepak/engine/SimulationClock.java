@@ -0,0 +1,23 @@
+package org.deepak.engine;
+
+import org.deepak.interfaces.Clock;
+
+public class SimulationClock implements Clock {
+    private volatile long now;
+
+    public SimulationClock(long startMillis) {
+        this.now = startMillis;
+    }
+
+    @Override
+    public long millis() {
+        return now;
+    }
+
+    public void advanceTo(long millis) {
+        if (millis < now) {
+            throw new IllegalArgumentException("Simulation time cannot move backwards: " + millis + " < " + now);
+        }
+        now = millis;
+    }
+}
@@ -0,0 +1,10 @@
+package org.deepak.engine;
+
+import org.deepak.interfaces.Clock;
+
+public class SystemClock implements Clock {
+    @Override
+    public long millis() {
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,8 @@
+package org.deepak.enums;
+
+public enum ActorMessageType {
+    PROCESS_REQUESTS,
+    FLOOR_REACHED,
+    ARRIVED,
+    DOOR_TIMER
+}
@@ -0,0 +1,7 @@
+package org.deepak.enums;
+
+public enum BackpressurePolicy {
+    DROP_OLDEST,
+    BLOCK,
+    CONFLATE_BY_CAR
+}
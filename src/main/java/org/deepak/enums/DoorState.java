@@ -2,5 +2,7 @@ package org.deepak.enums;
 
 public enum DoorState {
     OPEN,
-    CLOSE
+    CLOSE,
+    OPENING,
+    CLOSING
 }
@@ -0,0 +1,9 @@
+package org.deepak.enums;
+
+public enum EventType {
+    STATE_CHANGED,
+    FLOOR_CHANGED,
+    REQUEST_COMPLETED,
+    PASSENGERS_BOARDED,
+    PASSENGERS_ALIGHTED
+}
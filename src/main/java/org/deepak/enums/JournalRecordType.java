@@ -0,0 +1,20 @@
+package org.deepak.enums;
+
+public enum JournalRecordType {
+    ELEVATOR_ADDED, // floor, state, direction; value = capacity
+    HALL_CALL, // floor, direction; no car yet
+    DESTINATION_CALL, // floor = origin, value = destination; no car yet
+    CAR_CALL, // car, floor; value = riders going there
+    ASSIGNED, // car, floor, direction: a hall call given to a car
+    BOOKED, // car, floor = origin, value = destination
+    FLOOR_CHANGED,
+    STATE_CHANGED,
+    STOP_COMPLETED, // car, floor; value = hall directions served, 1 for UP and 2 for DOWN
+    RELEASED, // car, floor, direction: a full car handed the hall call back
+    HELD, // car, floor, direction: nobody else could take it, the car keeps it
+    PASSENGERS_BOARDED, // value = load once they are on
+    PASSENGERS_ALIGHTED, // value = load once they are off
+    FLEET_RESET, // the journal was attached to a fleet or the fleet was replaced; ELEVATOR_ADDED records follow
+    SERVED_FLOORS, // car; value = floors served from floor on, one bit each for 32 floors; floor 0 starts the set over
+    BOOKING_CANCELLED // car, floor = origin, value = destination; a RELEASED follows when the origin is no longer a stop
+}
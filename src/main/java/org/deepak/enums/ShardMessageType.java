@@ -0,0 +1,10 @@
+package org.deepak.enums;
+
+public enum ShardMessageType {
+    HALL_CALL,
+    DESTINATION_CALL,
+    CANCEL_DESTINATION_CALL, // No reply: the booking on the given car is dropped if it is still there
+    ASSIGNED,
+    REJECTED,
+    REROUTE
+}
@@ -0,0 +1,8 @@
+package org.deepak.enums;
+
+public enum TrafficProfile {
+    UP_PEAK,
+    DOWN_PEAK,
+    LUNCH,
+    INTERFLOOR
+}
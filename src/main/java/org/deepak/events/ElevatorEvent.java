@@ -0,0 +1,43 @@
+package org.deepak.events;
+
+import lombok.Getter;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.deepak.enums.EventType;
+
+// Mutable, preallocated ring slot. Subscribers get the same instance back for every event; copy what you keep.
+@Getter
+public class ElevatorEvent {
+    private EventType type;
+    private ElevatorCar elevator;
+    private int floor;
+    private ElevatorState state;
+    private Direction direction;
+    private int count;
+    private long timestamp;
+    private long publishedNanos;
+
+    void set(EventType type, ElevatorCar elevator, int floor, ElevatorState state, Direction direction, int count,
+             long timestamp, long publishedNanos) {
+        this.type = type;
+        this.elevator = elevator;
+        this.floor = floor;
+        this.state = state;
+        this.direction = direction;
+        this.count = count;
+        this.timestamp = timestamp;
+        this.publishedNanos = publishedNanos;
+    }
+
+    void copyFrom(ElevatorEvent other) {
+        set(other.type, other.elevator, other.floor, other.state, other.direction, other.count,
+                other.timestamp, other.publishedNanos);
+    }
+
+    void clear() {
+        elevator = null;
+        state = null;
+        direction = null;
+    }
+}
@@ -0,0 +1,252 @@
+package org.deepak.events;
+
+import org.deepak.dto.ElevatorCar;
+import org.deepak.enums.BackpressurePolicy;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.deepak.enums.EventType;
+import org.deepak.interfaces.ElevatorObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Publishers copy each event into a preallocated ring slot and return; a single bus thread fans the event out
+// to every subscription's own queue, and each subscription delivers to its observer on its own thread.
+// Every subscription reads the ring at its own position. A full BLOCK subscription holds back only its own
+// position, keeping its events in the ring; the others carry on, until the ring itself fills.
+// An inline bus, for engines driven in simulated time, has neither ring nor threads: publish calls every
+// subscriber on the publishing thread, so they see each event at the simulated moment it happens.
+public class EventBus {
+    private static final Logger logger = LoggerFactory.getLogger(EventBus.class);
+    public static final int DEFAULT_CAPACITY = 16384;
+    public static final int DEFAULT_SUBSCRIBER_CAPACITY = 1024;
+
+    private final EventRing ring; // Null on an inline bus
+    private final List<EventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    // Subscriptions an inline publish walks, so it allocates no iterator
+    private volatile EventSubscription[] subscriptionArray = new EventSubscription[0];
+    // Observers added to controllers: one subscription per observer, fed the events of the cars it was added to
+    private final Map<ElevatorObserver, CarFilter> carObservers = new IdentityHashMap<>();
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong lastOverflowWarning = new AtomicLong();
+    private Thread worker;
+    private volatile boolean running = true;
+    private volatile boolean parked;
+
+    public EventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public EventBus(int capacity) {
+        this.ring = new EventRing(capacity);
+    }
+
+    private EventBus(EventRing ring) {
+        this.ring = ring;
+    }
+
+    public static EventBus inline() {
+        return new EventBus((EventRing) null);
+    }
+
+    public boolean isInline() {
+        return ring == null;
+    }
+
+    public EventSubscription subscribe(String name, ElevatorObserver observer, BackpressurePolicy policy) {
+        return subscribe(name, observer, policy, DEFAULT_SUBSCRIBER_CAPACITY);
+    }
+
+    public synchronized EventSubscription subscribe(String name, ElevatorObserver observer, BackpressurePolicy policy,
+                                                    int capacity) {
+        if (!running) {
+            throw new IllegalStateException("Event bus is shut down");
+        }
+        EventSubscription subscription = new EventSubscription(name, observer, policy, capacity, this::wake,
+                !isInline());
+        subscriptions.add(subscription);
+        subscriptionArray = subscriptions.toArray(new EventSubscription[0]);
+        if (worker == null && !isInline()) {
+            worker = new Thread(this::run, "event-bus");
+            worker.setDaemon(true);
+            worker.start();
+        }
+        return subscription;
+    }
+
+    public synchronized void unsubscribe(EventSubscription subscription) {
+        subscriptions.remove(subscription);
+        subscriptionArray = subscriptions.toArray(new EventSubscription[0]);
+        subscription.shutdown();
+    }
+
+    // Backs ElevatorController.addObserver: the observer gets the car's events on its own BLOCK subscription,
+    // shared by every car it is added to
+    public synchronized void observe(ElevatorCar elevator, ElevatorObserver observer) {
+        CarFilter filter = carObservers.get(observer);
+        if (filter == null) {
+            filter = new CarFilter(observer);
+            filter.subscription = subscribe(observer.getClass().getName(), filter, BackpressurePolicy.BLOCK);
+            carObservers.put(observer, filter);
+        }
+        filter.cars.add(elevator);
+    }
+
+    public synchronized void stopObserving(ElevatorCar elevator, ElevatorObserver observer) {
+        CarFilter filter = carObservers.get(observer);
+        if (filter != null) {
+            filter.cars.remove(elevator);
+            if (filter.cars.isEmpty()) {
+                carObservers.remove(observer);
+                unsubscribe(filter.subscription);
+            }
+        }
+    }
+
+    // A car leaving the system takes every observer added to it with it
+    public synchronized void stopObserving(ElevatorCar elevator) {
+        for (CarFilter filter : carObservers.values().toArray(new CarFilter[0])) {
+            stopObserving(elevator, filter.observer);
+        }
+    }
+
+    public List<EventSubscription> getSubscriptions() {
+        return subscriptions;
+    }
+
+    // Never waits: with the ring full the event is counted as an overflow and dropped
+    public void publish(EventType type, ElevatorCar elevator, int floor, ElevatorState state, Direction direction,
+                        int count) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        if (ring == null) {
+            for (EventSubscription subscription : subscriptionArray) {
+                subscription.deliverNow(type, elevator, floor, state, direction, count);
+            }
+            return;
+        }
+        long timestamp = elevator.getMotionEngine().getClock().millis();
+        if (!ring.offer(type, elevator, floor, state, direction, count, timestamp)) {
+            overflows.incrementAndGet();
+            warnOverflow(timestamp);
+            return;
+        }
+        if (parked) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    // A blocked subscription made room
+    private void wake() {
+        Thread current = worker;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    // At most one warning a second; a stalled bus can overflow millions of times
+    private void warnOverflow(long now) {
+        long last = lastOverflowWarning.get();
+        if (now - last >= 1000 && lastOverflowWarning.compareAndSet(last, now)) {
+            logger.warn("Event bus full, dropping events ({} so far)", overflows.get());
+        }
+    }
+
+    public long getOverflows() {
+        return overflows.get();
+    }
+
+    public synchronized void shutdown() {
+        running = false;
+        for (EventSubscription subscription : subscriptions) {
+            subscription.shutdown();
+        }
+        if (worker != null) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    private static final class CarFilter implements ElevatorObserver {
+        private final ElevatorObserver observer;
+        private final Set<ElevatorCar> cars = ConcurrentHashMap.newKeySet();
+        private EventSubscription subscription;
+
+        private CarFilter(ElevatorObserver observer) {
+            this.observer = observer;
+        }
+
+        @Override
+        public void onElevatorStateChanged(ElevatorCar elevator, ElevatorState newState) {
+            if (cars.contains(elevator)) {
+                observer.onElevatorStateChanged(elevator, newState);
+            }
+        }
+
+        @Override
+        public void onFloorChanged(ElevatorCar elevator, int newFloor) {
+            if (cars.contains(elevator)) {
+                observer.onFloorChanged(elevator, newFloor);
+            }
+        }
+
+        @Override
+        public void onRequestCompleted(ElevatorCar elevator, int floor) {
+            if (cars.contains(elevator)) {
+                observer.onRequestCompleted(elevator, floor);
+            }
+        }
+
+        @Override
+        public void onPassengersBoarded(ElevatorCar elevator, int floor, Direction direction, int count) {
+            if (cars.contains(elevator)) {
+                observer.onPassengersBoarded(elevator, floor, direction, count);
+            }
+        }
+
+        @Override
+        public void onPassengersAlighted(ElevatorCar elevator, int floor, int count) {
+            if (cars.contains(elevator)) {
+                observer.onPassengersAlighted(elevator, floor, count);
+            }
+        }
+    }
+
+    private void run() {
+        long published = ring.head(); // First position not yet published
+        while (running) {
+            while (ring.get(published) != null) {
+                published++;
+            }
+            boolean moved = false;
+            long oldest = published;
+            for (EventSubscription subscription : subscriptions) {
+                // A new subscription starts with the events published after it first comes up here
+                if (subscription.cursor < 0) {
+                    subscription.cursor = published;
+                }
+                while (subscription.cursor < published && subscription.offer(ring.get(subscription.cursor))) {
+                    subscription.cursor++;
+                    moved = true;
+                }
+                oldest = Math.min(oldest, subscription.cursor);
+            }
+            ring.releaseTo(oldest);
+            if (!moved) {
+                parked = true;
+                if (ring.get(published) == null && running) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+            }
+        }
+    }
+}
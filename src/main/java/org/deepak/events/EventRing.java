@@ -0,0 +1,75 @@
+package org.deepak.events;
+
+import org.deepak.dto.ElevatorCar;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.deepak.enums.EventType;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded multi-producer ring of preallocated events; publishers claim a slot with one CAS. The single bus thread
+// reads it at any number of positions and frees slots once every reader is past them.
+class EventRing {
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final ElevatorEvent[] slots;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    EventRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.slots = new ElevatorEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+            slots[i] = new ElevatorEvent();
+        }
+    }
+
+    boolean offer(EventType type, ElevatorCar elevator, int floor, ElevatorState state, Direction direction, int count,
+                  long timestamp) {
+        long position;
+        while (true) {
+            position = tail.get();
+            long difference = sequences.get((int) position & mask) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+        int index = (int) position & mask;
+        slots[index].set(type, elevator, floor, state, direction, count, timestamp, System.nanoTime());
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    // Event published at this position, or null if it is not published yet; stays valid until released
+    ElevatorEvent get(long position) {
+        int index = (int) position & mask;
+        return sequences.get(index) == position + 1 ? slots[index] : null;
+    }
+
+    // Oldest position not yet released
+    long head() {
+        return head;
+    }
+
+    // Frees every slot before the position for publishers to reuse
+    void releaseTo(long position) {
+        while (head < position) {
+            int index = (int) head & mask;
+            slots[index].clear();
+            sequences.lazySet(index, head + capacity);
+            head++;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.deepak.events;
+
+import lombok.Getter;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.enums.BackpressurePolicy;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.deepak.enums.EventType;
+import org.deepak.interfaces.ElevatorObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+// One subscriber: its own bounded queue, its own delivery thread and its own lag counters. On an inline bus it
+// has no thread and the queue stays empty.
+public class EventSubscription {
+    private static final Logger logger = LoggerFactory.getLogger(EventSubscription.class);
+    @Getter
+    private final String name;
+    @Getter
+    private final ElevatorObserver observer;
+    @Getter
+    private final BackpressurePolicy policy;
+    @Getter
+    private final int capacity;
+    @Getter
+    private volatile long delivered;
+    @Getter
+    private volatile long dropped;
+    @Getter
+    private volatile long conflated;
+    // Publish-to-delivery delay of the most recent and the slowest event
+    @Getter
+    private volatile long lastDelayNanos;
+    @Getter
+    private volatile long maxDelayNanos;
+
+    private final ElevatorEvent[] slots;
+    private final ElevatorEvent current = new ElevatorEvent();
+    private long head;
+    private long tail;
+    // Queue position of the undelivered FLOOR_CHANGED / STATE_CHANGED event per car id, for conflation
+    private long[] pendingFloor = new long[0];
+    private long[] pendingState = new long[0];
+    private volatile boolean running = true;
+    private final Thread worker; // Null on an inline bus
+    private final Runnable onRoom; // Wakes the bus once a BLOCK subscription it could not feed has room again
+    private boolean blocked;
+    long cursor = -1; // Next ring position for this subscription, kept by the bus thread; -1 until it starts
+
+    EventSubscription(String name, ElevatorObserver observer, BackpressurePolicy policy, int capacity,
+                      Runnable onRoom, boolean threaded) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Subscription capacity must be positive: " + capacity);
+        }
+        this.name = name;
+        this.observer = observer;
+        this.policy = policy;
+        this.capacity = capacity;
+        this.onRoom = onRoom;
+        this.slots = new ElevatorEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new ElevatorEvent();
+        }
+        if (threaded) {
+            this.worker = new Thread(this::run, "event-bus-" + name);
+            this.worker.setDaemon(true);
+            this.worker.start();
+        } else {
+            this.worker = null;
+        }
+    }
+
+    // Events queued but not yet handed to the observer
+    public synchronized long getLag() {
+        return tail - head;
+    }
+
+    // Called by the bus thread only. False when a full BLOCK subscription cannot take the event yet: the bus keeps
+    // it in the ring for this subscription and offers it again once there is room, meanwhile feeding the others.
+    synchronized boolean offer(ElevatorEvent event) {
+        if (policy == BackpressurePolicy.CONFLATE_BY_CAR && conflate(event)) {
+            return true;
+        }
+        if (tail - head == capacity) {
+            if (policy == BackpressurePolicy.BLOCK && running) {
+                blocked = true;
+                return false;
+            }
+            head++;
+            dropped++;
+        }
+        int index = (int) (tail % capacity);
+        slots[index].copyFrom(event);
+        if (policy == BackpressurePolicy.CONFLATE_BY_CAR) {
+            remember(event, tail);
+        }
+        tail++;
+        notifyAll();
+        return true;
+    }
+
+    synchronized void shutdown() {
+        running = false;
+        notifyAll();
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    // Inline bus: straight to the observer on the publishing thread
+    void deliverNow(EventType type, ElevatorCar elevator, int floor, ElevatorState state, Direction direction,
+                    int count) {
+        if (running) {
+            deliver(type, elevator, floor, state, direction, count, System.nanoTime());
+        }
+    }
+
+    private boolean conflate(ElevatorEvent event) {
+        long[] pending = pendingFor(event.getType());
+        int carId = event.getElevator().getId();
+        if (pending == null || carId >= pending.length) {
+            return false;
+        }
+        long position = pending[carId] - 1;
+        if (position < head) {
+            return false;
+        }
+        slots[(int) (position % capacity)].copyFrom(event);
+        conflated++;
+        return true;
+    }
+
+    private void remember(ElevatorEvent event, long position) {
+        if (pendingFor(event.getType()) == null) {
+            return;
+        }
+        int carId = event.getElevator().getId();
+        if (carId >= pendingFloor.length) {
+            int size = Math.max(carId + 1, pendingFloor.length * 2);
+            pendingFloor = Arrays.copyOf(pendingFloor, size);
+            pendingState = Arrays.copyOf(pendingState, size);
+        }
+        // Stored off by one so that zero means nothing pending
+        pendingFor(event.getType())[carId] = position + 1;
+    }
+
+    private long[] pendingFor(EventType type) {
+        if (type == EventType.FLOOR_CHANGED) {
+            return pendingFloor;
+        }
+        return type == EventType.STATE_CHANGED ? pendingState : null;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                boolean wake;
+                synchronized (this) {
+                    while (tail == head) {
+                        wait();
+                    }
+                    current.copyFrom(slots[(int) (head % capacity)]);
+                    head++;
+                    wake = blocked;
+                    blocked = false;
+                }
+                if (wake) {
+                    onRoom.run();
+                }
+                deliver(current.getType(), current.getElevator(), current.getFloor(), current.getState(),
+                        current.getDirection(), current.getCount(), current.getPublishedNanos());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void deliver(EventType type, ElevatorCar elevator, int floor, ElevatorState state, Direction direction,
+                         int count, long publishedNanos) {
+        try {
+            switch (type) {
+                case STATE_CHANGED -> observer.onElevatorStateChanged(elevator, state);
+                case FLOOR_CHANGED -> observer.onFloorChanged(elevator, floor);
+                case REQUEST_COMPLETED -> observer.onRequestCompleted(elevator, floor);
+                case PASSENGERS_BOARDED -> observer.onPassengersBoarded(elevator, floor, direction, count);
+                case PASSENGERS_ALIGHTED -> observer.onPassengersAlighted(elevator, floor, count);
+            }
+        } catch (Exception e) {
+            logger.error("Error notifying subscriber {}: {}", name, e.getMessage());
+        }
+        long delay = System.nanoTime() - publishedNanos;
+        lastDelayNanos = delay;
+        if (delay > maxDelayNanos) {
+            maxDelayNanos = delay;
+        }
+        delivered++;
+    }
+}
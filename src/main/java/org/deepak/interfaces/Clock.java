@@ -0,0 +1,5 @@
+package org.deepak.interfaces;
+
+public interface Clock {
+    long millis();
+}
@@ -0,0 +1,10 @@
+package org.deepak.interfaces;
+
+import org.deepak.dto.ElevatorCar;
+import org.deepak.enums.Direction;
+
+public interface DispatchStrategy {
+    // Car to answer a hall call at the floor, or null when no car can; destinationFloor is -1 unless the passenger
+    // keyed it in at a destination panel, in which case the car must stop there too
+    ElevatorCar select(int floor, Direction direction, int destinationFloor);
+}
@@ -1,10 +1,17 @@
 package org.deepak.interfaces;
 
 import org.deepak.dto.ElevatorCar;
+import org.deepak.enums.Direction;
 import org.deepak.enums.ElevatorState;
 
 public interface ElevatorObserver {
     void onElevatorStateChanged(ElevatorCar elevator, ElevatorState newState);
     void onFloorChanged(ElevatorCar elevator, int newFloor);
     void onRequestCompleted(ElevatorCar elevator, int floor);
-}
\ No newline at end of file
+
+    default void onPassengersBoarded(ElevatorCar elevator, int floor, Direction direction, int count) {
+    }
+
+    default void onPassengersAlighted(ElevatorCar elevator, int floor, int count) {
+    }
+}
@@ -0,0 +1,13 @@
+package org.deepak.interfaces;
+
+import org.deepak.metrics.MetricsRegistry;
+
+import java.io.IOException;
+
+public interface MetricsExporter extends AutoCloseable {
+    // Starts publishing the registry's current values, read afresh on every scrape or push
+    void start(MetricsRegistry registry) throws IOException;
+
+    @Override
+    void close();
+}
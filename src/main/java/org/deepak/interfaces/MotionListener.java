@@ -0,0 +1,10 @@
+package org.deepak.interfaces;
+
+public interface MotionListener {
+    void onFloorReached(int floor);
+    void onArrived(int floor);
+
+    // A door timer set with MotionEngine.scheduleDoor has come due
+    default void onDoorTimer(int floor) {
+    }
+}
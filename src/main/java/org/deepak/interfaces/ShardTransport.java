@@ -0,0 +1,13 @@
+package org.deepak.interfaces;
+
+import org.deepak.cluster.ShardMessage;
+
+import java.util.function.Consumer;
+
+public interface ShardTransport {
+    // Messages sent to nodeId are handed to handler until the node is unbound
+    void bind(String nodeId, Consumer<ShardMessage> handler);
+    void unbind(String nodeId);
+    // False when nodeId is not reachable; the message was not delivered
+    boolean send(String nodeId, ShardMessage message);
+}
@@ -0,0 +1,10 @@
+package org.deepak.interfaces;
+
+import org.deepak.enums.Direction;
+
+import java.util.BitSet;
+
+public interface StopScheduler {
+    // Next floor to travel to from the car's live position and direction, or -1 when nothing is pending
+    int nextStop(int currentFloor, Direction direction, BitSet upStops, BitSet downStops, int topFloor);
+}
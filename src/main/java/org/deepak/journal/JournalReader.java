@@ -0,0 +1,160 @@
+package org.deepak.journal;
+
+import org.deepak.ElevatorSystem;
+import org.deepak.dto.Building;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.dto.ElevatorController;
+import org.deepak.engine.Simulation;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.deepak.enums.JournalRecordType;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.deepak.journal.TripJournal.*;
+
+// Sequential reader over a trip journal, safe to use while the journal is still being written
+public class JournalReader implements AutoCloseable {
+    private static final JournalRecordType[] TYPES = JournalRecordType.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final ElevatorState[] STATES = ElevatorState.values();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] regions;
+    private final long regionSize;
+    private final long size;
+    private long position = RECORD_SIZE;
+
+    private JournalReader(Path path, long regionSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.regionSize = regionSize;
+        try {
+            this.size = channel.size() - channel.size() % RECORD_SIZE;
+            this.regions = new MappedByteBuffer[(int) ((size + regionSize - 1) / regionSize)];
+            for (int i = 0; i < regions.length; i++) {
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, i * regionSize,
+                        Math.min(regionSize, size - i * regionSize));
+            }
+            if (size < RECORD_SIZE || regions[0].getLong(TIMESTAMP) != MAGIC || regions[0].getInt(ELEVATOR) != VERSION) {
+                throw new IOException("Not a trip journal: " + path);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static JournalReader open(Path path) throws IOException {
+        return new JournalReader(path, DEFAULT_REGION_SIZE);
+    }
+
+    // Fills the record and returns true, or returns false at the end of the committed records
+    public boolean next(JournalRecord record) {
+        if (position >= size) {
+            return false;
+        }
+        MappedByteBuffer region = regions[(int) (position / regionSize)];
+        int offset = (int) (position % regionSize);
+        int type = (int) TYPE_WORD.getAcquire(region, offset + TYPE);
+        if (type == 0) {
+            return false;
+        }
+        int direction = region.get(offset + DIRECTION);
+        int state = region.get(offset + STATE);
+        record.set(position, TYPES[type - 1], region.getLong(offset + TIMESTAMP), region.getInt(offset + ELEVATOR),
+                region.getInt(offset + FLOOR), region.getInt(offset + VALUE),
+                direction == 0 ? null : DIRECTIONS[direction - 1], state == 0 ? null : STATES[state - 1]);
+        position += RECORD_SIZE;
+        return true;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    // Continue from a byte offset previously taken from getPosition() or TripJournal.getPosition()
+    public void seek(long position) {
+        if (position < RECORD_SIZE || position % RECORD_SIZE != 0) {
+            throw new IllegalArgumentException("Invalid journal position: " + position);
+        }
+        this.position = position;
+    }
+
+    public void rewind() {
+        position = RECORD_SIZE;
+    }
+
+    // Fleet state as of the given time: every record stamped at or before it, from the start of the journal
+    public JournalState stateAt(long timestamp) {
+        rewind();
+        JournalState state = new JournalState();
+        JournalRecord record = new JournalRecord();
+        while (next(record)) {
+            if (record.getTimestamp() > timestamp) {
+                break;
+            }
+            state.apply(record);
+        }
+        return state;
+    }
+
+    // Schedules the journal's calls on the simulation with their original spacing, starting now.
+    // Journal cars map onto the system's cars in the order both were added; returns the number of calls scheduled.
+    public int replayInto(Simulation simulation, ElevatorSystem system) {
+        rewind();
+        Building building = system.getBuilding();
+        List<ElevatorController> controllers = system.getControllers();
+        Map<Integer, ElevatorCar> carsById = new HashMap<>();
+        List<JournalRecord> calls = new ArrayList<>();
+        long start = Long.MIN_VALUE;
+        JournalRecord record = new JournalRecord();
+        while (next(record)) {
+            if (start == Long.MIN_VALUE) {
+                start = record.getTimestamp();
+            }
+            switch (record.getType()) {
+                case ELEVATOR_ADDED -> {
+                    if (carsById.size() < controllers.size()) {
+                        carsById.put(record.getElevatorId(), controllers.get(carsById.size()).getElevator());
+                    }
+                }
+                case HALL_CALL, DESTINATION_CALL, CAR_CALL -> {
+                    calls.add(record);
+                    record = new JournalRecord();
+                }
+                default -> {
+                }
+            }
+        }
+        long offset = simulation.now() - start;
+        int scheduled = 0;
+        for (JournalRecord call : calls) {
+            Runnable action = switch (call.getType()) {
+                case HALL_CALL -> () -> building.getFloor(call.getFloor()).getPanel().pressButton(call.getDirection());
+                case DESTINATION_CALL -> () -> building.getFloor(call.getFloor()).getPanel().pressDestination(call.getValue());
+                default -> {
+                    ElevatorCar car = carsById.get(call.getElevatorId());
+                    yield car == null ? null : () -> car.pressFloorButton(call.getFloor());
+                }
+            };
+            if (action != null) {
+                simulation.schedule(call.getTimestamp() + offset, action);
+                scheduled++;
+            }
+        }
+        return scheduled;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
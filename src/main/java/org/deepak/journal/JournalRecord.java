@@ -0,0 +1,37 @@
+package org.deepak.journal;
+
+import lombok.Getter;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.deepak.enums.JournalRecordType;
+
+// Reusable view of one journal record, refilled by JournalReader.next
+@Getter
+public class JournalRecord {
+    private JournalRecordType type;
+    private long timestamp;
+    private int elevatorId;
+    private int floor;
+    private int value;
+    private Direction direction;
+    private ElevatorState state;
+    private long position; // Offset of the record in the journal
+
+    void set(long position, JournalRecordType type, long timestamp, int elevatorId, int floor, int value, Direction direction,
+             ElevatorState state) {
+        this.position = position;
+        this.type = type;
+        this.timestamp = timestamp;
+        this.elevatorId = elevatorId;
+        this.floor = floor;
+        this.value = value;
+        this.direction = direction;
+        this.state = state;
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + " " + type + " car=" + elevatorId + " floor=" + floor + " value=" + value +
+                " direction=" + direction + " state=" + state;
+    }
+}
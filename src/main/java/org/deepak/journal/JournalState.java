@@ -0,0 +1,209 @@
+package org.deepak.journal;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Fleet state rebuilt by applying journal records in order: where every car is and what it still has to serve
+public class JournalState {
+    @Getter
+    @Setter
+    private long timestamp;
+    @Getter
+    private long appliedRecords;
+    private final Map<Integer, CarState> cars = new LinkedHashMap<>();
+
+    public void apply(JournalRecord record) {
+        timestamp = record.getTimestamp();
+        appliedRecords++;
+        switch (record.getType()) {
+            case FLEET_RESET -> cars.clear();
+            case ELEVATOR_ADDED -> {
+                CarState car = addCar(record.getElevatorId());
+                car.floor = record.getFloor();
+                car.state = record.getState();
+                car.direction = record.getDirection();
+                car.capacity = record.getValue();
+            }
+            case HALL_CALL, DESTINATION_CALL -> {
+                // Inputs only: the car that takes them shows up in ASSIGNED or BOOKED
+            }
+            default -> {
+                CarState car = cars.get(record.getElevatorId());
+                if (car != null && record.getPosition() >= car.journalPosition) {
+                    car.apply(record);
+                }
+            }
+        }
+    }
+
+    // Starts the car over with nothing pending
+    public CarState addCar(int elevatorId) {
+        CarState car = new CarState(elevatorId);
+        cars.put(elevatorId, car);
+        return car;
+    }
+
+    public CarState getCar(int elevatorId) {
+        return cars.get(elevatorId);
+    }
+
+    // In the order the cars were added
+    public List<CarState> getCars() {
+        return new ArrayList<>(cars.values());
+    }
+
+    @Getter
+    @Setter
+    public static class CarState {
+        private final int elevatorId;
+        private int floor;
+        private Direction direction;
+        private ElevatorState state;
+        private int capacity;
+        private int load;
+        // Journal records before this offset are already part of the state: it was captured from the car then
+        private long journalPosition;
+        private final BitSet carCalls = new BitSet();
+        private final BitSet upHallCalls = new BitSet();
+        private final BitSet downHallCalls = new BitSet();
+        private final BitSet servedFloors = new BitSet(); // Empty for a car serving the whole building
+        @Setter(AccessLevel.NONE)
+        private int[] bookingOrigins = new int[0];
+        @Setter(AccessLevel.NONE)
+        private int[] bookingDestinations = new int[0];
+        @Setter(AccessLevel.NONE)
+        private int bookingCount;
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        private int[] alightingAt = new int[0]; // Riders on board heading to each floor
+
+        CarState(int elevatorId) {
+            this.elevatorId = elevatorId;
+        }
+
+        public int getBookingOrigin(int booking) {
+            return bookingOrigins[booking];
+        }
+
+        public int getBookingDestination(int booking) {
+            return bookingDestinations[booking];
+        }
+
+        public void addBooking(int origin, int destination) {
+            if (bookingCount == bookingOrigins.length) {
+                bookingOrigins = Arrays.copyOf(bookingOrigins, Math.max(4, bookingCount * 2));
+                bookingDestinations = Arrays.copyOf(bookingDestinations, bookingOrigins.length);
+            }
+            bookingOrigins[bookingCount] = origin;
+            bookingDestinations[bookingCount] = destination;
+            bookingCount++;
+        }
+
+        public int getAlighting(int floor) {
+            return floor < alightingAt.length ? alightingAt[floor] : 0;
+        }
+
+        public void addAlighting(int floor, int riders) {
+            if (floor >= alightingAt.length) {
+                alightingAt = Arrays.copyOf(alightingAt, Math.max(floor + 1, alightingAt.length * 2));
+            }
+            alightingAt[floor] += riders;
+        }
+
+        private void apply(JournalRecord record) {
+            int recordFloor = record.getFloor();
+            switch (record.getType()) {
+                case FLOOR_CHANGED -> {
+                    floor = recordFloor;
+                    direction = record.getDirection();
+                }
+                case STATE_CHANGED -> {
+                    floor = recordFloor;
+                    state = record.getState();
+                    direction = record.getDirection();
+                }
+                case CAR_CALL -> {
+                    carCalls.set(recordFloor);
+                    addAlighting(recordFloor, record.getValue());
+                }
+                case ASSIGNED, HELD -> hallCalls(record.getDirection()).set(recordFloor);
+                case RELEASED -> hallCalls(record.getDirection()).clear(recordFloor);
+                case BOOKED -> {
+                    hallCalls(record.getValue() > recordFloor ? Direction.UP : Direction.DOWN).set(recordFloor);
+                    addBooking(recordFloor, record.getValue());
+                }
+                case STOP_COMPLETED -> {
+                    carCalls.clear(recordFloor);
+                    if (recordFloor < alightingAt.length) {
+                        alightingAt[recordFloor] = 0;
+                    }
+                    if (carCalls.isEmpty()) {
+                        Arrays.fill(alightingAt, 0);
+                    }
+                    if ((record.getValue() & 1) != 0) {
+                        upHallCalls.clear(recordFloor);
+                        boardBookings(recordFloor, true);
+                    }
+                    if ((record.getValue() & 2) != 0) {
+                        downHallCalls.clear(recordFloor);
+                        boardBookings(recordFloor, false);
+                    }
+                }
+                // The load is recorded outside the car's lock, so the records carry it whole rather than the change
+                case PASSENGERS_BOARDED, PASSENGERS_ALIGHTED -> load = record.getValue();
+                case BOOKING_CANCELLED -> cancelBooking(recordFloor, record.getValue());
+                case SERVED_FLOORS -> {
+                    if (recordFloor == 0) {
+                        servedFloors.clear();
+                    }
+                    for (int bits = record.getValue(); bits != 0; bits &= bits - 1) {
+                        servedFloors.set(recordFloor + Integer.numberOfTrailingZeros(bits));
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private BitSet hallCalls(Direction direction) {
+            return direction == Direction.DOWN ? downHallCalls : upHallCalls;
+        }
+
+        private void cancelBooking(int origin, int destination) {
+            for (int i = 0; i < bookingCount; i++) {
+                if (bookingOrigins[i] == origin && bookingDestinations[i] == destination) {
+                    bookingCount--;
+                    System.arraycopy(bookingOrigins, i + 1, bookingOrigins, i, bookingCount - i);
+                    System.arraycopy(bookingDestinations, i + 1, bookingDestinations, i, bookingCount - i);
+                    return;
+                }
+            }
+        }
+
+        // Picked-up bookings become car calls, as in ElevatorController.boardBookings
+        private void boardBookings(int floor, boolean up) {
+            int kept = 0;
+            for (int i = 0; i < bookingCount; i++) {
+                if (bookingOrigins[i] == floor && (bookingDestinations[i] > floor) == up) {
+                    carCalls.set(bookingDestinations[i]);
+                    addAlighting(bookingDestinations[i], 1);
+                    continue;
+                }
+                bookingOrigins[kept] = bookingOrigins[i];
+                bookingDestinations[kept] = bookingDestinations[i];
+                kept++;
+            }
+            bookingCount = kept;
+        }
+    }
+}
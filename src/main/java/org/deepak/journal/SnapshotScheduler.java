@@ -0,0 +1,63 @@
+package org.deepak.journal;
+
+import lombok.Getter;
+import org.deepak.ElevatorSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Rewrites the snapshot file at a fixed rate, starting straight away, so recovery never replays more than
+// one period of journal
+public class SnapshotScheduler implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotScheduler.class);
+    private final ElevatorSystem system;
+    @Getter
+    private final Path path;
+    private final ScheduledExecutorService executor;
+    @Getter
+    private volatile long snapshotsTaken;
+
+    public SnapshotScheduler(ElevatorSystem system, Path path, long periodMillis) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Snapshot period must be positive: " + periodMillis);
+        }
+        this.system = system;
+        this.path = path;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::snapshotQuietly, 0, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // The journal is flushed first so the snapshot never points past what is on disk
+    public synchronized SystemSnapshot snapshotNow() throws IOException {
+        TripJournal journal = system.getJournal();
+        if (journal != null) {
+            journal.force();
+        }
+        SystemSnapshot snapshot = SystemSnapshot.capture(system);
+        snapshot.write(path);
+        snapshotsTaken++;
+        return snapshot;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshotNow();
+        } catch (Exception e) {
+            logger.error("Error writing snapshot {}: {}", path, e.getMessage());
+        }
+    }
+}
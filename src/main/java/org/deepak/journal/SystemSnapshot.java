@@ -0,0 +1,175 @@
+package org.deepak.journal;
+
+import lombok.Getter;
+import org.deepak.ElevatorSystem;
+import org.deepak.dto.ElevatorController;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+
+// Compact point-in-time copy of the fleet plus the journal position it was taken at. Recovery reads the
+// snapshot and applies only the journal records written after it.
+public class SystemSnapshot {
+    private static final long MAGIC = 0x454C56534E415031L; // "ELVSNAP1"
+    private static final int VERSION = 3;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final ElevatorState[] STATES = ElevatorState.values();
+
+    @Getter
+    private final long timestamp;
+    @Getter
+    private final long journalPosition; // -1 when no journal was attached
+    @Getter
+    private final int floorCount;
+    @Getter
+    private final JournalState state;
+
+    private SystemSnapshot(long timestamp, long journalPosition, int floorCount, JournalState state) {
+        this.timestamp = timestamp;
+        this.journalPosition = journalPosition;
+        this.floorCount = floorCount;
+        this.state = state;
+    }
+
+    // Each car is copied under its controller's lock together with the journal position at that moment, and
+    // recovery applies to it only the records from there on. The snapshot's own position is read first, so it
+    // comes before every car's and reading from it misses none of them.
+    public static SystemSnapshot capture(ElevatorSystem system) {
+        TripJournal journal = system.getJournal();
+        long position = journal != null ? journal.getPosition() : -1;
+        long timestamp = system.getClock().millis();
+        JournalState state = new JournalState();
+        state.setTimestamp(timestamp);
+        for (ElevatorController controller : system.getControllers()) {
+            controller.captureState(state.addCar(controller.getElevator().getId()));
+        }
+        return new SystemSnapshot(timestamp, position, system.getBuilding().getFloors().size(), state);
+    }
+
+    // Snapshot state brought forward by every journal record written after it
+    public JournalState recover(JournalReader reader) {
+        if (journalPosition < 0) {
+            return state;
+        }
+        reader.seek(journalPosition);
+        JournalRecord record = new JournalRecord();
+        while (reader.next(record)) {
+            state.apply(record);
+        }
+        return state;
+    }
+
+    // Written beside the target and moved over it, so a crash mid-write leaves the previous snapshot intact
+    public void write(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(timestamp);
+            out.writeLong(journalPosition);
+            out.writeInt(floorCount);
+            out.writeInt(state.getCars().size());
+            for (JournalState.CarState car : state.getCars()) {
+                writeCar(out, car);
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static SystemSnapshot read(Path path) throws IOException {
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+            if (in.readLong() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a system snapshot: " + path);
+            }
+            long timestamp = in.readLong();
+            long journalPosition = in.readLong();
+            int floorCount = in.readInt();
+            int carCount = in.readInt();
+            JournalState state = new JournalState();
+            state.setTimestamp(timestamp);
+            for (int i = 0; i < carCount; i++) {
+                readCar(in, state);
+            }
+            return new SystemSnapshot(timestamp, journalPosition, floorCount, state);
+        }
+    }
+
+    private static void writeCar(DataOutputStream out, JournalState.CarState car) throws IOException {
+        out.writeInt(car.getElevatorId());
+        out.writeLong(car.getJournalPosition());
+        out.writeInt(car.getFloor());
+        out.writeByte(car.getDirection() == null ? 0 : car.getDirection().ordinal() + 1);
+        out.writeByte(car.getState() == null ? 0 : car.getState().ordinal() + 1);
+        out.writeInt(car.getCapacity());
+        out.writeInt(car.getLoad());
+        writeFloors(out, car.getCarCalls());
+        writeFloors(out, car.getUpHallCalls());
+        writeFloors(out, car.getDownHallCalls());
+        writeFloors(out, car.getServedFloors());
+        out.writeInt(car.getBookingCount());
+        for (int i = 0; i < car.getBookingCount(); i++) {
+            out.writeInt(car.getBookingOrigin(i));
+            out.writeInt(car.getBookingDestination(i));
+        }
+        // Riders per car-call floor, in the order of writeFloors above
+        BitSet carCalls = car.getCarCalls();
+        for (int floor = carCalls.nextSetBit(0); floor >= 0; floor = carCalls.nextSetBit(floor + 1)) {
+            out.writeInt(car.getAlighting(floor));
+        }
+    }
+
+    private static void readCar(DataInputStream in, JournalState state) throws IOException {
+        JournalState.CarState car = state.addCar(in.readInt());
+        car.setJournalPosition(in.readLong());
+        car.setFloor(in.readInt());
+        int direction = in.readByte();
+        int carState = in.readByte();
+        car.setDirection(direction == 0 ? null : DIRECTIONS[direction - 1]);
+        car.setState(carState == 0 ? null : STATES[carState - 1]);
+        car.setCapacity(in.readInt());
+        car.setLoad(in.readInt());
+        readFloors(in, car.getCarCalls());
+        readFloors(in, car.getUpHallCalls());
+        readFloors(in, car.getDownHallCalls());
+        readFloors(in, car.getServedFloors());
+        int bookings = in.readInt();
+        for (int i = 0; i < bookings; i++) {
+            car.addBooking(in.readInt(), in.readInt());
+        }
+        BitSet carCalls = car.getCarCalls();
+        for (int floor = carCalls.nextSetBit(0); floor >= 0; floor = carCalls.nextSetBit(floor + 1)) {
+            car.addAlighting(floor, in.readInt());
+        }
+    }
+
+    private static void writeFloors(DataOutputStream out, BitSet floors) throws IOException {
+        long[] words = floors.toLongArray();
+        out.writeShort(words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    private static void readFloors(DataInputStream in, BitSet floors) throws IOException {
+        long[] words = new long[in.readUnsignedShort()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.readLong();
+        }
+        floors.or(BitSet.valueOf(words));
+    }
+}
@@ -0,0 +1,175 @@
+package org.deepak.journal;
+
+import lombok.Getter;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.deepak.enums.JournalRecordType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Append-only journal of fixed-size records in a memory-mapped file. Writers claim a slot with one atomic add
+// and fill it in place; the type word is written last, so a record with a zero type has not been committed yet.
+//
+// Record layout, 32 bytes:
+//   0 timestamp (long)   8 elevator id (int)   12 floor (int)   16 value (int)
+//   20 direction (byte, ordinal + 1)   21 state (byte, ordinal + 1)   28 type (int, ordinal + 1)
+// The first slot is the file header: magic at 0, format version at 8, record size at 12.
+public class TripJournal implements AutoCloseable {
+    public static final int RECORD_SIZE = 32;
+    public static final long DEFAULT_REGION_SIZE = 64L * 1024 * 1024;
+    static final long MAGIC = 0x454C564A524E4C31L; // "ELVJRNL1"
+    static final int VERSION = 1;
+    static final int TIMESTAMP = 0;
+    static final int ELEVATOR = 8;
+    static final int FLOOR = 12;
+    static final int VALUE = 16;
+    static final int DIRECTION = 20;
+    static final int STATE = 21;
+    static final int TYPE = 28;
+    static final VarHandle TYPE_WORD = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    @Getter
+    private final Path path;
+    private final FileChannel channel;
+    private final long regionSize;
+    private volatile MappedByteBuffer[] regions = new MappedByteBuffer[0];
+    private final AtomicLong next;
+    private volatile boolean closed;
+
+    private TripJournal(Path path, long regionSize) throws IOException {
+        if (regionSize <= 0 || regionSize % RECORD_SIZE != 0 || regionSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Region size must be a positive multiple of " + RECORD_SIZE + ": " + regionSize);
+        }
+        this.path = path;
+        this.regionSize = regionSize;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            this.next = new AtomicLong(openEnd());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static TripJournal open(Path path) throws IOException {
+        return new TripJournal(path, DEFAULT_REGION_SIZE);
+    }
+
+    public static TripJournal open(Path path, long regionSize) throws IOException {
+        return new TripJournal(path, regionSize);
+    }
+
+    public void append(JournalRecordType type, long timestamp, int elevatorId, int floor, int value,
+                       Direction direction, ElevatorState state) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed: " + path);
+        }
+        long position = next.getAndAdd(RECORD_SIZE);
+        MappedByteBuffer region = region((int) (position / regionSize));
+        int offset = (int) (position % regionSize);
+        region.putLong(offset + TIMESTAMP, timestamp);
+        region.putInt(offset + ELEVATOR, elevatorId);
+        region.putInt(offset + FLOOR, floor);
+        region.putInt(offset + VALUE, value);
+        region.put(offset + DIRECTION, (byte) (direction == null ? 0 : direction.ordinal() + 1));
+        region.put(offset + STATE, (byte) (state == null ? 0 : state.ordinal() + 1));
+        TYPE_WORD.setRelease(region, offset + TYPE, type.ordinal() + 1);
+    }
+
+    // Records appended so far, header excluded
+    public long getRecordCount() {
+        return next.get() / RECORD_SIZE - 1;
+    }
+
+    // Byte offset the next record goes to
+    public long getPosition() {
+        return next.get();
+    }
+
+    public void force() {
+        for (MappedByteBuffer region : regions) {
+            if (region != null) {
+                region.force();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        force();
+        channel.close();
+    }
+
+    private MappedByteBuffer region(int index) {
+        MappedByteBuffer[] mapped = regions;
+        if (index < mapped.length && mapped[index] != null) {
+            return mapped[index];
+        }
+        return map(index);
+    }
+
+    // Mapping past the end of the file grows it; the new space reads as zeros, i.e. uncommitted records
+    private synchronized MappedByteBuffer map(int index) {
+        MappedByteBuffer[] mapped = regions;
+        if (index < mapped.length && mapped[index] != null) {
+            return mapped[index];
+        }
+        try {
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, index * regionSize, regionSize);
+            MappedByteBuffer[] grown = Arrays.copyOf(mapped, Math.max(index + 1, mapped.length));
+            grown[index] = region;
+            regions = grown;
+            return region;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map journal region " + index + " of " + path, e);
+        }
+    }
+
+    // Writes the header into a new file, or finds the first uncommitted slot of an existing one
+    private long openEnd() throws IOException {
+        MappedByteBuffer first = region(0);
+        long magic = first.getLong(TIMESTAMP);
+        if (magic == 0) {
+            first.putLong(TIMESTAMP, MAGIC);
+            first.putInt(ELEVATOR, VERSION);
+            first.putInt(FLOOR, RECORD_SIZE);
+            return RECORD_SIZE;
+        }
+        if (magic != MAGIC || first.getInt(ELEVATOR) != VERSION || first.getInt(FLOOR) != RECORD_SIZE) {
+            throw new IOException("Not a trip journal: " + path);
+        }
+        long size = channel.size();
+        long position = RECORD_SIZE;
+        while (position < size) {
+            MappedByteBuffer region = region((int) (position / regionSize));
+            if ((int) TYPE_WORD.getAcquire(region, (int) (position % regionSize) + TYPE) == 0) {
+                break;
+            }
+            position += RECORD_SIZE;
+        }
+        // Records committed after a slot that never was (a writer died mid-append) would resurface once
+        // appends fill the gap, so they are discarded with it
+        for (long stale = position + RECORD_SIZE; stale < size; stale += RECORD_SIZE) {
+            MappedByteBuffer region = region((int) (stale / regionSize));
+            int offset = (int) (stale % regionSize) + TYPE;
+            if ((int) TYPE_WORD.getAcquire(region, offset) != 0) {
+                TYPE_WORD.setRelease(region, offset, 0);
+            }
+        }
+        return position;
+    }
+}
@@ -0,0 +1,74 @@
+package org.deepak.metrics;
+
+import lombok.Getter;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.interfaces.Clock;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// The measurements one elevator system records as it runs. Every recorder is lock-free and allocation-free, so
+// they stay on in production; they are read through the registry, e.g. by an HttpMetricsExporter.
+@Getter
+public class ElevatorMetrics {
+    public static final String HALL_CALL_WAIT = "elevator_hall_call_wait_milliseconds";
+    public static final String RIDE_TIME = "elevator_ride_time_milliseconds";
+    public static final String DISPATCH_LATENCY = "elevator_dispatch_latency_nanoseconds";
+    public static final String HALL_CALLS = "elevator_hall_calls_total";
+    public static final String NO_CAR_AVAILABLE = "elevator_no_car_available_total";
+    public static final String HALL_CALLS_MOVED = "elevator_hall_calls_moved_total";
+    public static final String STOPS = "elevator_stops_total";
+    public static final String REVERSALS = "elevator_reversals_total";
+    public static final String EMPTY_TRIPS = "elevator_empty_trips_total";
+    public static final String QUEUE_DEPTH = "elevator_queue_depth";
+    public static final String INTAKE_BACKLOG = "elevator_intake_backlog";
+    public static final String CAR_UTILIZATION = "elevator_car_utilization";
+
+    private final MetricsRegistry registry;
+    // From the hall button lighting to a car opening for it
+    private final LatencyHistogram hallCallWait;
+    // From the destination being pressed to the riders getting off there
+    private final LatencyHistogram rideTime;
+    // Time to pick a car for one hall call
+    private final LatencyHistogram dispatchLatency;
+    private final LongAdder hallCalls;
+    private final LongAdder noCarAvailable;
+    private final LongAdder hallCallsMoved; // Calls a HallCallOptimizer took from one car and gave to another
+    private final LongAdder stops;
+    private final LongAdder reversals;
+    private final LongAdder emptyTrips; // Moves started with nobody on board
+
+    public ElevatorMetrics() {
+        this(new MetricsRegistry());
+    }
+
+    public ElevatorMetrics(MetricsRegistry registry) {
+        this.registry = registry;
+        this.hallCallWait = registry.histogram(HALL_CALL_WAIT);
+        this.rideTime = registry.histogram(RIDE_TIME);
+        this.dispatchLatency = registry.histogram(DISPATCH_LATENCY);
+        this.hallCalls = registry.counter(HALL_CALLS);
+        this.noCarAvailable = registry.counter(NO_CAR_AVAILABLE);
+        this.hallCallsMoved = registry.counter(HALL_CALLS_MOVED);
+        this.stops = registry.counter(STOPS);
+        this.reversals = registry.counter(REVERSALS);
+        this.emptyTrips = registry.counter(EMPTY_TRIPS);
+    }
+
+    // Share of the time since now that the car spends moving
+    public void registerCar(ElevatorCar elevator, Clock clock) {
+        long since = clock.millis();
+        long movingBefore = elevator.getMovingMillis();
+        registry.gauge(carUtilization(elevator), () -> {
+            long elapsed = clock.millis() - since;
+            return elapsed <= 0 ? 0 : Math.min(1.0, (double) (elevator.getMovingMillis() - movingBefore) / elapsed);
+        });
+    }
+
+    public void unregisterCars() {
+        registry.removeGauges(CAR_UTILIZATION + "{");
+    }
+
+    private static String carUtilization(ElevatorCar elevator) {
+        return CAR_UTILIZATION + "{car=\"" + elevator.getId() + "\"}";
+    }
+}
@@ -0,0 +1,74 @@
+package org.deepak.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.deepak.interfaces.MetricsExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+// Serves /metrics as text and /metrics.json as JSON from the JDK's built-in HTTP server, on loopback by default
+public class HttpMetricsExporter implements MetricsExporter {
+    private static final Logger logger = LoggerFactory.getLogger(HttpMetricsExporter.class);
+
+    private final InetSocketAddress address;
+    private HttpServer server;
+
+    // Port 0 picks a free port; see getPort
+    public HttpMetricsExporter(int port) {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    public HttpMetricsExporter(InetSocketAddress address) {
+        this.address = address;
+    }
+
+    @Override
+    public synchronized void start(MetricsRegistry registry) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Metrics exporter already started");
+        }
+        HttpServer started = HttpServer.create(address, 0);
+        started.createContext("/metrics.json", exchange ->
+                respond(exchange, "application/json", registry, MetricsFormat::json));
+        started.createContext("/metrics", exchange ->
+                respond(exchange, "text/plain; charset=utf-8", registry, MetricsFormat::text));
+        started.start();
+        server = started;
+        logger.info("Serving metrics on http://{}:{}/metrics", address.getHostString(), getPort());
+    }
+
+    public synchronized int getPort() {
+        return server == null ? address.getPort() : server.getAddress().getPort();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, MetricsRegistry registry,
+                                Function<MetricsRegistry, String> format) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = format.apply(registry).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.deepak.metrics;
+
+import java.util.Iterator;
+import java.util.Map;
+
+// Renders a registry as Prometheus-style text or as JSON
+public final class MetricsFormat {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] QUANTILE_KEYS = {"p50", "p90", "p99", "p999"};
+
+    private MetricsFormat() {
+    }
+
+    public static String text(MetricsRegistry registry) {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Long> counter : registry.getCounters().entrySet()) {
+            out.append(counter.getKey()).append(' ').append(counter.getValue()).append('\n');
+        }
+        for (Map.Entry<String, Double> gauge : registry.getGauges().entrySet()) {
+            out.append(gauge.getKey()).append(' ').append(number(gauge.getValue())).append('\n');
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : registry.getHistograms().entrySet()) {
+            String name = entry.getKey();
+            LatencyHistogram histogram = entry.getValue();
+            for (double quantile : QUANTILES) {
+                out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                        .append(histogram.getValueAtPercentile(quantile)).append('\n');
+            }
+            out.append(name).append("_max ").append(histogram.getMax()).append('\n');
+            out.append(name).append("_mean ").append(number(histogram.getMean())).append('\n');
+            out.append(name).append("_count ").append(histogram.getCount()).append('\n');
+        }
+        return out.toString();
+    }
+
+    public static String json(MetricsRegistry registry) {
+        StringBuilder out = new StringBuilder("{\"counters\":{");
+        Iterator<Map.Entry<String, Long>> counters = registry.getCounters().entrySet().iterator();
+        while (counters.hasNext()) {
+            Map.Entry<String, Long> counter = counters.next();
+            key(out, counter.getKey()).append(counter.getValue());
+            if (counters.hasNext()) {
+                out.append(',');
+            }
+        }
+        out.append("},\"gauges\":{");
+        Iterator<Map.Entry<String, Double>> gauges = registry.getGauges().entrySet().iterator();
+        while (gauges.hasNext()) {
+            Map.Entry<String, Double> gauge = gauges.next();
+            key(out, gauge.getKey()).append(number(gauge.getValue()));
+            if (gauges.hasNext()) {
+                out.append(',');
+            }
+        }
+        out.append("},\"histograms\":{");
+        Iterator<Map.Entry<String, LatencyHistogram>> histograms = registry.getHistograms().entrySet().iterator();
+        while (histograms.hasNext()) {
+            Map.Entry<String, LatencyHistogram> entry = histograms.next();
+            LatencyHistogram histogram = entry.getValue();
+            key(out, entry.getKey()).append("{\"count\":").append(histogram.getCount())
+                    .append(",\"mean\":").append(number(histogram.getMean()));
+            for (int i = 0; i < QUANTILES.length; i++) {
+                out.append(",\"").append(QUANTILE_KEYS[i]).append("\":")
+                        .append(histogram.getValueAtPercentile(QUANTILES[i]));
+            }
+            out.append(",\"max\":").append(histogram.getMax()).append('}');
+            if (histograms.hasNext()) {
+                out.append(',');
+            }
+        }
+        return out.append("}}").toString();
+    }
+
+    private static StringBuilder key(StringBuilder out, String name) {
+        return out.append('"').append(name.replace("\\", "\\\\").replace("\"", "\\\"")).append("\":");
+    }
+
+    // JSON has no NaN or infinity
+    private static String number(double value) {
+        return Double.isFinite(value) ? String.valueOf(value) : "0";
+    }
+}
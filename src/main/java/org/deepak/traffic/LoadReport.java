@@ -0,0 +1,101 @@
+package org.deepak.traffic;
+
+import lombok.Getter;
+import org.deepak.metrics.LatencyHistogram;
+
+import java.util.Locale;
+
+// Outcome of one load run. Times are in building time, whatever speed the run went at.
+@Getter
+public class LoadReport {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final String description;
+    private final long passengers;
+    private final long delivered;
+    private final long unserved;
+    private final long rejectedCalls; // Hall presses no car could take, retried until one could
+    private final long elapsedMillis; // From the first arrival window opening to the last delivery
+    private final LatencyHistogram waitTimes;
+    private final LatencyHistogram rideTimes;
+    private final long hallCalls;
+    private final long dispatchCpuNanos; // CPU spent in the hall presses on the calling threads
+    private final LatencyHistogram dispatchLatency;
+
+    public LoadReport(String description, long passengers, long delivered, long unserved, long rejectedCalls,
+                      long elapsedMillis, LatencyHistogram waitTimes, LatencyHistogram rideTimes, long hallCalls,
+                      long dispatchCpuNanos, LatencyHistogram dispatchLatency) {
+        this.description = description;
+        this.passengers = passengers;
+        this.delivered = delivered;
+        this.unserved = unserved;
+        this.rejectedCalls = rejectedCalls;
+        this.elapsedMillis = elapsedMillis;
+        this.waitTimes = waitTimes;
+        this.rideTimes = rideTimes;
+        this.hallCalls = hallCalls;
+        this.dispatchCpuNanos = dispatchCpuNanos;
+        this.dispatchLatency = dispatchLatency;
+    }
+
+    public double getDeliveredPerHour() {
+        return elapsedMillis <= 0 ? 0 : delivered * 3_600_000.0 / elapsedMillis;
+    }
+
+    public double getDispatchCpuMicrosPerCall() {
+        return hallCalls == 0 ? 0 : dispatchCpuNanos / 1000.0 / hallCalls;
+    }
+
+    public String toText() {
+        StringBuilder out = new StringBuilder();
+        out.append(description).append('\n');
+        out.append(String.format(Locale.ROOT, "passengers %d, delivered %d, unserved %d, rejected calls %d%n",
+                passengers, delivered, unserved, rejectedCalls));
+        out.append(String.format(Locale.ROOT, "throughput %.1f passengers/h over %.1f min%n",
+                getDeliveredPerHour(), elapsedMillis / 60_000.0));
+        out.append(String.format(Locale.ROOT, "%-20s %10s %10s %10s %10s %10s%n", "", "mean", "p50", "p90", "p99", "max"));
+        out.append(row("wait s", waitTimes, 1000.0));
+        out.append(row("ride s", rideTimes, 1000.0));
+        out.append(row("dispatch us", dispatchLatency, 1000.0));
+        out.append(String.format(Locale.ROOT, "dispatcher CPU %.1f us per hall call (%d calls)%n",
+                getDispatchCpuMicrosPerCall(), hallCalls));
+        return out.toString();
+    }
+
+    public String toJson() {
+        return "{\"description\":\"" + description.replace("\\", "\\\\").replace("\"", "\\\"") + "\""
+                + ",\"passengers\":" + passengers
+                + ",\"delivered\":" + delivered
+                + ",\"unserved\":" + unserved
+                + ",\"rejectedCalls\":" + rejectedCalls
+                + ",\"elapsedMillis\":" + elapsedMillis
+                + ",\"deliveredPerHour\":" + number(getDeliveredPerHour())
+                + ",\"waitMillis\":" + json(waitTimes)
+                + ",\"rideMillis\":" + json(rideTimes)
+                + ",\"dispatchNanos\":" + json(dispatchLatency)
+                + ",\"hallCalls\":" + hallCalls
+                + ",\"dispatchCpuMicrosPerCall\":" + number(getDispatchCpuMicrosPerCall())
+                + "}";
+    }
+
+    private static String row(String name, LatencyHistogram histogram, double divisor) {
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT, "%-20s %10.1f", name, histogram.getMean() / divisor));
+        for (double quantile : QUANTILES) {
+            out.append(String.format(Locale.ROOT, " %10.1f", histogram.getValueAtPercentile(quantile) / divisor));
+        }
+        return out.append(String.format(Locale.ROOT, " %10.1f%n", histogram.getMax() / divisor)).toString();
+    }
+
+    private static String json(LatencyHistogram histogram) {
+        return "{\"count\":" + histogram.getCount()
+                + ",\"mean\":" + number(histogram.getMean())
+                + ",\"p50\":" + histogram.getValueAtPercentile(0.5)
+                + ",\"p90\":" + histogram.getValueAtPercentile(0.9)
+                + ",\"p99\":" + histogram.getValueAtPercentile(0.99)
+                + ",\"max\":" + histogram.getMax() + "}";
+    }
+
+    private static String number(double value) {
+        return Double.isFinite(value) ? String.valueOf(value) : "0";
+    }
+}
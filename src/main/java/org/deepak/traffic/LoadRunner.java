@@ -0,0 +1,200 @@
+package org.deepak.traffic;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.deepak.ElevatorSystem;
+import org.deepak.dto.Building;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.dto.dispatcher.EtaDispatchStrategy;
+import org.deepak.dto.dispatcher.RouteCost;
+import org.deepak.engine.MotionEngine;
+import org.deepak.engine.Simulation;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Runs a list of trips against a fresh fleet parked at the lobby and reports how it coped. Either event-driven on
+// a simulation clock, or in real time with many caller threads pressing hall buttons on a sped-up motion engine.
+public class LoadRunner {
+    private static final Logger logger = LoggerFactory.getLogger(LoadRunner.class);
+    // Building time allowed after the last arrival for everyone to get where they are going
+    public static final long DRAIN_MILLIS = 3_600_000L;
+    // A passenger whose call no car could take presses again after this long
+    public static final long RETRY_MILLIS = 5_000L;
+
+    private final int floors;
+    private final int cars;
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimed = threadBean.isCurrentThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
+    // Dispatch hall calls by estimated time to arrival instead of to the nearest car by score
+    @Getter
+    @Setter
+    private boolean etaDispatch;
+
+    public LoadRunner(int floors, int cars) {
+        if (floors < 2) {
+            throw new IllegalArgumentException("Need at least two floors: " + floors);
+        }
+        if (cars < 1) {
+            throw new IllegalArgumentException("Need at least one car: " + cars);
+        }
+        this.floors = floors;
+        this.cars = cars;
+    }
+
+    // Hours of traffic in moments, on one thread; the same trips always give the same report
+    public LoadReport simulate(String description, List<Trip> trips, long durationMillis) {
+        Simulation simulation = new Simulation(0);
+        ElevatorSystem system = createFleet("load-simulated", simulation.getMotionEngine(), 1);
+        Run run = new Run(system, 1.0);
+        for (Trip trip : trips) {
+            simulation.schedule(trip.arrivalMillis(), () -> {
+                PassengerTracker.Rider rider = run.tracker.arrive(trip);
+                callUntilTaken(run, rider, simulation);
+            });
+        }
+        simulation.runUntil(durationMillis + DRAIN_MILLIS);
+        return run.report(description, trips.size(), 0, 1.0);
+    }
+
+    private void callUntilTaken(Run run, PassengerTracker.Rider rider, Simulation simulation) {
+        if (!call(run, rider)) {
+            simulation.scheduleAfter(RETRY_MILLIS, () -> callUntilTaken(run, rider, simulation));
+        }
+    }
+
+    // Real time, with the trips and the cars both sped up by the given factor. Hall buttons are pressed from a pool
+    // of caller threads at each trip's arrival time; with actors every car also runs on a thread of its own.
+    public LoadReport drive(String description, List<Trip> trips, long durationMillis, int threads, double speedup,
+                            boolean actors) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one caller thread: " + threads);
+        }
+        if (speedup <= 0) {
+            throw new IllegalArgumentException("Speed-up must be positive: " + speedup);
+        }
+        long floorTravelMillis = Math.max(1, Math.round(MotionEngine.DEFAULT_FLOOR_TRAVEL_MILLIS / speedup));
+        MotionEngine engine = new MotionEngine(Math.max(1, floorTravelMillis / 10), floorTravelMillis);
+        ElevatorSystem system = createFleet("load-driven", engine, speedup);
+        if (actors) {
+            system.startActors();
+        }
+        Run run = new Run(system, speedup);
+        ScheduledThreadPoolExecutor callers = new ScheduledThreadPoolExecutor(threads, callerThreads());
+        long start = engine.getClock().millis();
+        try {
+            for (Trip trip : trips) {
+                callers.schedule(() -> {
+                    PassengerTracker.Rider rider = run.tracker.arrive(trip);
+                    callUntilTaken(run, rider, callers, speedup);
+                }, Math.round(trip.arrivalMillis() / speedup), TimeUnit.MILLISECONDS);
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.round((durationMillis + DRAIN_MILLIS) / speedup));
+            while (run.tracker.getArrived() < trips.size() || !run.tracker.isIdle()) {
+                if (System.nanoTime() > deadline) {
+                    logger.warn("Load run ended with {} passengers still unserved", run.tracker.getUnserved());
+                    break;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+        } finally {
+            callers.shutdownNow();
+            if (actors) {
+                system.stopActors();
+            }
+            engine.shutdown();
+        }
+        return run.report(description, trips.size(), start, speedup);
+    }
+
+    private void callUntilTaken(Run run, PassengerTracker.Rider rider, ScheduledThreadPoolExecutor callers,
+                                double speedup) {
+        if (!call(run, rider) && !callers.isShutdown()) {
+            callers.schedule(() -> callUntilTaken(run, rider, callers, speedup),
+                    Math.max(1, Math.round(RETRY_MILLIS / speedup)), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Times the press on the calling thread's CPU clock
+    private boolean call(Run run, PassengerTracker.Rider rider) {
+        long before = cpuTimed ? threadBean.getCurrentThreadCpuTime() : 0;
+        boolean taken = run.tracker.call(rider);
+        if (cpuTimed) {
+            run.cpuNanos.add(threadBean.getCurrentThreadCpuTime() - before);
+        }
+        run.calls.increment();
+        if (!taken) {
+            run.rejected.increment();
+        }
+        return taken;
+    }
+
+    // Door times and dispatch costs are sped up with the engine
+    private ElevatorSystem createFleet(String name, MotionEngine engine, double speedup) {
+        ElevatorSystem system = new ElevatorSystem(name, engine);
+        Building building = system.getBuilding();
+        List<ElevatorCar> elevators = new ArrayList<>();
+        for (int i = 0; i < cars; i++) {
+            ElevatorCar elevator = system.createElevatorCar();
+            elevator.restore(1, Direction.UP, ElevatorState.IDLE, 0);
+            elevator.getDoor().setTimeScale(speedup);
+            elevators.add(elevator);
+        }
+        building.setElevators(elevators);
+        building.setFloor(floors);
+        for (ElevatorCar elevator : elevators) {
+            elevator.setFloorPanel(floors);
+            system.addElevator(elevator);
+        }
+        if (etaDispatch) {
+            system.setDispatchStrategy(new EtaDispatchStrategy(system, new RouteCost(engine.getFloorTravelMillis(),
+                    Math.round(RouteCost.DEFAULT_DWELL_MILLIS / speedup),
+                    Math.round(RouteCost.DEFAULT_REVERSAL_MILLIS / speedup))));
+        }
+        return system;
+    }
+
+    private static ThreadFactory callerThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "load-caller-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Run {
+        private final ElevatorSystem system;
+        private final PassengerTracker tracker;
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        private Run(ElevatorSystem system, double timeScale) {
+            this.system = system;
+            this.tracker = new PassengerTracker(system.getBuilding(), system.getClock(), timeScale);
+            for (ElevatorCar elevator : system.getBuilding().getElevators()) {
+                elevator.getController().addObserver(tracker);
+            }
+        }
+
+        private LoadReport report(String description, int passengers, long start, double timeScale) {
+            long elapsed = tracker.getDelivered() == 0 ? 0 : Math.round((tracker.getLastDeliveryAt() - start) * timeScale);
+            return new LoadReport(description, passengers, tracker.getDelivered(),
+                    passengers - tracker.getDelivered(), rejected.sum(), elapsed, tracker.getWaitTimes(),
+                    tracker.getRideTimes(), calls.sum(), cpuNanos.sum(), system.getMetrics().getDispatchLatency());
+        }
+    }
+}
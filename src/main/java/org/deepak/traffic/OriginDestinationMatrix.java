@@ -0,0 +1,98 @@
+package org.deepak.traffic;
+
+import org.deepak.enums.TrafficProfile;
+
+import java.util.Random;
+
+// Relative weight of every origin and destination pair, indexed by floor number; row and column 0 are unused.
+// Pairs are drawn in proportion to their weight with a binary search over the running totals.
+public class OriginDestinationMatrix {
+    private final int floors;
+    private final double[] cumulative; // Running total of the weights, origin-major
+
+    public OriginDestinationMatrix(double[][] weights) {
+        int floors = weights.length - 1;
+        if (floors < 2) {
+            throw new IllegalArgumentException("Need at least two floors: " + floors);
+        }
+        this.floors = floors;
+        this.cumulative = new double[(floors + 1) * (floors + 1)];
+        double total = 0;
+        for (int origin = 1; origin <= floors; origin++) {
+            if (weights[origin].length != floors + 1) {
+                throw new IllegalArgumentException("Row " + origin + " must have " + (floors + 1) + " entries");
+            }
+            for (int destination = 1; destination <= floors; destination++) {
+                double weight = weights[origin][destination];
+                if (weight < 0 || Double.isNaN(weight)) {
+                    throw new IllegalArgumentException("Weight from " + origin + " to " + destination + " is " + weight);
+                }
+                if (origin != destination) {
+                    total += weight;
+                }
+                cumulative[origin * (floors + 1) + destination] = total;
+            }
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("No trip between two different floors has any weight");
+        }
+    }
+
+    // The standard profiles, with floor 1 as the lobby: the given share of trips leaves the lobby, the given share
+    // returns to it, and the rest run between the other floors, each spread evenly over its floors
+    public static OriginDestinationMatrix of(TrafficProfile profile, int floors) {
+        switch (profile) {
+            case UP_PEAK:
+                return of(floors, 0.85, 0.05);
+            case DOWN_PEAK:
+                return of(floors, 0.05, 0.85);
+            case LUNCH:
+                return of(floors, 0.4, 0.4);
+            case INTERFLOOR:
+                return of(floors, 0.05, 0.05);
+            default:
+                throw new IllegalArgumentException("Unknown traffic profile: " + profile);
+        }
+    }
+
+    public static OriginDestinationMatrix of(int floors, double fromLobby, double toLobby) {
+        if (floors < 2) {
+            throw new IllegalArgumentException("Need at least two floors: " + floors);
+        }
+        if (fromLobby < 0 || toLobby < 0 || fromLobby + toLobby > 1) {
+            throw new IllegalArgumentException("Lobby shares must be between 0 and 1 in total: " + fromLobby + ", " + toLobby);
+        }
+        double[][] weights = new double[floors + 1][floors + 1];
+        int upper = floors - 1;
+        double between = upper > 1 ? (1 - fromLobby - toLobby) / (upper * (upper - 1.0)) : 0;
+        for (int floor = 2; floor <= floors; floor++) {
+            weights[1][floor] = fromLobby / upper;
+            weights[floor][1] = toLobby / upper;
+            for (int destination = 2; destination <= floors; destination++) {
+                if (destination != floor) {
+                    weights[floor][destination] = between;
+                }
+            }
+        }
+        return new OriginDestinationMatrix(weights);
+    }
+
+    public int getFloors() {
+        return floors;
+    }
+
+    public Trip sample(long arrivalMillis, Random random) {
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] > target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return new Trip(arrivalMillis, low / (floors + 1), low % (floors + 1));
+    }
+}
@@ -0,0 +1,170 @@
+package org.deepak.traffic;
+
+import lombok.Getter;
+import org.deepak.dto.Building;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.deepak.interfaces.Clock;
+import org.deepak.interfaces.ElevatorObserver;
+import org.deepak.metrics.LatencyHistogram;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Follows every generated passenger through the building: waiting at the hall panel, boarding when a car answers
+// their direction, pressing their destination as they get on, and leaving when the car stops there.
+// Safe to drive from any number of threads; car calls are pressed outside the tracker's lock.
+public class PassengerTracker implements ElevatorObserver {
+    private final Building building;
+    private final Clock clock;
+    private final double timeScale; // Building milliseconds per clock millisecond
+    private final ArrayDeque<Rider>[][] waiting; // [floor][direction]
+    private final Map<Integer, List<Rider>> onBoard = new HashMap<>();
+    @Getter
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    @Getter
+    private final LatencyHistogram rideTimes = new LatencyHistogram();
+    @Getter
+    private long arrived;
+    @Getter
+    private long delivered;
+    private int riding;
+    private int waitingCount;
+    @Getter
+    private long lastDeliveryAt; // Clock time of the latest delivery
+
+    @SuppressWarnings("unchecked")
+    public PassengerTracker(Building building, Clock clock, double timeScale) {
+        if (timeScale <= 0) {
+            throw new IllegalArgumentException("Time scale must be positive: " + timeScale);
+        }
+        this.building = building;
+        this.clock = clock;
+        this.timeScale = timeScale;
+        int floors = building.getFloors().size();
+        waiting = (ArrayDeque<Rider>[][]) new ArrayDeque<?>[floors + 1][2];
+        for (int floor = 1; floor <= floors; floor++) {
+            waiting[floor][0] = new ArrayDeque<>();
+            waiting[floor][1] = new ArrayDeque<>();
+        }
+    }
+
+    // The passenger starts waiting; the caller then presses the hall button for them, see call
+    public synchronized Rider arrive(Trip trip) {
+        if (trip.origin() < 1 || trip.origin() >= waiting.length || trip.destination() < 1
+                || trip.destination() >= waiting.length || trip.origin() == trip.destination()) {
+            throw new IllegalArgumentException("Trip outside the building: " + trip);
+        }
+        Rider rider = new Rider(trip, clock.millis());
+        waiting[trip.origin()][index(trip.direction())].add(rider);
+        arrived++;
+        waitingCount++;
+        return rider;
+    }
+
+    // Presses the hall button; false when no car could take the call, leaving the rider waiting to try again
+    public boolean call(Rider rider) {
+        try {
+            building.getFloor(rider.trip.origin()).getPanel().pressButton(rider.trip.direction());
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    public synchronized boolean isIdle() {
+        return waitingCount == 0 && riding == 0;
+    }
+
+    public synchronized int getUnserved() {
+        return waitingCount + riding;
+    }
+
+    // The hall panel boards passengers by count; the same number of tracked riders get on, first come first served
+    @Override
+    public void onPassengersBoarded(ElevatorCar elevator, int floor, Direction direction, int count) {
+        int[] destinations = new int[count];
+        int boarded = 0;
+        synchronized (this) {
+            if (floor < 1 || floor >= waiting.length) {
+                return;
+            }
+            long now = clock.millis();
+            List<Rider> riders = onBoard.computeIfAbsent(elevator.getId(), id -> new ArrayList<>());
+            Iterator<Rider> candidates = waiting[floor][index(direction)].iterator();
+            while (boarded < count && candidates.hasNext()) {
+                Rider rider = candidates.next();
+                // A zoned car has no button for this rider's floor; they wait for a car of the right bank
+                if (!elevator.serves(rider.trip.destination())) {
+                    continue;
+                }
+                candidates.remove();
+                rider.boardedAt = now;
+                waitTimes.record(scaled(now - rider.arrivedAt));
+                riders.add(rider);
+                destinations[boarded++] = rider.trip.destination();
+            }
+            waitingCount -= boarded;
+            riding += boarded;
+        }
+        for (int i = 0; i < boarded; i++) {
+            elevator.pressFloorButton(destinations[i]);
+        }
+    }
+
+    @Override
+    public synchronized void onRequestCompleted(ElevatorCar elevator, int floor) {
+        List<Rider> riders = onBoard.get(elevator.getId());
+        if (riders == null) {
+            return;
+        }
+        long now = clock.millis();
+        Iterator<Rider> iterator = riders.iterator();
+        while (iterator.hasNext()) {
+            Rider rider = iterator.next();
+            if (rider.trip.destination() == floor) {
+                iterator.remove();
+                rideTimes.record(scaled(now - rider.boardedAt));
+                delivered++;
+                riding--;
+                lastDeliveryAt = now;
+            }
+        }
+    }
+
+    @Override
+    public void onElevatorStateChanged(ElevatorCar elevator, ElevatorState newState) {
+    }
+
+    @Override
+    public void onFloorChanged(ElevatorCar elevator, int newFloor) {
+    }
+
+    private long scaled(long clockMillis) {
+        return Math.round(clockMillis * timeScale);
+    }
+
+    private static int index(Direction direction) {
+        return direction == Direction.UP ? 0 : 1;
+    }
+
+    public static final class Rider {
+        private final Trip trip;
+        private final long arrivedAt;
+        private long boardedAt;
+
+        private Rider(Trip trip, long arrivedAt) {
+            this.trip = trip;
+            this.arrivedAt = arrivedAt;
+        }
+
+        public Trip getTrip() {
+            return trip;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.deepak.traffic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Poisson passenger arrivals at a steady rate, each trip drawn from the origin and destination matrix
+public class TrafficGenerator {
+    private final OriginDestinationMatrix matrix;
+    private final double passengersPerHour;
+
+    public TrafficGenerator(OriginDestinationMatrix matrix, double passengersPerHour) {
+        if (passengersPerHour <= 0) {
+            throw new IllegalArgumentException("Arrival rate must be positive: " + passengersPerHour);
+        }
+        this.matrix = matrix;
+        this.passengersPerHour = passengersPerHour;
+    }
+
+    // Trips arriving within the duration, in arrival order; the same seed gives the same trips
+    public List<Trip> generate(long durationMillis, long seed) {
+        Random random = new Random(seed);
+        List<Trip> trips = new ArrayList<>();
+        double meanGapMillis = 3_600_000.0 / passengersPerHour;
+        double time = 0;
+        while (true) {
+            time += -Math.log(1.0 - random.nextDouble()) * meanGapMillis;
+            if (time >= durationMillis) {
+                return trips;
+            }
+            trips.add(matrix.sample((long) time, random));
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.deepak.traffic;
+
+import org.deepak.enums.Direction;
+
+// One passenger: arrives at the origin floor's hall panel and rides to the destination
+public record Trip(long arrivalMillis, int origin, int destination) {
+    public Direction direction() {
+        return destination > origin ? Direction.UP : Direction.DOWN;
+    }
+}
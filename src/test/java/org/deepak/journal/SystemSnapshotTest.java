@@ -0,0 +1,198 @@
+package org.deepak.journal;
+
+import org.deepak.ElevatorSystem;
+import org.deepak.dto.Building;
+import org.deepak.dto.ElevatorCar;
+import org.deepak.dto.ElevatorController;
+import org.deepak.engine.Simulation;
+import org.deepak.enums.Direction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SystemSnapshotTest {
+    private static final int CARS = 4;
+    private static final int FLOORS = 20;
+
+    @TempDir
+    Path directory;
+
+    private Simulation simulation;
+    private ElevatorSystem system;
+    private TripJournal journal;
+    private Path journalPath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        simulation = new Simulation(7);
+        system = new ElevatorSystem("snapshot", simulation.getMotionEngine());
+        List<ElevatorCar> cars = new ArrayList<>();
+        for (int i = 0; i < CARS; i++) {
+            cars.add(system.createElevatorCar());
+        }
+        Building building = system.getBuilding();
+        building.setElevators(cars);
+        building.setFloor(FLOORS);
+        for (ElevatorCar car : cars) {
+            car.setFloorPanel(FLOORS);
+            system.addElevator(car);
+        }
+        journalPath = directory.resolve("trips.journal");
+        journal = TripJournal.open(journalPath);
+        system.setJournal(journal);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+    }
+
+    @Test
+    void journalAloneRebuildsTheLiveFleet() throws IOException {
+        traffic(40, 1000, 1);
+        simulation.runUntil(40_000);
+
+        try (JournalReader reader = JournalReader.open(journalPath)) {
+            assertMatchesLive(reader.stateAt(Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void snapshotReadsBackAsWritten() throws IOException {
+        traffic(30, 1000, 2);
+        simulation.runUntil(30_000);
+
+        SystemSnapshot captured = SystemSnapshot.capture(system);
+        Path path = directory.resolve("fleet.snapshot");
+        captured.write(path);
+        SystemSnapshot read = SystemSnapshot.read(path);
+
+        assertEquals(captured.getTimestamp(), read.getTimestamp());
+        assertEquals(captured.getJournalPosition(), read.getJournalPosition());
+        assertEquals(FLOORS, read.getFloorCount());
+        assertMatchesLive(read.getState());
+        assertFalse(Files.exists(path.resolveSibling("fleet.snapshot.tmp")));
+    }
+
+    @Test
+    void recoveryAppliesTheJournalWrittenAfterTheSnapshot() throws IOException {
+        traffic(60, 1000, 3);
+        simulation.runUntil(30_000);
+        Path path = directory.resolve("fleet.snapshot");
+        SystemSnapshot.capture(system).write(path);
+        simulation.runUntil(60_000);
+
+        SystemSnapshot snapshot = SystemSnapshot.read(path);
+        JournalState state;
+        try (JournalReader reader = JournalReader.open(journalPath)) {
+            state = snapshot.recover(reader);
+        }
+
+        assertTrue(state.getAppliedRecords() > 0);
+        assertMatchesLive(state);
+    }
+
+    @Test
+    void restoredFleetMatchesTheRecoveredState() throws IOException {
+        traffic(45, 1000, 4);
+        simulation.runUntil(30_000);
+        Path path = directory.resolve("fleet.snapshot");
+        SystemSnapshot.capture(system).write(path);
+        simulation.runUntil(45_000);
+
+        SystemSnapshot snapshot = SystemSnapshot.read(path);
+        JournalState state;
+        try (JournalReader reader = JournalReader.open(journalPath)) {
+            state = snapshot.recover(reader);
+        }
+        ElevatorSystem restarted = new ElevatorSystem("restarted", new Simulation(8).getMotionEngine());
+        restarted.restore(snapshot.getFloorCount(), state);
+
+        List<JournalState.CarState> recovered = state.getCars();
+        List<ElevatorController> controllers = restarted.getControllers();
+        assertEquals(recovered.size(), controllers.size());
+        for (int i = 0; i < controllers.size(); i++) {
+            assertSameCar(recovered.get(i), capture(controllers.get(i)));
+        }
+    }
+
+    // Seeded hall and destination calls, one every gap millis; a rider getting in a hall call car picks a floor
+    private void traffic(int calls, long gap, long seed) {
+        Random random = new Random(seed);
+        Building building = system.getBuilding();
+        for (int i = 0; i < calls; i++) {
+            int origin = 1 + random.nextInt(FLOORS);
+            int destination = 1 + (origin + random.nextInt(FLOORS - 1)) % FLOORS;
+            boolean destinationCall = random.nextInt(4) == 0;
+            simulation.schedule(simulation.now() + i * gap, () -> {
+                try {
+                    if (destinationCall) {
+                        building.getFloor(origin).getPanel().pressDestination(destination);
+                        return;
+                    }
+                    ElevatorCar car = building.getFloor(origin).getPanel()
+                            .pressButton(destination > origin ? Direction.UP : Direction.DOWN);
+                    simulation.scheduleAfter(3000, () -> car.pressFloorButton(destination));
+                } catch (RuntimeException e) {
+                    // Every car busy or full: the rider gives up, as on a real landing
+                }
+            });
+        }
+    }
+
+    private void assertMatchesLive(JournalState state) {
+        assertTrue(pendingCalls() > 0, "nothing left to compare");
+        assertEquals(system.getControllers().size(), state.getCars().size());
+        for (ElevatorController controller : system.getControllers()) {
+            JournalState.CarState recovered = state.getCar(controller.getElevator().getId());
+            assertNotNull(recovered, "car #" + controller.getElevator().getId());
+            assertSameCar(capture(controller), recovered);
+        }
+    }
+
+    private int pendingCalls() {
+        int pending = 0;
+        for (ElevatorController controller : system.getControllers()) {
+            JournalState.CarState car = capture(controller);
+            pending += car.getCarCalls().cardinality() + car.getUpHallCalls().cardinality()
+                    + car.getDownHallCalls().cardinality() + car.getBookingCount();
+        }
+        return pending;
+    }
+
+    private static JournalState.CarState capture(ElevatorController controller) {
+        JournalState.CarState car = new JournalState().addCar(controller.getElevator().getId());
+        controller.captureState(car);
+        return car;
+    }
+
+    private static void assertSameCar(JournalState.CarState expected, JournalState.CarState actual) {
+        String car = "car #" + expected.getElevatorId();
+        assertEquals(expected.getFloor(), actual.getFloor(), car + " floor");
+        assertEquals(expected.getLoad(), actual.getLoad(), car + " load");
+        assertEquals(expected.getCapacity(), actual.getCapacity(), car + " capacity");
+        assertEquals(expected.getCarCalls(), actual.getCarCalls(), car + " car calls");
+        assertEquals(expected.getUpHallCalls(), actual.getUpHallCalls(), car + " up hall calls");
+        assertEquals(expected.getDownHallCalls(), actual.getDownHallCalls(), car + " down hall calls");
+        assertEquals(expected.getServedFloors(), actual.getServedFloors(), car + " served floors");
+        assertEquals(expected.getBookingCount(), actual.getBookingCount(), car + " bookings");
+        for (int i = 0; i < expected.getBookingCount(); i++) {
+            assertEquals(expected.getBookingOrigin(i), actual.getBookingOrigin(i), car + " booking origin");
+            assertEquals(expected.getBookingDestination(i), actual.getBookingDestination(i),
+                    car + " booking destination");
+        }
+        for (int floor = 1; floor <= FLOORS; floor++) {
+            assertEquals(expected.getAlighting(floor), actual.getAlighting(floor), car + " riders for " + floor);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.deepak.journal;
+
+import org.deepak.enums.Direction;
+import org.deepak.enums.ElevatorState;
+import org.deepak.enums.JournalRecordType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+import static org.deepak.journal.TripJournal.RECORD_SIZE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TripJournalTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void readerReturnsRecordsAsWritten() throws IOException {
+        Path path = directory.resolve("trips.journal");
+        try (TripJournal journal = TripJournal.open(path)) {
+            journal.append(JournalRecordType.ELEVATOR_ADDED, 100, 1, 1, 8, null, ElevatorState.IDLE);
+            journal.append(JournalRecordType.HALL_CALL, 110, 0, 5, 0, Direction.DOWN, null);
+            journal.append(JournalRecordType.FLOOR_CHANGED, 120, 1, 2, 0, Direction.UP, ElevatorState.MOVING);
+            assertEquals(3, journal.getRecordCount());
+        }
+
+        try (JournalReader reader = JournalReader.open(path)) {
+            JournalRecord record = new JournalRecord();
+            assertTrue(reader.next(record));
+            assertRecord(record, JournalRecordType.ELEVATOR_ADDED, 100, 1, 1, 8, null, ElevatorState.IDLE);
+            assertTrue(reader.next(record));
+            assertRecord(record, JournalRecordType.HALL_CALL, 110, 0, 5, 0, Direction.DOWN, null);
+            assertTrue(reader.next(record));
+            assertRecord(record, JournalRecordType.FLOOR_CHANGED, 120, 1, 2, 0, Direction.UP, ElevatorState.MOVING);
+            assertEquals(RECORD_SIZE * 3L, record.getPosition());
+            assertFalse(reader.next(record));
+        }
+    }
+
+    @Test
+    void stateFollowsCallsThroughToTheirStops() throws IOException {
+        Path path = directory.resolve("trips.journal");
+        try (TripJournal journal = TripJournal.open(path)) {
+            journal.append(JournalRecordType.FLEET_RESET, 0, 0, 0, 0, null, null);
+            journal.append(JournalRecordType.ELEVATOR_ADDED, 0, 1, 1, 8, null, ElevatorState.IDLE);
+            journal.append(JournalRecordType.ELEVATOR_ADDED, 0, 2, 10, 8, null, ElevatorState.IDLE);
+            journal.append(JournalRecordType.ASSIGNED, 10, 1, 4, 0, Direction.UP, null);
+            journal.append(JournalRecordType.BOOKED, 20, 2, 7, 3, null, null);
+            journal.append(JournalRecordType.STATE_CHANGED, 30, 1, 1, 0, Direction.UP, ElevatorState.MOVING);
+            journal.append(JournalRecordType.FLOOR_CHANGED, 40, 1, 4, 0, Direction.UP, ElevatorState.MOVING);
+            journal.append(JournalRecordType.STOP_COMPLETED, 50, 1, 4, 1, Direction.UP, ElevatorState.IDLE);
+            journal.append(JournalRecordType.PASSENGERS_BOARDED, 50, 1, 4, 2, Direction.UP, ElevatorState.IDLE);
+            journal.append(JournalRecordType.CAR_CALL, 60, 1, 9, 2, Direction.UP, ElevatorState.IDLE);
+        }
+
+        JournalState state;
+        try (JournalReader reader = JournalReader.open(path)) {
+            state = reader.stateAt(Long.MAX_VALUE);
+        }
+        assertEquals(10, state.getAppliedRecords());
+        assertEquals(60, state.getTimestamp());
+        assertEquals(2, state.getCars().size());
+
+        JournalState.CarState first = state.getCar(1);
+        assertEquals(4, first.getFloor());
+        assertEquals(ElevatorState.MOVING, first.getState());
+        assertEquals(8, first.getCapacity());
+        assertEquals(2, first.getLoad());
+        assertTrue(first.getUpHallCalls().isEmpty());
+        assertEquals(floors(9), first.getCarCalls());
+        assertEquals(2, first.getAlighting(9));
+
+        JournalState.CarState second = state.getCar(2);
+        assertEquals(10, second.getFloor());
+        assertEquals(floors(7), second.getDownHallCalls());
+        assertEquals(1, second.getBookingCount());
+        assertEquals(7, second.getBookingOrigin(0));
+        assertEquals(3, second.getBookingDestination(0));
+    }
+
+    @Test
+    void stateAtStopsAtTheGivenTime() throws IOException {
+        Path path = directory.resolve("trips.journal");
+        try (TripJournal journal = TripJournal.open(path)) {
+            journal.append(JournalRecordType.ELEVATOR_ADDED, 0, 1, 1, 8, null, ElevatorState.IDLE);
+            journal.append(JournalRecordType.FLOOR_CHANGED, 100, 1, 2, 0, Direction.UP, ElevatorState.MOVING);
+            journal.append(JournalRecordType.FLOOR_CHANGED, 200, 1, 3, 0, Direction.UP, ElevatorState.MOVING);
+        }
+
+        try (JournalReader reader = JournalReader.open(path)) {
+            assertEquals(2, reader.stateAt(150).getCar(1).getFloor());
+            assertEquals(3, reader.stateAt(200).getCar(1).getFloor());
+        }
+    }
+
+    // A writer that died mid-append leaves a slot with no type; the records after it are not part of the journal
+    @Test
+    void tornRecordEndsTheJournal() throws IOException {
+        Path path = directory.resolve("trips.journal");
+        try (TripJournal journal = TripJournal.open(path)) {
+            for (int floor = 1; floor <= 5; floor++) {
+                journal.append(JournalRecordType.FLOOR_CHANGED, floor * 100L, 1, floor, 0, Direction.UP,
+                        ElevatorState.MOVING);
+            }
+        }
+        clearType(path, 3);
+
+        try (JournalReader reader = JournalReader.open(path)) {
+            assertEquals(2, count(reader));
+        }
+
+        // Reopening discards the stale records past the gap, and appends go into it
+        try (TripJournal journal = TripJournal.open(path)) {
+            assertEquals(2, journal.getRecordCount());
+            journal.append(JournalRecordType.FLOOR_CHANGED, 600, 1, 9, 0, Direction.UP, ElevatorState.MOVING);
+        }
+        try (JournalReader reader = JournalReader.open(path)) {
+            JournalRecord record = new JournalRecord();
+            int floor = 0;
+            int records = 0;
+            while (reader.next(record)) {
+                floor = record.getFloor();
+                records++;
+            }
+            assertEquals(3, records);
+            assertEquals(9, floor);
+        }
+    }
+
+    @Test
+    void truncatedTailIsIgnored() throws IOException {
+        Path path = directory.resolve("trips.journal");
+        try (TripJournal journal = TripJournal.open(path)) {
+            for (int floor = 1; floor <= 3; floor++) {
+                journal.append(JournalRecordType.FLOOR_CHANGED, floor * 100L, 1, floor, 0, Direction.UP,
+                        ElevatorState.MOVING);
+            }
+        }
+        // Cut the file off halfway through the third record
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(RECORD_SIZE * 3L + RECORD_SIZE / 2);
+        }
+
+        try (JournalReader reader = JournalReader.open(path)) {
+            assertEquals(2, count(reader));
+        }
+        try (TripJournal journal = TripJournal.open(path)) {
+            assertEquals(2, journal.getRecordCount());
+        }
+    }
+
+    @Test
+    void rejectsAFileThatIsNotAJournal() throws IOException {
+        Path path = directory.resolve("trips.journal");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[RECORD_SIZE * 2]).putLong(0, 42));
+        }
+
+        assertThrows(IOException.class, () -> JournalReader.open(path));
+        assertThrows(IOException.class, () -> TripJournal.open(path));
+    }
+
+    // Zeroes the type word of the given record, counting from 1 after the header
+    private static void clearType(Path path, int record) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES), (long) record * RECORD_SIZE + TripJournal.TYPE);
+        }
+    }
+
+    private static int count(JournalReader reader) {
+        JournalRecord record = new JournalRecord();
+        int records = 0;
+        while (reader.next(record)) {
+            records++;
+        }
+        return records;
+    }
+
+    private static BitSet floors(int... floors) {
+        BitSet set = new BitSet();
+        for (int floor : floors) {
+            set.set(floor);
+        }
+        return set;
+    }
+
+    private static void assertRecord(JournalRecord record, JournalRecordType type, long timestamp, int elevatorId,
+                                     int floor, int value, Direction direction, ElevatorState state) {
+        assertEquals(type, record.getType());
+        assertEquals(timestamp, record.getTimestamp());
+        assertEquals(elevatorId, record.getElevatorId());
+        assertEquals(floor, record.getFloor());
+        assertEquals(value, record.getValue());
+        assertEquals(direction, record.getDirection());
+        assertEquals(state, record.getState());
+    }
+}